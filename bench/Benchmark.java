@@ -0,0 +1,56 @@
+// ID - 212945760
+
+/**
+ * The Benchmark class - a micro benchmark run by the BenchmarkRunner. A benchmark prepares its input in setUp
+ * (which isn't measured), and every call to run does a fixed number of operations on it. run returns a value that
+ * depends on the work it did, which the runner consumes so the JIT compiler can't remove the work.
+ *
+ * @author Ori Dabush
+ */
+public abstract class Benchmark {
+
+    private String name;
+    private int operations;
+
+    /**
+     * A constructor that creates a benchmark.
+     *
+     * @param name       the name of the benchmark (with its parameters).
+     * @param operations the number of operations every call to run does.
+     */
+    public Benchmark(String name, int operations) {
+        this.name = name;
+        this.operations = operations;
+    }
+
+    /**
+     * A method to get the name of the benchmark.
+     *
+     * @return the name of the benchmark.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * A method to get the number of operations every call to run does.
+     *
+     * @return the number of operations.
+     */
+    public int getOperations() {
+        return this.operations;
+    }
+
+    /**
+     * A method that prepares the input of the benchmark. It is called once, before the benchmark is run.
+     */
+    public void setUp() {
+    }
+
+    /**
+     * A method that does the measured operations once.
+     *
+     * @return a value that depends on the work that was done.
+     */
+    public abstract long run();
+}
@@ -0,0 +1,106 @@
+// ID - 212945760
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The BenchmarkRunner class - runs the benchmarks of the geometry and the simulation hot paths, and prints the
+ * time of an operation of every benchmark. Every benchmark is warmed up first (so it is measured after the JIT
+ * compiler compiled it), and then it is measured in several iterations, and the mean and the standard deviation
+ * of the iterations are printed.
+ * The benchmarks to run can be chosen by giving parts of their names as command line arguments.
+ *
+ * @author Ori Dabush
+ */
+public class BenchmarkRunner {
+
+    /**
+     * The number of warm up and measured iterations, and the time of an iteration.
+     */
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int ITERATIONS = 10;
+    private static final long ITERATION_NANOS = 200000000L;
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * The values returned by the benchmarks are summed here, so the work of the benchmarks is not removed.
+     */
+    private static volatile long sink;
+
+    /**
+     * A method that runs a benchmark for about the time of an iteration.
+     *
+     * @param b the benchmark.
+     * @return the time of one operation in nanoseconds.
+     */
+    private static double iteration(Benchmark b) {
+        long calls = 0, result = 0, start = System.nanoTime(), elapsed;
+        do {
+            result += b.run();
+            calls++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < ITERATION_NANOS);
+        sink += result;
+        return (double) elapsed / (calls * (double) b.getOperations());
+    }
+
+    /**
+     * A method that warms up and measures a benchmark, and prints its results.
+     *
+     * @param b the benchmark.
+     */
+    public static void measure(Benchmark b) {
+        b.setUp();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            iteration(b);
+        }
+        double[] times = new double[ITERATIONS];
+        double sum = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            times[i] = iteration(b);
+            sum += times[i];
+        }
+        double mean = sum / ITERATIONS, variance = 0;
+        for (double t : times) {
+            variance += (t - mean) * (t - mean);
+        }
+        double deviation = Math.sqrt(variance / (ITERATIONS - 1));
+        System.out.printf("%-60s %14.3f ns/op %10.3f  %16.1f ops/s%n", b.getName(), mean, deviation,
+                NANOS_PER_SECOND / mean);
+    }
+
+    /**
+     * A method that gets all the benchmarks.
+     *
+     * @return the benchmarks.
+     */
+    public static List<Benchmark> all() {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+        benchmarks.addAll(GeometryBenchmarks.create());
+        benchmarks.addAll(SimulationBenchmarks.create());
+        benchmarks.addAll(IntersectionBenchmarks.create());
+        return benchmarks;
+    }
+
+    /**
+     * The main method, which runs the benchmarks.
+     *
+     * @param args parts of the names of the benchmarks to run (all of them are run if there are none).
+     */
+    public static void main(String[] args) {
+        System.out.printf("%-60s %14s %16s %16s%n", "benchmark", "time", "(stddev)", "throughput");
+        for (Benchmark b : all()) {
+            boolean selected = args.length == 0;
+            for (String filter : args) {
+                selected |= b.getName().contains(filter);
+            }
+            if (selected) {
+                measure(b);
+            }
+        }
+        if (sink == 0) {
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+// ID - 212945760
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The GeometryBenchmarks class - benchmarks of Line.isIntersecting and Line.intersectionWith (on random lines and
+ * on the degenerate cases - vertical, collinear, zero length and nearly parallel lines), Point.distance and
+ * Velocity.fromAngleAndSpeed.
+ *
+ * @author Ori Dabush
+ */
+public class GeometryBenchmarks {
+
+    /**
+     * The number of inputs of every benchmark (every call to run goes over all of them).
+     */
+    private static final int INPUTS = 1024;
+
+    /**
+     * The size of the area the random lines and points are in.
+     */
+    private static final int AREA = 400;
+
+    /**
+     * The kinds of line pairs.
+     */
+    private static final String[] KINDS = {"random", "vertical", "collinear", "zero-length", "nearly-parallel"};
+
+    private static final double FULL_CIRCLE = 360;
+    private static final double RIGHT_ANGLE = 90;
+    private static final double SPEED = 5;
+
+    /**
+     * A method that creates a pair of lines of the given kind.
+     *
+     * @param kind the kind of the pair.
+     * @param rand the random source.
+     * @return the pair of lines.
+     */
+    private static Line[] createPair(String kind, Random rand) {
+        double x1 = rand.nextInt(AREA), y1 = rand.nextInt(AREA), x2 = rand.nextInt(AREA), y2 = rand.nextInt(AREA);
+        double x3 = rand.nextInt(AREA), y3 = rand.nextInt(AREA), x4 = rand.nextInt(AREA), y4 = rand.nextInt(AREA);
+        if (kind.equals("vertical")) {
+            // a vertical line and a random line.
+            return new Line[] {new Line(x1, y1, x1, y2), new Line(x3, y3, x4, y4)};
+        } else if (kind.equals("collinear")) {
+            // two lines on the line y = x + c, which may overlap, touch or be apart.
+            double c = rand.nextInt(AREA);
+            return new Line[] {new Line(x1, x1 + c, x2, x2 + c), new Line(x3, x3 + c, x4, x4 + c)};
+        } else if (kind.equals("zero-length")) {
+            // a single point and a line which it is on half of the times.
+            Line l = new Line(x3, y3, x4, y4);
+            Point p = rand.nextBoolean() ? l.middle() : new Point(x1, y1);
+            return new Line[] {new Line(p, p), l};
+        } else if (kind.equals("nearly-parallel")) {
+            // a line and a copy of it which is moved by one ulp at one end, or a part of it which starts at a
+            // rounded point on it.
+            Line l = new Line(x1, y1 + 1.0 / (1 + x2), x2, y2);
+            if (rand.nextBoolean()) {
+                return new Line[] {l, new Line(x1, y1 + 1.0 / (1 + x2), x2, Math.nextUp(y2))};
+            }
+            double t = rand.nextDouble();
+            return new Line[] {l, new Line(x1 + t * (x2 - x1), l.start().getY() + t * (y2 - l.start().getY()), x2, y2)};
+        }
+        return new Line[] {new Line(x1, y1, x2, y2), new Line(x3, y3, x4, y4)};
+    }
+
+    /**
+     * A method that creates pairs of lines of the given kind.
+     *
+     * @param kind the kind of the pairs.
+     * @return the pairs, pairs[i][0] and pairs[i][1] are the i'th pair.
+     */
+    private static Line[][] createPairs(String kind) {
+        Random rand = new Random(kind.hashCode());
+        Line[][] pairs = new Line[INPUTS][];
+        for (int i = 0; i < INPUTS; i++) {
+            pairs[i] = createPair(kind, rand);
+        }
+        return pairs;
+    }
+
+    /**
+     * A method that creates the geometry benchmarks.
+     *
+     * @return the benchmarks.
+     */
+    public static List<Benchmark> create() {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+        for (final String kind : KINDS) {
+            benchmarks.add(new Benchmark("Line.isIntersecting [" + kind + "]", INPUTS) {
+                private Line[][] pairs;
+
+                @Override
+                public void setUp() {
+                    this.pairs = createPairs(kind);
+                }
+
+                @Override
+                public long run() {
+                    long count = 0;
+                    for (Line[] pair : this.pairs) {
+                        if (pair[0].isIntersecting(pair[1])) {
+                            count++;
+                        }
+                    }
+                    return count;
+                }
+            });
+            benchmarks.add(new Benchmark("Line.intersectionWith [" + kind + "]", INPUTS) {
+                private Line[][] pairs;
+
+                @Override
+                public void setUp() {
+                    this.pairs = createPairs(kind);
+                }
+
+                @Override
+                public long run() {
+                    long sum = 0;
+                    for (Line[] pair : this.pairs) {
+                        Point p = pair[0].intersectionWith(pair[1]);
+                        if (p != null) {
+                            sum += (long) p.getX();
+                        }
+                    }
+                    return sum;
+                }
+            });
+        }
+        benchmarks.add(new Benchmark("Point.distance", INPUTS) {
+            private Point[] points;
+
+            @Override
+            public void setUp() {
+                Random rand = new Random(1);
+                this.points = new Point[INPUTS + 1];
+                for (int i = 0; i < this.points.length; i++) {
+                    this.points[i] = new Point(rand.nextDouble() * AREA, rand.nextDouble() * AREA);
+                }
+            }
+
+            @Override
+            public long run() {
+                double sum = 0;
+                for (int i = 0; i < INPUTS; i++) {
+                    sum += this.points[i].distance(this.points[i + 1]);
+                }
+                return (long) sum;
+            }
+        });
+        for (final boolean rightAngles : new boolean[] {false, true}) {
+            String name = "Velocity.fromAngleAndSpeed [" + (rightAngles ? "right angles" : "random angles") + "]";
+            benchmarks.add(new Benchmark(name, INPUTS) {
+                private double[] angles;
+
+                @Override
+                public void setUp() {
+                    Random rand = new Random(2);
+                    this.angles = new double[INPUTS];
+                    for (int i = 0; i < INPUTS; i++) {
+                        this.angles[i] = rightAngles ? RIGHT_ANGLE * rand.nextInt(4)
+                                : rand.nextDouble() * FULL_CIRCLE;
+                    }
+                }
+
+                @Override
+                public long run() {
+                    double sum = 0;
+                    for (double angle : this.angles) {
+                        sum += Velocity.fromAngleAndSpeed(angle, SPEED).getDx();
+                    }
+                    return (long) sum;
+                }
+            });
+        }
+        return benchmarks;
+    }
+}
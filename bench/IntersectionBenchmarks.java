@@ -0,0 +1,107 @@
+// ID - 212945760
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The IntersectionBenchmarks class - end to end benchmarks of finding the intersections of the random lines of
+ * AbstractArtDrawing.drawRandomLines (lines in a 400 x 300 window) at a growing number of lines, both by checking
+ * every pair of lines (like drawRandomLines used to) and with the SweepLineIntersector.
+ * An operation is finding all the intersections of all the lines.
+ *
+ * @author Ori Dabush
+ */
+public class IntersectionBenchmarks {
+
+    /**
+     * The numbers of lines.
+     */
+    private static final int[] LINES = {10, 100, 1000, 10000};
+
+    /**
+     * The size of the window of drawRandomLines.
+     */
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 300;
+
+    /**
+     * A method that creates random lines like drawRandomLines does.
+     *
+     * @param count the number of lines.
+     * @return the lines.
+     */
+    public static Line[] createLines(int count) {
+        Random rand = new Random(count);
+        Line[] lines = new Line[count];
+        for (int i = 0; i < count; i++) {
+            lines[i] = new Line(rand.nextInt(WIDTH) + 1, rand.nextInt(HEIGHT) + 1, rand.nextInt(WIDTH) + 1,
+                    rand.nextInt(HEIGHT) + 1);
+        }
+        return lines;
+    }
+
+    /**
+     * A method that creates the intersection benchmarks.
+     *
+     * @return the benchmarks.
+     */
+    public static List<Benchmark> create() {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+        for (final int count : LINES) {
+            benchmarks.add(new Benchmark("drawRandomLines intersections, every pair [" + count + " lines]", 1) {
+                private Line[] lines;
+
+                @Override
+                public void setUp() {
+                    this.lines = createLines(count);
+                }
+
+                @Override
+                public long run() {
+                    long found = 0;
+                    for (int i = 0; i < this.lines.length; i++) {
+                        for (int j = 0; j < i; j++) {
+                            if (this.lines[j].isIntersecting(this.lines[i])
+                                    && this.lines[j].intersectionWith(this.lines[i]) != null) {
+                                found++;
+                            }
+                        }
+                    }
+                    return found;
+                }
+            });
+            benchmarks.add(new Benchmark("drawRandomLines intersections, sweep line [" + count + " lines]", 1) {
+                private Line[] lines;
+
+                @Override
+                public void setUp() {
+                    this.lines = createLines(count);
+                }
+
+                @Override
+                public long run() {
+                    return new SweepLineIntersector(this.lines).findIntersections().size();
+                }
+            });
+            benchmarks.add(new Benchmark("drawRandomLines intersections, sweep line into a PointBuffer [" + count
+                    + " lines]", 1) {
+                private Line[] lines;
+                private PointBuffer points;
+
+                @Override
+                public void setUp() {
+                    this.lines = createLines(count);
+                    this.points = new PointBuffer();
+                }
+
+                @Override
+                public long run() {
+                    this.points.clear();
+                    return new SweepLineIntersector(this.lines).findIntersections(this.points);
+                }
+            });
+        }
+        return benchmarks;
+    }
+}
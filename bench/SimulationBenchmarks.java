@@ -0,0 +1,195 @@
+// ID - 212945760
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The SimulationBenchmarks class - benchmarks of a simulation step of many balls in a frame: Ball.moveOneStep and
+ * Frame.adjustBallToFrame on every ball of an array, and BallStore.step on the same balls, at 1k, 100k and 1M balls.
+ * The step is also benchmarked with the BallKernel (BallStore.setSimd), and the kernel alone is benchmarked in its
+ * scalar and vector versions (the vector kernel is used when the benchmarks run with --add-modules
+ * jdk.incubator.vector, like the bench target does).
+ * It also benchmarks drawing the balls - through a DrawSurface (BallStore.drawOn on a NullDrawSurface, which
+ * measures only the cost of the calls), and into an image with a RasterBallRenderer.
+ *
+ * @author Ori Dabush
+ */
+public class SimulationBenchmarks {
+
+    /**
+     * The numbers of balls.
+     */
+    private static final int[] BALLS = {1000, 100000, 1000000};
+
+    /**
+     * constants for the size of the frame and the maximal size of a ball.
+     */
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+    private static final int MAX_SIZE = 50;
+
+    /**
+     * A method that creates the frame of the benchmarks.
+     *
+     * @return the frame.
+     */
+    private static Frame createFrame() {
+        return new Frame(0, 0, WIDTH, HEIGHT, Color.WHITE);
+    }
+
+    /**
+     * A method that creates balls of random sizes in random places of a frame.
+     *
+     * @param frame the frame.
+     * @param count the number of balls.
+     * @return the balls.
+     */
+    public static Ball[] createBalls(Frame frame, int count) {
+        Random rand = new Random(count);
+        Ball[] balls = new Ball[count];
+        for (int i = 0; i < count; i++) {
+            int size = rand.nextInt(MAX_SIZE) + 1;
+            balls[i] = new Ball(rand.nextInt(WIDTH - 2 * size) + size, rand.nextInt(HEIGHT - 2 * size) + size, size,
+                    Color.BLACK);
+            balls[i].setFrame(frame);
+            balls[i].createVelocity(frame);
+        }
+        return balls;
+    }
+
+    /**
+     * A method that creates a store of balls of random sizes in random places of a frame.
+     *
+     * @param count the number of balls.
+     * @return the store.
+     */
+    public static BallStore createStore(int count) {
+        BallStore store = new BallStore(count);
+        for (Ball ball : createBalls(createFrame(), count)) {
+            store.add(ball);
+        }
+        return store;
+    }
+
+    /**
+     * A method that creates the simulation benchmarks.
+     *
+     * @return the benchmarks.
+     */
+    public static List<Benchmark> create() {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+        for (final int count : BALLS) {
+            benchmarks.add(new Benchmark("Ball.moveOneStep+Frame.adjustBallToFrame [" + count + " balls]", count) {
+                private Frame frame;
+                private Ball[] balls;
+
+                @Override
+                public void setUp() {
+                    this.frame = createFrame();
+                    this.balls = createBalls(this.frame, count);
+                }
+
+                @Override
+                public long run() {
+                    for (Ball ball : this.balls) {
+                        ball.moveOneStep();
+                        this.frame.adjustBallToFrame(ball);
+                    }
+                    return this.balls[0].getX();
+                }
+            });
+            benchmarks.add(new Benchmark("BallStore.step [" + count + " balls]", count) {
+                private BallStore store;
+
+                @Override
+                public void setUp() {
+                    this.store = createStore(count);
+                }
+
+                @Override
+                public long run() {
+                    this.store.step();
+                    return (long) this.store.getX(0);
+                }
+            });
+            benchmarks.add(new Benchmark("BallStore.step [simd, " + count + " balls]", count) {
+                private BallStore store;
+
+                @Override
+                public void setUp() {
+                    this.store = createStore(count);
+                    this.store.setSimd(true);
+                }
+
+                @Override
+                public long run() {
+                    this.store.step();
+                    return (long) this.store.getX(0);
+                }
+            });
+            for (final BallKernel kernel : new BallKernel[] {new BallKernel(1), BallKernel.create(1)}) {
+                String kind = (kernel.lanes() == 1) ? "scalar" : "vector, " + kernel.lanes() + " lanes";
+                benchmarks.add(new Benchmark("BallKernel.moveAndReflect [" + kind + ", " + count + " balls]", count) {
+                    private Ball[] balls;
+                    private double[] x;
+                    private double[] dx;
+                    private int[] radius;
+
+                    @Override
+                    public void setUp() {
+                        this.balls = createBalls(createFrame(), count);
+                        this.x = new double[count];
+                        this.dx = new double[count];
+                        this.radius = new int[count];
+                        for (int i = 0; i < count; i++) {
+                            this.x[i] = this.balls[i].getCenter().getX();
+                            this.dx[i] = this.balls[i].getVelocity().getDx();
+                            this.radius[i] = this.balls[i].getSize();
+                        }
+                        kernel.setHits(new byte[count]);
+                    }
+
+                    @Override
+                    public long run() {
+                        return kernel.moveAndReflect(this.x, this.dx, this.radius, 0, count, 0, WIDTH);
+                    }
+                });
+            }
+            benchmarks.add(new Benchmark("BallStore.drawOn(NullDrawSurface) [" + count + " balls]", count) {
+                private BallStore store;
+                private NullDrawSurface surface;
+
+                @Override
+                public void setUp() {
+                    this.store = createStore(count);
+                    this.surface = new NullDrawSurface(WIDTH, HEIGHT);
+                }
+
+                @Override
+                public long run() {
+                    this.store.drawOn(this.surface);
+                    return this.surface.getCallCount();
+                }
+            });
+            benchmarks.add(new Benchmark("RasterBallRenderer.render [" + count + " balls]", count) {
+                private BallStore store;
+                private RasterBallRenderer renderer;
+
+                @Override
+                public void setUp() {
+                    this.store = createStore(count);
+                    this.renderer = new RasterBallRenderer(createFrame());
+                }
+
+                @Override
+                public long run() {
+                    this.renderer.render(this.store, new Frame[0], 1);
+                    return this.renderer.getDrawn();
+                }
+            });
+        }
+        return benchmarks;
+    }
+}
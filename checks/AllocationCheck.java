@@ -0,0 +1,217 @@
+// ID - 212945760
+
+import java.awt.Color;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The AllocationCheck class - checks that a steady-state tick of the simulations allocates zero bytes. Every
+ * scenario is warmed up (so its code is compiled and its caches are full), and then it runs a number of ticks while
+ * the bytes allocated by the thread are counted (with ThreadMXBean.getThreadAllocatedBytes). The count must not
+ * change. The ant target runs it without escape analysis, so allocations which the JIT compiler removes are found
+ * too.
+ * The program exits with status 1 if any scenario allocates.
+ *
+ * @author Ori Dabush
+ */
+public class AllocationCheck {
+
+    /**
+     * The default number of measured ticks, and the number of warm up ticks.
+     */
+    private static final int DEFAULT_TICKS = 5000;
+    private static final int WARMUP_TICKS = 20000;
+
+    /**
+     * constants for the size of the frame, the number of balls and obstacles and the maximal size of a ball.
+     */
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+    private static final int BALLS = 1000;
+    private static final int OBSTACLES = 20;
+    private static final int MAX_OBSTACLE_LENGTH = 120;
+    private static final int MAX_SIZE = 30;
+
+    /**
+     * A scenario of the check - it is set up once, and then its tick is run many times.
+     */
+    private abstract static class Scenario {
+        private String name;
+
+        /**
+         * A constructor that creates a scenario with a name.
+         *
+         * @param name the name of the scenario.
+         */
+        Scenario(String name) {
+            this.name = name;
+        }
+
+        /**
+         * A method that creates the objects of the scenario (it isn't measured).
+         */
+        abstract void setUp();
+
+        /**
+         * A method that runs one tick of the scenario.
+         */
+        abstract void tick();
+    }
+
+    /**
+     * A method that creates the frame of the scenarios.
+     *
+     * @return the frame.
+     */
+    private static Frame createFrame() {
+        return new Frame(0, 0, WIDTH, HEIGHT, Color.WHITE);
+    }
+
+    /**
+     * A method that creates balls of random sizes in a frame.
+     *
+     * @param frame the frame.
+     * @return the balls.
+     */
+    private static Ball[] createBalls(Frame frame) {
+        Ball[] balls = new Ball[BALLS];
+        for (int i = 0; i < balls.length; i++) {
+            balls[i] = frame.createBallInFrame(i % MAX_SIZE + 1);
+        }
+        return balls;
+    }
+
+    /**
+     * A method that creates a scenario of a BouncingBallsScene (a step and a frame), with a store option.
+     *
+     * @param name the name of the option.
+     * @return the scenario.
+     */
+    private static Scenario scene(final String name) {
+        return new Scenario("BouncingBallsScene [" + name + "]") {
+            private BouncingBallsScene scene;
+            private NullDrawSurface surface;
+
+            @Override
+            void setUp() {
+                Frame frame = createFrame();
+                BallStore store = new BallStore(BALLS);
+                for (Ball b : createBalls(frame)) {
+                    store.add(b);
+                }
+                store.setContinuous(name.equals(AnimationRunner.CONTINUOUS));
+                store.setSimd(name.equals(AnimationRunner.SIMD));
+                if (name.equals(AnimationRunner.OBSTACLES)) {
+                    Line[] obstacles = new Line[OBSTACLES];
+                    for (int i = 0; i < obstacles.length; i++) {
+                        obstacles[i] = frame.createLineInFrame(MAX_OBSTACLE_LENGTH);
+                    }
+                    store.setObstacles(obstacles);
+                }
+                this.scene = new BouncingBallsScene(store, frame);
+                this.surface = new NullDrawSurface(WIDTH, HEIGHT);
+            }
+
+            @Override
+            void tick() {
+                this.scene.step();
+                this.scene.drawOn(this.surface);
+            }
+        };
+    }
+
+    /**
+     * A method that creates the scenarios.
+     *
+     * @return the scenarios.
+     */
+    private static List<Scenario> createScenarios() {
+        List<Scenario> scenarios = new ArrayList<Scenario>();
+        scenarios.add(new Scenario("Ball.moveOneStep and Frame.adjustBallToFrame") {
+            private Frame frame;
+            private Ball[] balls;
+
+            @Override
+            void setUp() {
+                this.frame = createFrame();
+                this.balls = createBalls(this.frame);
+            }
+
+            @Override
+            void tick() {
+                for (Ball b : this.balls) {
+                    b.moveOneStep();
+                    this.frame.adjustBallToFrame(b);
+                }
+            }
+        });
+        scenarios.add(new Scenario("Frame.moveBallInFrame") {
+            private Frame frame;
+            private Ball[] balls;
+
+            @Override
+            void setUp() {
+                this.frame = createFrame();
+                this.balls = createBalls(this.frame);
+            }
+
+            @Override
+            void tick() {
+                for (Ball b : this.balls) {
+                    this.frame.moveBallInFrame(b);
+                }
+            }
+        });
+        scenarios.add(new Scenario("BouncingBallAnimation") {
+            private BouncingBallAnimation animation;
+            private NullDrawSurface surface;
+
+            @Override
+            void setUp() {
+                this.animation = new BouncingBallAnimation(new Point(WIDTH / 2, HEIGHT / 2), 3, 4);
+                this.surface = new NullDrawSurface(WIDTH, HEIGHT);
+            }
+
+            @Override
+            void tick() {
+                this.animation.step();
+                this.animation.drawOn(this.surface, 0.5);
+            }
+        });
+        scenarios.add(scene("step"));
+        scenarios.add(scene(AnimationRunner.CONTINUOUS));
+        scenarios.add(scene(AnimationRunner.SIMD));
+        scenarios.add(scene(AnimationRunner.OBSTACLES));
+        return scenarios;
+    }
+
+    /**
+     * The main method, which runs the scenarios and prints the bytes every one of them allocated.
+     *
+     * @param args the number of measured ticks (optional).
+     */
+    public static void main(String[] args) {
+        int ticks = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_TICKS;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        boolean isOk = true;
+        for (Scenario s : createScenarios()) {
+            s.setUp();
+            for (int i = 0; i < WARMUP_TICKS; i++) {
+                s.tick();
+            }
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < ticks; i++) {
+                s.tick();
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            System.out.printf("%-50s %d bytes in %d ticks%n", s.name, allocated, ticks);
+            isOk = isOk && allocated == 0;
+        }
+        if (!isOk) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+// ID - 212945760
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * The SweepLineCheck class - checks the SweepLineIntersector against the pairwise check (Line.isIntersecting on
+ * every pair of lines), on random sets of lines: random lines with double coordinates, sets where a third of the
+ * lines are nearly vertical, lines with integer coordinates far from the origin, lines on a small integer grid
+ * (with shared end points, collinear, vertical, horizontal and zero length lines), stars of lines through one point
+ * (so many lines meet at almost the same point), and lines on a grid of tenths (which aren't exact as doubles).
+ * A star of four lines where the sweep once missed a pair is checked too.
+ * Every set must give exactly the same intersecting pairs (and the same number of points in a PointBuffer). The
+ * program exits with status 1 if any set doesn't.
+ *
+ * @author Ori Dabush
+ */
+public class SweepLineCheck {
+
+    /**
+     * The default number of sets of every kind, and the number of lines in a set.
+     */
+    private static final int DEFAULT_TRIALS = 500;
+    private static final int LINES = 40;
+
+    /**
+     * constants for the size of the scene, the offset of the far lines and the size of the grid.
+     */
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+    private static final double OFFSET = 1e6;
+    private static final int GRID = 6;
+
+    /**
+     * constants for the stars - their center, the maximal distance of an end point from it, the number of lines in a
+     * star and the maximal distance of a star's line from the center - and for the grid of tenths.
+     */
+    private static final double CENTER = 100;
+    private static final double RADIUS = 50;
+    private static final int STAR = 8;
+    private static final double STAR_OFFSET = 1e-12;
+    private static final int TENTHS = 60;
+    private static final double TENTH = 0.1;
+
+    /**
+     * A star of four lines through (100, 100), where the sweep once missed the pair (1, 2).
+     */
+    private static final Line[] STAR_CASE = {
+            new Line(103.37017377260318, 88.482972226201, 96.62982622739682, 111.517027773799),
+            new Line(89.18744883002071, 72.01627728130906, 110.81255116997929, 127.98372271869094),
+            new Line(115.9710319448734, 60.07599545867382, 84.0289680551266, 139.92400454132618),
+            new Line(73.9513021084587, 60.878837719781224, 126.0486978915413, 139.12116228021878)};
+
+    /**
+     * The kinds of the sets of lines.
+     */
+    private static final String[] KINDS = {"random", "nearly vertical", "far integers", "grid", "star", "tenths"};
+
+    /**
+     * A method that creates a random set of lines of a kind.
+     *
+     * @param kind the index of the kind (in KINDS).
+     * @param rand the random source.
+     * @return the lines.
+     */
+    private static Line[] createLines(int kind, Random rand) {
+        Line[] lines = new Line[LINES];
+        for (int i = 0; i < lines.length; i++) {
+            if (kind == 0) {
+                lines[i] = new Line(rand.nextDouble() * WIDTH, rand.nextDouble() * HEIGHT,
+                        rand.nextDouble() * WIDTH, rand.nextDouble() * HEIGHT);
+            } else if (kind == 1) {
+                double x = rand.nextDouble() * WIDTH, y = rand.nextDouble() * HEIGHT;
+                if (i % 3 == 0) {
+                    lines[i] = new Line(x, y, x + (rand.nextDouble() - 0.5) * 0.02, rand.nextDouble() * HEIGHT);
+                } else {
+                    lines[i] = new Line(x, y, rand.nextDouble() * WIDTH, rand.nextDouble() * HEIGHT);
+                }
+            } else if (kind == 2) {
+                lines[i] = new Line(OFFSET + rand.nextInt(WIDTH), OFFSET + rand.nextInt(HEIGHT),
+                        OFFSET + rand.nextInt(WIDTH), OFFSET + rand.nextInt(HEIGHT));
+            } else if (kind == 3) {
+                lines[i] = new Line(rand.nextInt(GRID), rand.nextInt(GRID), rand.nextInt(GRID), rand.nextInt(GRID));
+            } else if (kind == 4) {
+                // the stars have a few lines each, some of them through the center and some almost through it
+                double angle = rand.nextDouble() * Math.PI, r = rand.nextDouble() * RADIUS;
+                double cx = CENTER + (i / STAR) * RADIUS, cy = CENTER;
+                if (rand.nextBoolean()) {
+                    cy += (rand.nextDouble() - 0.5) * STAR_OFFSET;
+                }
+                lines[i] = new Line(cx + r * Math.cos(angle), cy + r * Math.sin(angle),
+                        cx - r * Math.cos(angle), cy - r * Math.sin(angle));
+            } else {
+                lines[i] = new Line(rand.nextInt(TENTHS) * TENTH, rand.nextInt(TENTHS) * TENTH,
+                        rand.nextInt(TENTHS) * TENTH, rand.nextInt(TENTHS) * TENTH);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * A method that checks the sweep on a set of lines.
+     *
+     * @param lines the lines.
+     * @param kind  the name of the kind of the set (printed if it is the first wrong set of its kind).
+     * @param first true if no set of the kind was wrong yet.
+     * @return true if the sweep found exactly the pairs that the pairwise check found, false otherwise.
+     */
+    private static boolean check(Line[] lines, String kind, boolean first) {
+        Set<Long> expected = bruteForce(lines);
+        Set<Long> pairs = new HashSet<Long>();
+        List<Intersection> found = new SweepLineIntersector(lines).findIntersections();
+        for (Intersection in : found) {
+            pairs.add((long) Math.min(in.getFirst(), in.getSecond()) * lines.length
+                    + Math.max(in.getFirst(), in.getSecond()));
+        }
+        int points = new SweepLineIntersector(lines).findIntersections(new PointBuffer());
+        if (pairs.equals(expected) && found.size() == expected.size() && points == expected.size()) {
+            return true;
+        }
+        if (first) {
+            System.out.printf("%s: the sweep found %d pairs, the pairwise check found %d%n", kind, found.size(),
+                    expected.size());
+        }
+        return false;
+    }
+
+    /**
+     * A method that finds the intersecting pairs of lines by checking every pair.
+     *
+     * @param lines the lines.
+     * @return the pairs, as the index of the first line times the number of lines plus the index of the second.
+     */
+    private static Set<Long> bruteForce(Line[] lines) {
+        Set<Long> pairs = new HashSet<Long>();
+        for (int i = 0; i < lines.length; i++) {
+            for (int j = i + 1; j < lines.length; j++) {
+                if (lines[i].isIntersecting(lines[j])) {
+                    pairs.add((long) i * lines.length + j);
+                }
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * The main method, which runs the check and prints the number of wrong sets of every kind.
+     *
+     * @param args the number of sets of every kind (optional), and the seed (optional).
+     */
+    public static void main(String[] args) {
+        int trials = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_TRIALS;
+        Random rand = new Random((args.length > 1) ? Long.parseLong(args[1]) : 1);
+        boolean isOk = check(STAR_CASE, "star case", true);
+        System.out.printf("%-16s %s%n", "star case", isOk ? "right" : "wrong");
+        for (int kind = 0; kind < KINDS.length; kind++) {
+            int wrong = 0;
+            for (int t = 0; t < trials; t++) {
+                if (!check(createLines(kind, rand), KINDS[kind], wrong == 0)) {
+                    wrong++;
+                }
+            }
+            System.out.printf("%-16s %d of %d sets wrong%n", KINDS[kind], wrong, trials);
+            isOk = isOk && wrong == 0;
+        }
+        if (!isOk) {
+            System.exit(1);
+        }
+    }
+}
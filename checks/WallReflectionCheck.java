@@ -0,0 +1,69 @@
+// ID - 212945760
+
+import java.util.Random;
+
+/**
+ * The WallReflectionCheck class - checks the number of times WallReflection.hits says a ball hits the walls, and
+ * the place fold gives it: fixed cases of balls which end exactly on the low wall and on the high wall (after any
+ * number of folds, moving to either wall), start on a wall, or don't reach one, and random moves on an integer grid
+ * (so every place is exact), where the mirrored move (the ball at low + high - start, moving -distance) must hit the
+ * walls the same number of times with the opposite sign. The program exits with status 1 if any case doesn't match.
+ *
+ * @author Ori Dabush
+ */
+public class WallReflectionCheck {
+
+    /**
+     * The walls of the cases.
+     */
+    private static final double LOW = 0;
+    private static final double HIGH = 100;
+
+    /**
+     * The fixed cases - the start, the distance, the hits and the place after the move.
+     */
+    private static final double[][] CASES = {
+            {50, 50, 1, 100}, {50, -50, -1, 0}, {50, 150, 2, 0}, {50, -150, -2, 100}, {50, 250, 3, 100},
+            {50, -250, -3, 0}, {0, -100, -2, 100}, {100, 100, 2, 0}, {0, -10, -1, 10}, {100, 10, 1, 90},
+            {0, 10, 0, 10}, {100, -10, 0, 90}, {50, 30, 0, 80}, {50, -30, 0, 20}, {50, 0, 0, 50}};
+
+    /**
+     * The default number of random moves, and the size of the grid they are on.
+     */
+    private static final int DEFAULT_TRIALS = 100000;
+    private static final int GRID = 1000;
+
+    /**
+     * The main method, which runs the check and prints the number of wrong cases.
+     *
+     * @param args the number of random moves (optional).
+     */
+    public static void main(String[] args) {
+        int trials = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_TRIALS;
+        int wrong = 0;
+        for (double[] c : CASES) {
+            long hits = WallReflection.hits(c[0], c[1], LOW, HIGH);
+            double place = WallReflection.fold(c[0], c[1], LOW, HIGH);
+            if (hits != (long) c[2] || place != c[3]) {
+                System.out.printf("start %.0f, distance %.0f: %d hits at %.1f, expected %d hits at %.1f%n", c[0],
+                        c[1], hits, place, (long) c[2], c[3]);
+                wrong++;
+            }
+        }
+        Random rand = new Random(1);
+        for (int i = 0; i < trials; i++) {
+            double start = rand.nextInt((int) HIGH + 1), distance = rand.nextInt(2 * GRID + 1) - GRID;
+            long hits = WallReflection.hits(start, distance, LOW, HIGH);
+            long mirrored = WallReflection.hits(LOW + HIGH - start, -distance, LOW, HIGH);
+            if (hits != -mirrored) {
+                System.out.printf("start %.0f, distance %.0f: %d hits, %d when mirrored%n", start, distance, hits,
+                        mirrored);
+                wrong++;
+            }
+        }
+        System.out.printf("%d fixed cases and %d random moves, %d wrong%n", CASES.length, trials, wrong);
+        if (wrong > 0) {
+            System.exit(1);
+        }
+    }
+}
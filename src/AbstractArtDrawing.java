@@ -19,6 +19,11 @@ public class AbstractArtDrawing {
     private static final int HEIGHT = 300;
     private static final int WIDTH = 400;
 
+    /**
+     * the default number of lines to draw.
+     */
+    private static final int DEFAULT_LINES = 10;
+
     /**
      * a const value of the radius of a point.
      */
@@ -46,51 +51,49 @@ public class AbstractArtDrawing {
      */
     private static void drawLine(Line l, DrawSurface d) {
         if (l != null) {
-            d.drawLine((int) l.start().getX(), (int) l.start().getY(), (int) l.end().getX(), (int) l.end().getY());
+            Point a = l.start(), b = l.end();
+            d.drawLine((int) a.getX(), (int) a.getY(), (int) b.getX(), (int) b.getY());
         }
     }
 
     /**
-     * A method that draws a point on a draw surface.
-     *
-     * @param p the point.
-     * @param d the draw surface.
+     * A method that draws 10 random lines and marks all the middle points in blue and all the intersections in red.
      */
-    private static void drawPoint(Point p, DrawSurface d) {
-        if (p != null) {
-            d.fillCircle((int) p.getX(), (int) p.getY(), POINT_RADIUS);
-        }
+    public void drawRandomLines() {
+        this.drawRandomLines(DEFAULT_LINES);
     }
 
     /**
-     * A method that draws 10 random lines and marks all the middle points in blue and all the intersections in red.
+     * A method that draws random lines and marks all the middle points in blue and all the intersections in red.
+     * The intersections are found with a sweep line (SweepLineIntersector) instead of checking every pair of lines.
+     *
+     * @param count the number of lines.
      */
-    public void drawRandomLines() {
+    public void drawRandomLines(int count) {
         GUI gui = new GUI("Random Lines Generator", WIDTH, HEIGHT);
         DrawSurface d = gui.getDrawSurface(); // the draw surface
-        Line[] linesArr = new Line[10];
+        Line[] linesArr = new Line[count];
+        // the middle points and the intersections are kept in buffers, without a Point object for every one.
+        PointBuffer middles = new PointBuffer(count);
+        d.setColor(Color.BLACK);
         for (int i = 0; i < linesArr.length; ++i) {
             linesArr[i] = createRandomLine();
-            d.setColor(Color.BLACK);
             drawLine(linesArr[i], d); // drawing the line
-            Point middle = linesArr[i].middle();
-            d.setColor(Color.BLUE);
-            drawPoint(middle, d); // drawing the middle point
-            d.setColor(Color.RED);
-            for (int j = 0; j < i; j++) {
-                if (linesArr[j].isIntersecting(linesArr[i])) {
-                    Point intersection = linesArr[j].intersectionWith(linesArr[i]);
-                    drawPoint(intersection, d); // drawing all the intersections
-                }
-            }
+            linesArr[i].middle(middles);
         }
+        d.setColor(Color.BLUE);
+        middles.drawOn(d, POINT_RADIUS); // drawing the middle points
+        PointBuffer intersections = new PointBuffer(count);
+        new SweepLineIntersector(linesArr).findIntersections(intersections);
+        d.setColor(Color.RED);
+        intersections.drawOn(d, POINT_RADIUS); // drawing all the intersections
         gui.show(d);
     }
 
     /**
      * The main method which operates the drawRandomLines method.
      *
-     * @param args is ignored right now.
+     * @param args the number of lines to draw (optional, 10 by default, can't be negative).
      */
     public static void main(String[] args) {
         AbstractArtDrawing lines = new AbstractArtDrawing();
@@ -98,6 +101,19 @@ public class AbstractArtDrawing {
          * we call the method drawRandomLines using a instance of the AbstractArtDrawing class because
          * it is a public method.
          */
-        lines.drawRandomLines();
+        if (args.length > 0) {
+            try {
+                int count = Integer.parseInt(args[0]);
+                if (count < 0) {
+                    System.out.println("invalid input!");
+                    return;
+                }
+                lines.drawRandomLines(count);
+            } catch (NumberFormatException e) {
+                System.out.println("invalid input!");
+            }
+        } else {
+            lines.drawRandomLines();
+        }
     }
 }
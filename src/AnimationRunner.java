@@ -0,0 +1,276 @@
+// ID - 212945760
+
+import biuoop.DrawSurface;
+import biuoop.GUI;
+import biuoop.Sleeper;
+
+/**
+ * The AnimationRunner class - runs a simulation, either on the screen (drawing a frame every 50 milliseconds) or
+ * headless. In headless mode (the --headless=ticks option) there's no window and no sleeping - the simulation is
+ * drawn on a NullDrawSurface and runs a fixed number of ticks as fast as possible, and the ticks per second are
+ * reported. With the --physics-hz=steps option, the simulation moves in the given number of steps in a second, and
+ * on the screen it runs in a GameLoop (a fixed timestep, drawn as fast as the screen allows).
+ * With the --metrics option the per-frame performance of the loop is recorded in FrameMetrics and registered in
+ * JMX, and with the --hud option it is also drawn over the animation (in headless mode it is printed at the end).
+ * The balls animations also take the --raster option, which draws their balls with a RasterBallRenderer (and the
+ * --dirty option, which also caches their static content and draws only the parts that changed), and the
+ * --ccd option, which moves them with continuous collision detection (so large steps stay correct), and the
+ * --events option, which runs them in an EventDrivenEngine. The --seek=steps option starts them at the given time.
+ *
+ * @author Ori Dabush
+ */
+public class AnimationRunner {
+
+    /**
+     * The name of the headless option, and the default number of ticks to run in headless mode.
+     */
+    public static final String HEADLESS = "headless";
+    private static final long DEFAULT_TICKS = 10000;
+
+    /**
+     * The name of the option to run with a fixed timestep of the given number of physics steps in a second (with
+     * the GameLoop), and the name of the option of the maximal number of steps in one frame.
+     */
+    public static final String PHYSICS_HZ = "physics-hz";
+    public static final String MAX_STEPS = "max-steps";
+
+    /**
+     * The name of the option of the number of threads that step the balls.
+     */
+    public static final String THREADS = "threads";
+
+    /**
+     * The name of the option to make the balls collide with each other.
+     */
+    public static final String COLLISIONS = "collisions";
+
+    /**
+     * The name of the option to move the balls with continuous collision detection against their frames.
+     */
+    public static final String CONTINUOUS = "ccd";
+
+    /**
+     * The name of the option to start the balls at the given time (in steps), with BallStore.seek.
+     */
+    public static final String SEEK = "seek";
+
+    /**
+     * The name of the option to run the balls in an EventDrivenEngine instead of stepping them.
+     */
+    public static final String EVENTS = "events";
+
+    /**
+     * The name of the option to draw the balls into an image with a RasterBallRenderer.
+     */
+    public static final String RASTER = "raster";
+
+    /**
+     * The name of the option to draw the balls with a RasterBallRenderer over a cached background of the static
+     * content, drawing again only the parts of the image around the balls that moved.
+     */
+    public static final String DIRTY = "dirty";
+
+    /**
+     * The name of the option to record the balls of every step to a file, which a BallPlayer can replay.
+     */
+    public static final String RECORD = "record";
+
+    /**
+     * The name of the option to publish the balls of every step to a SharedWorld file (and to restart the world
+     * from the file, when no balls are given).
+     */
+    public static final String SHARED = "shared";
+
+    /**
+     * The name of the option to load the balls from a scenario file (see ScenarioLoader) - only in the
+     * MultipleBouncingBallsAnimation, the balls of the MultipleFramesBouncingBallsAnimation are split between its
+     * frames.
+     */
+    public static final String SCENARIO = "scenario";
+
+    /**
+     * The name of the option to move the balls with a BallKernel (in SIMD lanes when the JVM runs with
+     * --add-modules jdk.incubator.vector).
+     */
+    public static final String SIMD = "simd";
+
+    /**
+     * The name of the option to add random lines that the balls bounce off (the value is the number of lines).
+     */
+    public static final String OBSTACLES = "obstacles";
+
+    /**
+     * The name of the option to place the balls without overlaps (with Frame.spawnBalls) - only in the
+     * MultipleBouncingBallsAnimation.
+     */
+    public static final String SPAWN = "spawn";
+
+    /**
+     * The names of the options to record the per-frame metrics (and expose them over JMX), and to draw them.
+     */
+    public static final String METRICS = "metrics";
+    public static final String HUD = "hud";
+
+    /**
+     * The options which the EventDrivenEngine doesn't support, so they can't be given with the events option - it
+     * doesn't record or publish its steps, it has no obstacles and no collisions between the balls, it moves all
+     * the balls on one thread (always continuously, without a kernel), and it draws on the DrawSurface.
+     */
+    private static final String[] NOT_WITH_EVENTS = {RECORD, SHARED, OBSTACLES, COLLISIONS, CONTINUOUS, THREADS,
+            SIMD, RASTER, DIRTY};
+
+    /**
+     * The time of a frame on the screen.
+     */
+    private static final int MILLISECONDS_PER_FRAME = 50;
+
+    /**
+     * constants to convert time units.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double NANOS_PER_MILLISECOND = 1e6;
+
+    /**
+     * A method to get an option which can't be used with the other options given - one the EventDrivenEngine
+     * doesn't support, when the events option was given.
+     *
+     * @param options the command line options.
+     * @return the name of the option, null if all the options can be used together.
+     */
+    public static String unsupportedOption(RunOptions options) {
+        if (options.has(EVENTS)) {
+            for (String name : NOT_WITH_EVENTS) {
+                if (options.has(name)) {
+                    return name;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A method that runs a simulation on the screen, or headless if the headless option was given. A number of
+     * physics steps in a second which isn't positive is invalid input.
+     *
+     * @param s       the simulation.
+     * @param title   the title of the window.
+     * @param width   the width of the window.
+     * @param height  the height of the window.
+     * @param options the command line options.
+     */
+    public static void run(Simulation s, String title, int width, int height, RunOptions options) {
+        long physicsHz = options.getLong(PHYSICS_HZ, (long) Velocity.DEFAULT_STEPS_PER_SECOND);
+        if (physicsHz <= 0) {
+            throw new RuntimeException("input is invalid. the number of physics steps in a second must be positive.");
+        }
+        FrameMetrics metrics = null;
+        if (options.has(METRICS) || options.has(HUD)) {
+            metrics = new FrameMetrics();
+            metrics.setHudVisible(options.has(HUD));
+            metrics.register(title);
+        }
+        if (options.has(PHYSICS_HZ) && !options.has(HEADLESS)) {
+            GameLoop loop = new GameLoop(s, physicsHz,
+                    (int) options.getLong(MAX_STEPS, GameLoop.DEFAULT_MAX_STEPS_PER_FRAME));
+            loop.setMetrics(metrics);
+            loop.run(new GUI(title, width, height));
+            return;
+        }
+        if (options.has(PHYSICS_HZ)) {
+            s.setStepsPerSecond(physicsHz);
+        }
+        if (options.has(HEADLESS)) {
+            long ticks = options.getLong(HEADLESS, DEFAULT_TICKS);
+            NullDrawSurface d = new NullDrawSurface(width, height);
+            long start = System.nanoTime();
+            runHeadless(s, d, ticks, metrics);
+            long time = System.nanoTime() - start;
+            System.out.printf("%s: %d ticks in %.1f ms (%.1f ticks per second, %d draw calls)%n", title, ticks,
+                    time / NANOS_PER_MILLISECOND, ticks * NANOS_PER_SECOND / Math.max(time, 1), d.getCallCount());
+            if (metrics != null) {
+                System.out.println(metrics);
+            }
+        } else {
+            runOnScreen(new GUI(title, width, height), s, metrics);
+        }
+    }
+
+    /**
+     * A method that runs a simulation on the screen forever, drawing a frame every 50 milliseconds.
+     *
+     * @param gui the gui to draw on.
+     * @param s   the simulation.
+     */
+    public static void runOnScreen(GUI gui, Simulation s) {
+        runOnScreen(gui, s, null);
+    }
+
+    /**
+     * A method that runs a simulation on the screen forever, drawing a frame every 50 milliseconds, and records
+     * the metrics of every frame.
+     *
+     * @param gui     the gui to draw on.
+     * @param s       the simulation.
+     * @param metrics the metrics to record the frames in (null to not record them).
+     */
+    public static void runOnScreen(GUI gui, Simulation s, FrameMetrics metrics) {
+        Sleeper sleeper = new Sleeper();
+        while (true) {
+            long start = System.nanoTime();
+            DrawSurface d = gui.getDrawSurface();
+            s.drawOn(d);
+            long drawn = System.nanoTime();
+            s.step();
+            long stepped = System.nanoTime();
+            if (metrics != null && metrics.isHudVisible()) {
+                metrics.drawOn(d);
+            }
+            long slept = System.nanoTime();
+            sleeper.sleepFor(MILLISECONDS_PER_FRAME);  // wait for 50 milliseconds.
+            long woke = System.nanoTime();
+            gui.show(d);
+            if (metrics != null) {
+                metrics.recordFrame(stepped - drawn, drawn - start, System.nanoTime() - woke,
+                        woke - slept - (long) (MILLISECONDS_PER_FRAME * NANOS_PER_MILLISECOND), s.getBounces());
+            }
+        }
+    }
+
+    /**
+     * A method that runs a simulation for a fixed number of ticks as fast as possible, drawing it on the given
+     * surface (which is usually a NullDrawSurface) and without sleeping.
+     *
+     * @param s     the simulation.
+     * @param d     the surface to draw on.
+     * @param ticks the number of ticks.
+     * @return the number of ticks per second.
+     */
+    public static double runHeadless(Simulation s, DrawSurface d, long ticks) {
+        return runHeadless(s, d, ticks, null);
+    }
+
+    /**
+     * A method that runs a simulation for a fixed number of ticks as fast as possible, like runHeadless, and records
+     * the metrics of every tick.
+     *
+     * @param s       the simulation.
+     * @param d       the surface to draw on.
+     * @param ticks   the number of ticks.
+     * @param metrics the metrics to record the ticks in (null to not record them).
+     * @return the number of ticks per second.
+     */
+    public static double runHeadless(Simulation s, DrawSurface d, long ticks, FrameMetrics metrics) {
+        long start = System.nanoTime();
+        for (long i = 0; i < ticks; i++) {
+            long frameStart = System.nanoTime();
+            s.drawOn(d);
+            long drawn = System.nanoTime();
+            s.step();
+            if (metrics != null) {
+                metrics.recordFrame(System.nanoTime() - drawn, drawn - frameStart, 0, FrameMetrics.NO_SLEEP,
+                        s.getBounces());
+            }
+        }
+        return ticks * NANOS_PER_SECOND / Math.max(System.nanoTime() - start, 1);
+    }
+}
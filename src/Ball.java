@@ -97,6 +97,43 @@ public class Ball {
         return (int) this.center.getY();
     }
 
+    /**
+     * A method that gives access to the ball's exact center x value (without creating a point).
+     *
+     * @return the x value of the ball's center.
+     */
+    public double getCenterX() {
+        return this.center.getX();
+    }
+
+    /**
+     * A method that gives access to the ball's exact center y value (without creating a point).
+     *
+     * @return the y value of the ball's center.
+     */
+    public double getCenterY() {
+        return this.center.getY();
+    }
+
+    /**
+     * A method that gives access to the ball's center.
+     *
+     * @return a copy of the ball's center point.
+     */
+    public Point getCenter() {
+        return new Point(this.center);
+    }
+
+    /**
+     * A method that moves the ball's center to a given place, in place.
+     *
+     * @param x the new x value of the center.
+     * @param y the new y value of the center.
+     */
+    public void setCenter(double x, double y) {
+        this.center.setLocation(x, y);
+    }
+
     /**
      * A method that gives access to the ball's size.
      *
@@ -136,11 +173,12 @@ public class Ball {
 
     /**
      * A method that sets the velocity value of the current ball to the given velocity.
+     * The values are copied into the ball's own velocity, so no velocity is created.
      *
      * @param v the given velocity.
      */
     public void setVelocity(Velocity v) {
-        this.velocity = new Velocity(v);
+        this.velocity.set(v.getDx(), v.getDy());
     }
 
     /**
@@ -150,16 +188,34 @@ public class Ball {
      * @param dy the dy value of the velocity.
      */
     public void setVelocity(double dx, double dy) {
-        this.velocity = new Velocity(dx, dy);
+        this.velocity.set(dx, dy);
     }
 
     /**
      * An accessor method to get the velocity value of the current ball.
      *
-     * @return the velocity value of the current ball.
+     * @return a copy of the velocity value of the current ball (the ball changes its own velocity in place).
      */
     public Velocity getVelocity() {
-        return this.velocity;
+        return new Velocity(this.velocity);
+    }
+
+    /**
+     * A method to get the dx value of the ball's velocity (without creating a velocity).
+     *
+     * @return the dx value of the velocity.
+     */
+    public double getDx() {
+        return this.velocity.getDx();
+    }
+
+    /**
+     * A method to get the dy value of the ball's velocity (without creating a velocity).
+     *
+     * @return the dy value of the velocity.
+     */
+    public double getDy() {
+        return this.velocity.getDy();
     }
 
     /**
@@ -182,10 +238,24 @@ public class Ball {
 
     /**
      * A method that moves the ball one step by its velocity,
-     * using the applyToPoint method on the ball's center point.
+     * using the applyToPointInPlace method on the ball's center point (so no point is created).
      */
     public void moveOneStep() {
-        this.center = this.getVelocity().applyToPoint(this.center);
+        this.velocity.applyToPointInPlace(this.center);
+    }
+
+    /**
+     * A method that flips the ball's direction on the x axis (a bounce from a left or right border), in place.
+     */
+    public void reflectHorizontally() {
+        this.velocity.reverseDx();
+    }
+
+    /**
+     * A method that flips the ball's direction on the y axis (a bounce from a top or bottom border), in place.
+     */
+    public void reflectVertically() {
+        this.velocity.reverseDy();
     }
 
     /**
@@ -199,6 +269,45 @@ public class Ball {
                 && this.getY() <= f.getBottomBorder();
     }
 
+    /**
+     * A method that calculates the center of the ball after the given number of steps, in closed form (in O(1),
+     * without stepping it). The ball bounces in its frame like with continuous collision detection (see
+     * WallReflection) - it reflects exactly when it hits a border. A ball without a frame moves on a straight line.
+     *
+     * @param t the number of steps (can be negative, to go back, and doesn't have to be whole).
+     * @return the center of the ball after t steps.
+     */
+    public Point positionAt(double t) {
+        Point c = this.getCenter();
+        Velocity v = this.getVelocity();
+        Frame f = this.getFrame();
+        if (f == null) {
+            return new Point(c.getX() + v.getDx() * t, c.getY() + v.getDy() * t);
+        }
+        return new Point(WallReflection.positionAt(c.getX(), v.getDx(), t, f.getLeftBorder() + this.getSize(),
+                f.getRightBorder() - this.getSize()), WallReflection.positionAt(c.getY(), v.getDy(), t,
+                f.getTopBorder() + this.getSize(), f.getBottomBorder() - this.getSize()));
+    }
+
+    /**
+     * A method that calculates the velocity of the ball after the given number of steps, in closed form (see
+     * positionAt).
+     *
+     * @param t the number of steps (can be negative, to go back, and doesn't have to be whole).
+     * @return the velocity of the ball after t steps.
+     */
+    public Velocity velocityAt(double t) {
+        Point c = this.getCenter();
+        Velocity v = this.getVelocity();
+        Frame f = this.getFrame();
+        if (f == null) {
+            return new Velocity(v.getDx(), v.getDy());
+        }
+        return new Velocity(WallReflection.velocityAt(c.getX(), v.getDx(), t, f.getLeftBorder() + this.getSize(),
+                f.getRightBorder() - this.getSize()), WallReflection.velocityAt(c.getY(), v.getDy(), t,
+                f.getTopBorder() + this.getSize(), f.getBottomBorder() - this.getSize()));
+    }
+
     /**
      * A method that creates a velocity for the ball using a specific frame, the VELOCITY_CALCULATOR
      * constant and the formula (dx = width / (VELOCITY_CALCULATOR * size, dy = height / (VELOCITY_CALCULATOR * size).
@@ -206,12 +315,35 @@ public class Ball {
      * @param f the specific frame.
      */
     public void createVelocity(Frame f) {
-        if (this.size < MAX_SIZE) {
-            this.setVelocity(f.getWidth() / (VELOCITY_CALCULATOR * this.size),
-                    f.getHeight() / (VELOCITY_CALCULATOR * this.size));
-        } else {
-            this.setVelocity(f.getWidth() / (VELOCITY_CALCULATOR * MAX_SIZE),
-                    f.getHeight() / (VELOCITY_CALCULATOR * MAX_SIZE));
+        this.setVelocity(speedFor(f.getWidth(), this.size), speedFor(f.getHeight(), this.size));
+    }
+
+    /**
+     * A method that creates the velocities of many balls in a frame at once, like createVelocity does for every
+     * one of them.
+     *
+     * @param f     the frame.
+     * @param sizes the sizes of the balls.
+     * @param dx    the array to write the dx values of the velocities to.
+     * @param dy    the array to write the dy values of the velocities to.
+     */
+    public static void createVelocities(Frame f, int[] sizes, double[] dx, double[] dy) {
+        double width = f.getWidth(), height = f.getHeight();
+        for (int i = 0; i < sizes.length; i++) {
+            dx[i] = speedFor(width, sizes[i]);
+            dy[i] = speedFor(height, sizes[i]);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * A method that calculates one part of the velocity createVelocity gives a ball (length / (VELOCITY_CALCULATOR
+     * * size), where sizes above MAX_SIZE move like MAX_SIZE).
+     *
+     * @param length the width or the height of the frame.
+     * @param size   the size of the ball.
+     * @return the dx value (for the width) or the dy value (for the height).
+     */
+    public static double speedFor(double length, int size) {
+        return length / (VELOCITY_CALCULATOR * Math.min(size, MAX_SIZE));
+    }
+}
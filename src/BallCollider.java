@@ -0,0 +1,365 @@
+// ID - 212945760
+
+import java.util.Arrays;
+
+/**
+ * The BallCollider class - finds the balls of a BallStore that overlap each other and makes them bounce off each
+ * other in an elastic collision (the mass of a ball is its radius squared).
+ * Instead of checking every pair of balls, a uniform grid is built over every frame of the store (balls only
+ * collide with balls of the same frame), and only balls that share a cell are checked, so the cost stays near
+ * linear in the number of balls.
+ * The size of the cells of a frame is derived from the radii of its balls - it is twice the radius that 90% of
+ * the balls are not bigger than, so most balls are in at most 4 cells. Bigger balls are put in all the cells they
+ * cover, and a pair that shares several cells is only checked in one of them.
+ * The balls are grouped by their frames once in every step (with a counting sort), so the radii of every frame are
+ * counted only over its own balls, in a histogram of a fixed size - the radii from MAX_RADIUS up share its last
+ * bucket (a cell of twice it is already bigger than the frames of the animations).
+ *
+ * @author Ori Dabush
+ */
+public class BallCollider {
+
+    /**
+     * The part of the balls whose radius decides the cell size (the percentile, out of 100).
+     */
+    private static final int RADIUS_PERCENTILE = 90;
+    private static final int PERCENT = 100;
+
+    /**
+     * The maximal number of cells for every ball of a frame (the cells are made bigger if there are more).
+     */
+    private static final int MAX_CELLS_PER_BALL = 4;
+
+    /**
+     * The radius of the last bucket of the histogram of the radii (bigger radii are counted in it too).
+     */
+    private static final int MAX_RADIUS = 1024;
+
+    /**
+     * The grid of every frame - the size of its cells, its origin and its size in cells, and the index of its first
+     * cell in the cell arrays.
+     */
+    private double[] cellSize;
+    private double[] originX;
+    private double[] originY;
+    private int[] columns;
+    private int[] rows;
+    private int[] firstCell;
+
+    /**
+     * The cells - cellStart[c] is the index in entries of the first ball of cell c (and cellStart[c + 1] is the
+     * index after its last ball).
+     */
+    private int[] cellStart;
+    private int[] entries;
+    private int[] histogram;
+
+    /**
+     * The balls grouped by their frames - the balls of frame f are order[frameStart[f]] to
+     * order[frameStart[f + 1] - 1].
+     */
+    private int[] frameStart;
+    private int[] order;
+
+    /**
+     * The first column and row of the cells of every ball (when the grid was filled).
+     */
+    private int[] minColumn;
+    private int[] minRow;
+
+    private long collisions;
+
+    /**
+     * A constructor that creates a collider.
+     */
+    public BallCollider() {
+        this.cellSize = new double[0];
+        this.originX = new double[0];
+        this.originY = new double[0];
+        this.columns = new int[0];
+        this.rows = new int[0];
+        this.firstCell = new int[0];
+        this.cellStart = new int[1];
+        this.entries = new int[0];
+        this.histogram = new int[MAX_RADIUS + 1];
+        this.frameStart = new int[1];
+        this.order = new int[0];
+        this.minColumn = new int[0];
+        this.minRow = new int[0];
+        this.collisions = 0;
+    }
+
+    /**
+     * A method to get the number of collisions that were resolved so far.
+     *
+     * @return the number of collisions.
+     */
+    public long getCollisions() {
+        return this.collisions;
+    }
+
+    /**
+     * A method that finds all the overlapping balls of the store and makes them bounce off each other.
+     *
+     * @param store the store.
+     */
+    public void collide(BallStore store) {
+        if (store.size() < 2) {
+            return;
+        }
+        this.buildGrids(store);
+        this.fillCells(store);
+        int cells = this.cellStart.length - 1;
+        for (int c = 0; c < cells; c++) {
+            for (int a = this.cellStart[c]; a < this.cellStart[c + 1]; a++) {
+                for (int b = a + 1; b < this.cellStart[c + 1]; b++) {
+                    this.check(store, this.entries[a], this.entries[b], c);
+                }
+            }
+        }
+    }
+
+    /**
+     * A method that builds the grid of every frame (its cell size from the radii of its balls).
+     *
+     * @param store the store.
+     */
+    private void buildGrids(BallStore store) {
+        int frames = store.frameCount();
+        if (this.cellSize.length < frames) {
+            this.cellSize = new double[frames];
+            this.originX = new double[frames];
+            this.originY = new double[frames];
+            this.columns = new int[frames];
+            this.rows = new int[frames];
+            this.firstCell = new int[frames];
+        }
+        this.groupByFrame(store);
+        int cells = 0;
+        for (int f = 0; f < frames; f++) {
+            int balls = this.frameStart[f + 1] - this.frameStart[f];
+            int maxBucket = this.radiusHistogram(store, f);
+            int percentile = 0, seen = 0, needed = (int) ((long) balls * RADIUS_PERCENTILE / PERCENT);
+            while (percentile < maxBucket && seen + this.histogram[percentile] <= needed) {
+                seen += this.histogram[percentile];
+                percentile++;
+            }
+            this.clearHistogram(store, f);
+            Frame frame = store.getFrame(f);
+            double size = 2.0 * Math.max(percentile, 1);
+            // making the cells bigger if there are too many of them.
+            double area = Math.max(frame.getWidth(), 1) * Math.max(frame.getHeight(), 1);
+            double maxCells = (double) MAX_CELLS_PER_BALL * Math.max(balls, 1);
+            if (area / (size * size) > maxCells) {
+                size = Math.sqrt(area / maxCells);
+            }
+            this.cellSize[f] = size;
+            this.originX[f] = frame.getLeftBorder();
+            this.originY[f] = frame.getTopBorder();
+            this.columns[f] = (int) Math.ceil(Math.max(frame.getWidth(), 1) / size);
+            this.rows[f] = (int) Math.ceil(Math.max(frame.getHeight(), 1) / size);
+            this.firstCell[f] = cells;
+            cells += (balls == 0) ? 0 : this.columns[f] * this.rows[f];
+        }
+        if (this.cellStart.length != cells + 1) {
+            this.cellStart = new int[cells + 1];
+        } else {
+            Arrays.fill(this.cellStart, 0);
+        }
+    }
+
+    /**
+     * A method that groups the balls of the store by their frames (a counting sort of their indexes by frame id).
+     *
+     * @param store the store.
+     */
+    private void groupByFrame(BallStore store) {
+        int n = store.size(), frames = store.frameCount();
+        if (this.frameStart.length != frames + 1) {
+            this.frameStart = new int[frames + 1];
+        } else {
+            Arrays.fill(this.frameStart, 0);
+        }
+        if (this.order.length < n) {
+            this.order = new int[n];
+        }
+        // counting the balls of every frame after its start, and turning the counts into the starts.
+        for (int i = 0; i < n; i++) {
+            this.frameStart[store.getFrameId(i) + 1]++;
+        }
+        for (int f = 0; f < frames; f++) {
+            this.frameStart[f + 1] += this.frameStart[f];
+        }
+        for (int i = 0; i < n; i++) {
+            this.order[this.frameStart[store.getFrameId(i)]++] = i;
+        }
+        // every start was moved to the start of the next frame.
+        for (int f = frames; f > 0; f--) {
+            this.frameStart[f] = this.frameStart[f - 1];
+        }
+        this.frameStart[0] = 0;
+    }
+
+    /**
+     * A method that calculates the bucket of a radius in the histogram.
+     *
+     * @param radius the radius.
+     * @return the bucket.
+     */
+    private static int bucket(int radius) {
+        return Math.max(0, Math.min(radius, MAX_RADIUS));
+    }
+
+    /**
+     * A method that counts the balls of a frame by their radius (into the histogram, which is empty before).
+     *
+     * @param store the store.
+     * @param f     the id of the frame.
+     * @return the biggest bucket of a ball of the frame.
+     */
+    private int radiusHistogram(BallStore store, int f) {
+        int maxBucket = 0;
+        for (int k = this.frameStart[f]; k < this.frameStart[f + 1]; k++) {
+            int b = bucket(store.getRadius(this.order[k]));
+            this.histogram[b]++;
+            maxBucket = Math.max(maxBucket, b);
+        }
+        return maxBucket;
+    }
+
+    /**
+     * A method that empties the buckets of the balls of a frame in the histogram (so only the buckets that were
+     * used are cleared).
+     *
+     * @param store the store.
+     * @param f     the id of the frame.
+     */
+    private void clearHistogram(BallStore store, int f) {
+        for (int k = this.frameStart[f]; k < this.frameStart[f + 1]; k++) {
+            this.histogram[bucket(store.getRadius(this.order[k]))] = 0;
+        }
+    }
+
+    /**
+     * A method that calculates the column of a value in the grid of a frame (clamped to the grid).
+     *
+     * @param f the id of the frame.
+     * @param v the x value.
+     * @return the column.
+     */
+    private int column(int f, double v) {
+        int c = (int) Math.floor((v - this.originX[f]) / this.cellSize[f]);
+        return Math.max(0, Math.min(this.columns[f] - 1, c));
+    }
+
+    /**
+     * A method that calculates the row of a value in the grid of a frame (clamped to the grid).
+     *
+     * @param f the id of the frame.
+     * @param v the y value.
+     * @return the row.
+     */
+    private int row(int f, double v) {
+        int r = (int) Math.floor((v - this.originY[f]) / this.cellSize[f]);
+        return Math.max(0, Math.min(this.rows[f] - 1, r));
+    }
+
+    /**
+     * A method that puts every ball in all the cells its bounding box covers (a counting sort by cell).
+     *
+     * @param store the store.
+     */
+    private void fillCells(BallStore store) {
+        int n = store.size(), total = 0;
+        if (this.minColumn.length < n) {
+            this.minColumn = new int[n];
+            this.minRow = new int[n];
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < n; i++) {
+                int f = store.getFrameId(i);
+                double x = store.getX(i), y = store.getY(i), r = store.getRadius(i);
+                int c0 = this.column(f, x - r), c1 = this.column(f, x + r);
+                int r0 = this.row(f, y - r), r1 = this.row(f, y + r);
+                this.minColumn[i] = c0;
+                this.minRow[i] = r0;
+                for (int row = r0; row <= r1; row++) {
+                    int base = this.firstCell[f] + row * this.columns[f];
+                    for (int col = c0; col <= c1; col++) {
+                        if (pass == 0) {
+                            this.cellStart[base + col + 1]++;
+                            total++;
+                        } else {
+                            this.entries[this.cellStart[base + col]++] = i;
+                        }
+                    }
+                }
+            }
+            if (pass == 0) {
+                // prefix sums - cellStart[c] is the start of cell c.
+                for (int c = 1; c < this.cellStart.length; c++) {
+                    this.cellStart[c] += this.cellStart[c - 1];
+                }
+                if (this.entries.length < total) {
+                    this.entries = new int[total];
+                }
+            }
+        }
+        // the second pass moved every start to the start of the next cell.
+        for (int c = this.cellStart.length - 1; c > 0; c--) {
+            this.cellStart[c] = this.cellStart[c - 1];
+        }
+        this.cellStart[0] = 0;
+    }
+
+    /**
+     * A method that checks if two balls of the same cell collide, and if they do, makes them bounce.
+     * A pair of balls which share several cells is checked only in the cell of the top left corner of the
+     * intersection of their bounding boxes (by the cells the balls were put in, before any of them moved).
+     *
+     * @param store the store.
+     * @param a     the index of the first ball.
+     * @param b     the index of the second ball.
+     * @param cell  the cell the balls were found in.
+     */
+    private void check(BallStore store, int a, int b, int cell) {
+        int f = store.getFrameId(a);
+        if (store.getFrameId(b) != f) {
+            return;
+        }
+        double ax = store.getX(a), ay = store.getY(a), bx = store.getX(b), by = store.getY(b);
+        int ra = store.getRadius(a), rb = store.getRadius(b);
+        int corner = this.firstCell[f] + Math.max(this.minRow[a], this.minRow[b]) * this.columns[f]
+                + Math.max(this.minColumn[a], this.minColumn[b]);
+        if (corner != cell) {
+            return;
+        }
+        double nx = bx - ax, ny = by - ay, distanceSquared = nx * nx + ny * ny, reach = ra + rb;
+        if (distanceSquared >= reach * reach) {
+            return;
+        }
+        double distance = Math.sqrt(distanceSquared);
+        if (distance == 0) {
+            // the same center - pushing them apart on the x axis.
+            nx = 1;
+            ny = 0;
+        } else {
+            nx /= distance;
+            ny /= distance;
+        }
+        double ma = (double) ra * ra, mb = (double) rb * rb, total = Math.max(ma + mb, 1);
+        // separating the balls (the lighter ball moves more), so they don't stay stuck in each other.
+        double overlap = reach - distance;
+        store.setCenter(a, ax - nx * overlap * mb / total, ay - ny * overlap * mb / total);
+        store.setCenter(b, bx + nx * overlap * ma / total, by + ny * overlap * ma / total);
+        // an elastic collision - only the velocity along the normal changes.
+        double approach = (store.getDx(a) - store.getDx(b)) * nx + (store.getDy(a) - store.getDy(b)) * ny;
+        if (approach <= 0) {
+            return;
+        }
+        double impulseA = 2 * mb / total * approach, impulseB = 2 * ma / total * approach;
+        store.setVelocity(a, store.getDx(a) - impulseA * nx, store.getDy(a) - impulseA * ny);
+        store.setVelocity(b, store.getDx(b) + impulseB * nx, store.getDy(b) + impulseB * ny);
+        this.collisions++;
+    }
+}
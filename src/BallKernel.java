@@ -0,0 +1,107 @@
+// ID - 212945760
+
+/**
+ * The BallKernel class - moves the balls of a range one step on one axis and reflects the ones that passed their
+ * borders, on the primitive arrays of a BallStore. It makes the same (integer) comparisons as Frame.adjustBallToFrame
+ * does with Ball.getX and Ball.getY. This class is the scalar kernel - create() returns a VectorBallKernel, which
+ * does the same in SIMD lanes, when the jdk.incubator.vector module is in the JVM (java --add-modules
+ * jdk.incubator.vector), and this kernel when it isn't.
+ * A kernel works on one axis - it marks the balls that bounced by adding its flag to their cells in the hits array
+ * (a store uses a kernel for every axis, with the same hits array).
+ *
+ * @author Ori Dabush
+ */
+public class BallKernel {
+
+    /**
+     * The name of the vector kernel class, and the module it needs.
+     */
+    private static final String VECTOR_KERNEL = "VectorBallKernel";
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private int flag;
+    private byte[] hits;
+
+    /**
+     * A constructor that creates a scalar kernel.
+     *
+     * @param flag the mark of a bounce on the axis of the kernel.
+     */
+    public BallKernel(int flag) {
+        this.flag = flag;
+        this.hits = new byte[0];
+    }
+
+    /**
+     * A method that creates the fastest kernel the JVM supports.
+     *
+     * @param flag the mark of a bounce on the axis of the kernel.
+     * @return a VectorBallKernel if the vector module is present, a scalar kernel otherwise.
+     */
+    public static BallKernel create(int flag) {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                // loaded by name, so this class doesn't need the module.
+                return (BallKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor(int.class).newInstance(flag);
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return new BallKernel(flag);
+            }
+        }
+        return new BallKernel(flag);
+    }
+
+    /**
+     * A method that sets the array the bounces are marked in (a cell for every ball).
+     *
+     * @param marks the array.
+     */
+    public void setHits(byte[] marks) {
+        this.hits = marks;
+    }
+
+    /**
+     * A method that marks a ball as bounced on the axis of the kernel.
+     *
+     * @param i the index of the ball.
+     */
+    protected void mark(int i) {
+        this.hits[i] |= this.flag;
+    }
+
+    /**
+     * A method to get the number of balls the kernel handles at once.
+     *
+     * @return the number of lanes (1 for the scalar kernel).
+     */
+    public int lanes() {
+        return 1;
+    }
+
+    /**
+     * A method that moves the balls of a range one step on one axis (pos += vel), and flips the velocity of every
+     * ball whose integer position is on or over one of the borders (low + radius, high - radius), marking it in
+     * the hits array.
+     *
+     * @param pos    the positions of the balls on the axis.
+     * @param vel    the velocities of the balls on the axis.
+     * @param radius the radii of the balls.
+     * @param from   the index of the first ball in the range.
+     * @param to     the index after the last ball in the range.
+     * @param low    the low border of the frame of the balls.
+     * @param high   the high border of the frame of the balls.
+     * @return the number of balls that bounced.
+     */
+    public int moveAndReflect(double[] pos, double[] vel, int[] radius, int from, int to, double low, double high) {
+        int bounced = 0;
+        for (int i = from; i < to; i++) {
+            pos[i] += vel[i];
+            int c = (int) pos[i];
+            if (c <= low + radius[i] || high - radius[i] <= c) {
+                vel[i] = -vel[i];
+                this.mark(i);
+                bounced++;
+            }
+        }
+        return bounced;
+    }
+}
@@ -0,0 +1,395 @@
+// ID - 212945760
+
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import biuoop.DrawSurface;
+
+/**
+ * The BallPlayer class - replays a recording of a BallRecorder, as a simulation whose every step is the next
+ * frame of the recording (so it can be run by the AnimationRunner like the animations it was recorded from).
+ * The file is memory mapped and the frames are decoded straight from the mapping. Every step decodes only the
+ * changes of the next frame, and seekFrame jumps to any frame by decoding the keyframe before it and the frames
+ * between them. Large files are mapped in windows, which are moved as the frames are read.
+ *
+ * @author Ori Dabush
+ */
+public class BallPlayer implements Simulation {
+
+    /**
+     * The option of the frame to start replaying from.
+     */
+    public static final String FRAME = "frame";
+
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+
+    /**
+     * The size of the window of the file which is mapped.
+     */
+    private static final long WINDOW_SIZE = 1L << 30;
+    private static final int BACKGROUND_BYTES = 4 * Double.BYTES + Integer.BYTES;
+
+    private FileChannel channel;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long windowEnd;
+
+    private int keyframeInterval;
+    private long frames;
+    private long[] offsets;
+    private long dataEnd;
+    private Frame[] backgrounds;
+
+    /**
+     * The state of the balls in the current frame (the centers and velocities in fixed point) and in the frame
+     * before it (for interpolation).
+     */
+    private int[] radius;
+    private long[] x;
+    private long[] y;
+    private long[] dx;
+    private long[] dy;
+    private int[] color;
+    private long[] previousX;
+    private long[] previousY;
+    private long frame;
+    private long bounces;
+
+    /**
+     * A constructor that opens a recording and moves to its first frame.
+     *
+     * @param path the path of the file.
+     * @throws IOException if the file can't be read or it is not a recording.
+     */
+    public BallPlayer(String path) throws IOException {
+        this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        ByteBuffer head = this.map(0, BallRecorder.HEADER_SIZE);
+        if (head.getInt(0) != BallRecorder.MAGIC || head.getInt(4) != BallRecorder.VERSION) {
+            throw new IOException("not a recording: " + path);
+        }
+        int n = head.getInt(8);
+        this.keyframeInterval = head.getInt(12);
+        this.backgrounds = new Frame[head.getInt(16)];
+        this.frames = head.getLong(24);
+        this.dataEnd = head.getLong(32);
+        if (this.dataEnd == 0) {
+            throw new IOException("the recording was not closed: " + path);
+        }
+        // the background frames and the radii follow the header.
+        ByteBuffer b = this.map(BallRecorder.HEADER_SIZE, (long) this.backgrounds.length * BACKGROUND_BYTES);
+        for (int i = 0; i < this.backgrounds.length; i++) {
+            Point topLeft = new Point(b.getDouble(), b.getDouble());
+            Point bottomRight = new Point(b.getDouble(), b.getDouble());
+            this.backgrounds[i] = new Frame(topLeft, bottomRight, new Color(b.getInt()));
+        }
+        this.radius = new int[n];
+        this.x = new long[n];
+        this.y = new long[n];
+        this.dx = new long[n];
+        this.dy = new long[n];
+        this.color = new int[n];
+        this.previousX = new long[n];
+        this.previousY = new long[n];
+        long radiiStart = BallRecorder.HEADER_SIZE + (long) this.backgrounds.length * BACKGROUND_BYTES;
+        b = this.at(radiiStart, (long) n * Varint.MAX_BYTES);
+        for (int i = 0; i < n; i++) {
+            this.radius[i] = (int) Varint.getUnsigned(b);
+        }
+        this.offsets = new long[(int) this.frames];
+        b = this.map(this.dataEnd, this.frames * Long.BYTES);
+        for (int f = 0; f < this.frames; f++) {
+            this.offsets[f] = b.getLong();
+        }
+        this.window = null;
+        if (this.frames > 0) {
+            this.seekFrame(0);
+        }
+    }
+
+    /**
+     * A method that maps a part of the file.
+     *
+     * @param position the offset of the part in the file.
+     * @param size     the size of the part.
+     * @return the mapping.
+     * @throws IOException if the file can't be read.
+     */
+    private MappedByteBuffer map(long position, long size) throws IOException {
+        return this.channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+
+    /**
+     * A method to get the window of the mapped file, positioned at an offset, which has at least the given
+     * number of bytes after it (or the rest of the file, if it is shorter). The window is moved if it doesn't.
+     *
+     * @param position the offset in the file.
+     * @param bytes    the number of bytes that will be read.
+     * @return the window, positioned at the offset.
+     * @throws IOException if the file can't be read.
+     */
+    private MappedByteBuffer at(long position, long bytes) throws IOException {
+        long end = Math.min(position + bytes, this.channel.size());
+        if (this.window == null || position < this.windowStart || end > this.windowEnd) {
+            long size = Math.min(Math.max(WINDOW_SIZE, end - position), this.channel.size() - position);
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("a frame of the recording is too big to be mapped");
+            }
+            this.window = this.map(position, size);
+            this.windowStart = position;
+            this.windowEnd = position + size;
+        }
+        this.window.position((int) (position - this.windowStart));
+        return this.window;
+    }
+
+    /**
+     * A method to get the number of frames of the recording.
+     *
+     * @return the number of frames.
+     */
+    public long getFrames() {
+        return this.frames;
+    }
+
+    /**
+     * A method to get the index of the current frame.
+     *
+     * @return the current frame.
+     */
+    public long getFrame() {
+        return this.frame;
+    }
+
+    /**
+     * A method to get the frames which are drawn behind the balls.
+     *
+     * @return the background frames.
+     */
+    public Frame[] getBackgrounds() {
+        return this.backgrounds;
+    }
+
+    /**
+     * A method to get the number of balls of the recording.
+     *
+     * @return the number of balls.
+     */
+    public int size() {
+        return this.radius.length;
+    }
+
+    /**
+     * A method to get the x value of the center of a ball in the current frame.
+     *
+     * @param i the index of the ball.
+     * @return the x value of the center.
+     */
+    public double getX(int i) {
+        return this.x[i] / BallRecorder.POSITION_SCALE;
+    }
+
+    /**
+     * A method to get the y value of the center of a ball in the current frame.
+     *
+     * @param i the index of the ball.
+     * @return the y value of the center.
+     */
+    public double getY(int i) {
+        return this.y[i] / BallRecorder.POSITION_SCALE;
+    }
+
+    /**
+     * A method to get the velocity of a ball in the current frame.
+     *
+     * @param i the index of the ball.
+     * @return the velocity.
+     */
+    public Velocity getVelocity(int i) {
+        return new Velocity(this.dx[i] / BallRecorder.VELOCITY_SCALE, this.dy[i] / BallRecorder.VELOCITY_SCALE);
+    }
+
+    /**
+     * A method to get the radius of a ball.
+     *
+     * @param i the index of the ball.
+     * @return the radius.
+     */
+    public int getRadius(int i) {
+        return this.radius[i];
+    }
+
+    /**
+     * A method to get the color of a ball in the current frame (as an RGB value).
+     *
+     * @param i the index of the ball.
+     * @return the color.
+     */
+    public int getColor(int i) {
+        return this.color[i];
+    }
+
+    /**
+     * A method that moves to a frame of the recording - it decodes the keyframe before it, and then the frames
+     * between them.
+     *
+     * @param f the index of the frame.
+     */
+    public void seekFrame(long f) {
+        if (f < 0 || f >= this.frames) {
+            throw new RuntimeException("input is invalid. there is no frame " + f + " in the recording.");
+        }
+        long keyframe = f - f % this.keyframeInterval;
+        if (this.frame > f || this.frame < keyframe || this.window == null) {
+            this.decode(keyframe);
+        }
+        while (this.frame < f) {
+            this.decode(this.frame + 1);
+        }
+        System.arraycopy(this.x, 0, this.previousX, 0, this.x.length);
+        System.arraycopy(this.y, 0, this.previousY, 0, this.y.length);
+    }
+
+    /**
+     * A method that decodes a frame - a keyframe replaces the state of the balls, and any other frame changes the
+     * state of the frame before it (which must be the current frame).
+     *
+     * @param f the index of the frame.
+     * @return the number of times a velocity changed its direction on one of the axes (0 for a keyframe).
+     */
+    private long decode(long f) {
+        long start = this.offsets[(int) f], end = (f + 1 < this.frames) ? this.offsets[(int) f + 1] : this.dataEnd;
+        ByteBuffer b;
+        try {
+            b = this.at(start, end - start);
+        } catch (IOException e) {
+            throw new RuntimeException("the recording can't be read: " + e.getMessage(), e);
+        }
+        boolean keyframe = f % this.keyframeInterval == 0;
+        long flips = 0;
+        for (int i = 0; i < this.radius.length; i++) {
+            if (keyframe) {
+                this.x[i] = Varint.getSigned(b);
+                this.y[i] = Varint.getSigned(b);
+                this.dx[i] = Varint.getSigned(b);
+                this.dy[i] = Varint.getSigned(b);
+                this.color[i] = (int) Varint.getUnsigned(b);
+                continue;
+            }
+            int flags = b.get();
+            this.x[i] += Varint.getSigned(b);
+            this.y[i] += Varint.getSigned(b);
+            if ((flags & BallRecorder.VELOCITY_CHANGED) != 0) {
+                long ndx = this.dx[i] + Varint.getSigned(b), ndy = this.dy[i] + Varint.getSigned(b);
+                flips += (Long.signum(ndx) != Long.signum(this.dx[i])) ? 1 : 0;
+                flips += (Long.signum(ndy) != Long.signum(this.dy[i])) ? 1 : 0;
+                this.dx[i] = ndx;
+                this.dy[i] = ndy;
+            }
+            if ((flags & BallRecorder.COLOR_CHANGED) != 0) {
+                this.color[i] = (int) Varint.getUnsigned(b);
+            }
+        }
+        this.frame = f;
+        return flips;
+    }
+
+    /**
+     * A method that moves to the next frame of the recording (and back to the first frame after the last one).
+     */
+    @Override
+    public void step() {
+        if (this.frames == 0) {
+            return;
+        }
+        if (this.frame + 1 == this.frames) {
+            this.seekFrame(0);
+            return;
+        }
+        System.arraycopy(this.x, 0, this.previousX, 0, this.x.length);
+        System.arraycopy(this.y, 0, this.previousY, 0, this.y.length);
+        this.bounces += this.decode(this.frame + 1);
+    }
+
+    @Override
+    public void drawOn(DrawSurface d) {
+        this.drawOn(d, 1);
+    }
+
+    @Override
+    public void drawOn(DrawSurface d, double alpha) {
+        for (Frame f : this.backgrounds) {
+            f.drawFrame(d);
+        }
+        int lastColor = 0;
+        Color c = null;
+        for (int i = 0; i < this.radius.length; i++) {
+            if (c == null || this.color[i] != lastColor) {
+                lastColor = this.color[i];
+                c = ColorPalette.colorOf(lastColor);
+                d.setColor(c);
+            }
+            double cx = this.previousX[i] + (this.x[i] - this.previousX[i]) * alpha;
+            double cy = this.previousY[i] + (this.y[i] - this.previousY[i]) * alpha;
+            d.fillCircle((int) (cx / BallRecorder.POSITION_SCALE), (int) (cy / BallRecorder.POSITION_SCALE),
+                    this.radius[i]);
+        }
+    }
+
+    /**
+     * The recording is replayed at the rate it was recorded in, a frame in every step.
+     *
+     * @param stepsPerSecond the number of steps in a second.
+     */
+    @Override
+    public void setStepsPerSecond(double stepsPerSecond) {
+    }
+
+    /**
+     * A method to get the number of bounces replayed so far - the number of times the velocity of a ball changed
+     * its direction on one of the axes.
+     *
+     * @return the number of bounces.
+     */
+    @Override
+    public long getBounces() {
+        return this.bounces;
+    }
+
+    /**
+     * A method that closes the file of the recording.
+     *
+     * @throws IOException if the file can't be closed.
+     */
+    public void close() throws IOException {
+        this.window = null;
+        this.channel.close();
+    }
+
+    /**
+     * The main method which replays a recording - the first argument is the path of the recording, and the
+     * options of the AnimationRunner can follow it (and --frame=n to start from frame n).
+     *
+     * @param args the arguments.
+     */
+    public static void main(String[] args) {
+        try {
+            RunOptions options = new RunOptions(args);
+            args = options.getArgs();
+            BallPlayer player = new BallPlayer(args[0]);
+            if (options.has(FRAME)) {
+                player.seekFrame(options.getLong(FRAME, 0));
+            }
+            AnimationRunner.run(player, "BallPlayer", WIDTH, HEIGHT, options);
+        } catch (IOException e) {
+            System.out.println("can't replay the recording: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.out.println("invalid input!");
+        }
+    }
+}
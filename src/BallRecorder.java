@@ -0,0 +1,232 @@
+// ID - 212945760
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The BallRecorder class - records the state of the balls of a BallStore in every tick (their centers, velocities
+ * and colors) to a compact binary file, which a BallPlayer can replay without the physics.
+ * The file starts with a header (the number of balls and frames, the background frames and the radii of the
+ * balls, which don't change). Every tick is a frame - every KEYFRAME_INTERVAL frames there's a keyframe, which
+ * has the whole state of every ball, and the frames between keyframes only have the changes from the frame
+ * before: the movement of every ball, and its velocity and color only if they changed. The centers and velocities
+ * are kept as fixed point numbers, and all the numbers are written as varints, so a ball usually takes 4 to 6
+ * bytes in a frame. The file ends with an index of the offsets of the frames, for random access.
+ * The frames are written through a FileChannel, from a large buffer which is written only when it fills.
+ *
+ * @author Ori Dabush
+ */
+public class BallRecorder {
+
+    /**
+     * The constants of the format of the file.
+     */
+    public static final int MAGIC = 0x42425243;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 40;
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 64;
+
+    /**
+     * The fixed point scales of the centers and the velocities.
+     */
+    public static final double POSITION_SCALE = 256;
+    public static final double VELOCITY_SCALE = 65536;
+
+    /**
+     * The flags of a ball in a frame which is not a keyframe - its velocity changed, its color changed.
+     */
+    public static final int VELOCITY_CHANGED = 1;
+    public static final int COLOR_CHANGED = 2;
+
+    /**
+     * The size of the buffer, and the maximal size of a ball in a frame.
+     */
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int MAX_BALL_BYTES = 1 + 5 * Varint.MAX_BYTES;
+    private static final long UNSIGNED_INT = 0xFFFFFFFFL;
+
+    private BallStore store;
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private int keyframeInterval;
+    private int backgrounds;
+    private long frames;
+    private long[] offsets;
+
+    /**
+     * The state of the balls in the last frame (in fixed point).
+     */
+    private long[] x;
+    private long[] y;
+    private long[] dx;
+    private long[] dy;
+    private int[] color;
+
+    /**
+     * A constructor that creates a recorder of the balls of a store, and writes the header of the file.
+     *
+     * @param path             the path of the file.
+     * @param store            the store (the number of balls must not change while recording).
+     * @param keyframeInterval the number of frames between two keyframes.
+     * @param backgrounds      the frames which are drawn behind the balls.
+     * @throws IOException if the file can't be written.
+     */
+    public BallRecorder(String path, BallStore store, int keyframeInterval, Frame... backgrounds) throws IOException {
+        this.store = store;
+        this.keyframeInterval = Math.max(keyframeInterval, 1);
+        this.backgrounds = backgrounds.length;
+        this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.offsets = new long[16];
+        int n = store.size();
+        this.x = new long[n];
+        this.y = new long[n];
+        this.dx = new long[n];
+        this.dy = new long[n];
+        this.color = new int[n];
+        this.buffer.position(HEADER_SIZE);
+        for (Frame f : backgrounds) {
+            this.buffer.putDouble(f.getLeftBorder());
+            this.buffer.putDouble(f.getTopBorder());
+            this.buffer.putDouble(f.getRightBorder());
+            this.buffer.putDouble(f.getBottomBorder());
+            this.buffer.putInt(f.getColor().getRGB());
+        }
+        this.header(this.buffer, 0);
+        for (int i = 0; i < n; i++) {
+            this.ensure(Varint.MAX_BYTES);
+            Varint.putUnsigned(this.buffer, store.getRadius(i));
+        }
+    }
+
+    /**
+     * A method that writes the header at the start of a buffer.
+     *
+     * @param target      the buffer.
+     * @param indexOffset the offset of the index of the frames in the file.
+     */
+    private void header(ByteBuffer target, long indexOffset) {
+        target.putInt(0, MAGIC);
+        target.putInt(4, VERSION);
+        target.putInt(8, this.x.length);
+        target.putInt(12, this.keyframeInterval);
+        target.putInt(16, this.backgrounds);
+        target.putInt(20, 0);
+        target.putLong(24, this.frames);
+        target.putLong(32, indexOffset);
+    }
+
+    /**
+     * A method to get the number of frames that were recorded.
+     *
+     * @return the number of frames.
+     */
+    public long getFrames() {
+        return this.frames;
+    }
+
+    /**
+     * A method that makes sure the buffer has room for the given number of bytes, by writing it to the file.
+     *
+     * @param bytes the number of bytes.
+     * @throws IOException if the file can't be written.
+     */
+    private void ensure(int bytes) throws IOException {
+        if (this.buffer.remaining() < bytes) {
+            this.flush();
+        }
+    }
+
+    /**
+     * A method that writes the buffer to the file.
+     *
+     * @throws IOException if the file can't be written.
+     */
+    private void flush() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+
+    /**
+     * A method that records the current state of the balls as the next frame. It is synchronized with close (which
+     * can be called from a shutdown hook while a step is recording), and a frame after the close is not recorded.
+     *
+     * @throws IOException if the file can't be written.
+     */
+    public synchronized void record() throws IOException {
+        if (!this.channel.isOpen()) {
+            return;
+        }
+        if (this.frames == this.offsets.length) {
+            this.offsets = Arrays.copyOf(this.offsets, 2 * this.offsets.length);
+        }
+        this.offsets[(int) this.frames] = this.channel.position() + this.buffer.position();
+        boolean keyframe = this.frames % this.keyframeInterval == 0;
+        BallStore s = this.store;
+        for (int i = 0; i < this.x.length; i++) {
+            this.ensure(MAX_BALL_BYTES);
+            long qx = Math.round(s.getX(i) * POSITION_SCALE), qy = Math.round(s.getY(i) * POSITION_SCALE);
+            long qdx = Math.round(s.getDx(i) * VELOCITY_SCALE), qdy = Math.round(s.getDy(i) * VELOCITY_SCALE);
+            int rgb = s.getColor(i);
+            if (keyframe) {
+                Varint.putSigned(this.buffer, qx);
+                Varint.putSigned(this.buffer, qy);
+                Varint.putSigned(this.buffer, qdx);
+                Varint.putSigned(this.buffer, qdy);
+                Varint.putUnsigned(this.buffer, rgb & UNSIGNED_INT);
+            } else {
+                int flags = (qdx != this.dx[i] || qdy != this.dy[i]) ? VELOCITY_CHANGED : 0;
+                flags |= (rgb != this.color[i]) ? COLOR_CHANGED : 0;
+                this.buffer.put((byte) flags);
+                Varint.putSigned(this.buffer, qx - this.x[i]);
+                Varint.putSigned(this.buffer, qy - this.y[i]);
+                if ((flags & VELOCITY_CHANGED) != 0) {
+                    Varint.putSigned(this.buffer, qdx - this.dx[i]);
+                    Varint.putSigned(this.buffer, qdy - this.dy[i]);
+                }
+                if ((flags & COLOR_CHANGED) != 0) {
+                    Varint.putUnsigned(this.buffer, rgb & UNSIGNED_INT);
+                }
+            }
+            this.x[i] = qx;
+            this.y[i] = qy;
+            this.dx[i] = qdx;
+            this.dy[i] = qdy;
+            this.color[i] = rgb;
+        }
+        this.frames++;
+    }
+
+    /**
+     * A method that writes the index of the frames and the header, and closes the file. It waits for a frame which
+     * is being recorded, so the index never points after the end of the file.
+     *
+     * @throws IOException if the file can't be written.
+     */
+    public synchronized void close() throws IOException {
+        if (!this.channel.isOpen()) {
+            return;
+        }
+        long indexOffset = this.channel.position() + this.buffer.position();
+        for (int f = 0; f < this.frames; f++) {
+            this.ensure(Long.BYTES);
+            this.buffer.putLong(this.offsets[f]);
+        }
+        this.flush();
+        // the header is written again, with the number of frames and the offset of the index.
+        ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE);
+        this.header(head, indexOffset);
+        while (head.hasRemaining()) {
+            this.channel.write(head, head.position());
+        }
+        this.channel.close();
+    }
+}
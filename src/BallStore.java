@@ -0,0 +1,857 @@
+// ID - 212945760
+
+import biuoop.DrawSurface;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The BallStore class - a world of balls kept as a structure of arrays. Instead of holding a Ball object (with a
+ * Point, a Velocity, a Color and a Frame) for every ball, the store keeps the centers, velocities, radii, colors and
+ * frame ids of all the balls in parallel primitive arrays, and moves all of them in one pass using the step method.
+ * The ballAt method gives a Ball view of a stored ball, so code that works with Ball objects can still use it.
+ *
+ * @author Ori Dabush
+ */
+public class BallStore {
+
+    /**
+     * The initial capacity of the arrays (they grow when needed).
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The marks of a bounce on the x axis and on the y axis (in the kernel step).
+     */
+    private static final int HIT_X = 1;
+    private static final int HIT_Y = 2;
+
+    /**
+     * The maximal number of obstacles a ball can hit in one step (the ball stops at the last one).
+     */
+    private static final int MAX_OBSTACLE_HITS = 4;
+
+    /**
+     * The ball arrays - the i'th ball is described by the i'th cell of every array.
+     */
+    private double[] x;
+    private double[] y;
+    private double[] dx;
+    private double[] dy;
+    private int[] radius;
+    private int[] color;
+    private int[] frameId;
+    private int size;
+
+    /**
+     * The centers of the balls before the last step (only kept when interpolation is enabled), and the number of
+     * steps in a second the velocities are given in.
+     */
+    private double[] previousX;
+    private double[] previousY;
+    private double stepsPerSecond;
+
+    /**
+     * The frames the balls are in, and their borders (cached in arrays for the step method).
+     */
+    private Frame[] frames;
+    private double[] left;
+    private double[] top;
+    private double[] right;
+    private double[] bottom;
+    private int[] frameColor;
+    private int frameCount;
+
+    private SplittableRandom rand;
+
+    /**
+     * The parallel stepper of the store (null when the store is stepped by one thread).
+     */
+    private ParallelBallStepper stepper;
+
+    /**
+     * The collider that makes the balls bounce off each other (null when balls pass through each other).
+     */
+    private BallCollider collider;
+
+    /**
+     * The number of times balls bounced off the borders of their frames.
+     */
+    private long bounces;
+
+    /**
+     * True if the balls move with continuous collision detection (see WallReflection), false if they are checked
+     * against the borders only after they move.
+     */
+    private boolean continuous;
+
+    /**
+     * The time of the store - the number of steps made so far (or the time it was seeked to).
+     */
+    private double time;
+
+    /**
+     * The kernels that move and reflect the balls on every axis (null when they are stepped by the loop of
+     * stepRange), and the marks of the balls that bounced in the last step of the kernels (a bit for every axis).
+     */
+    private BallKernel kernelX;
+    private BallKernel kernelY;
+    private byte[] hits;
+
+    /**
+     * The index of the obstacles the balls bounce off (null when there are none), and the hit of the casts against
+     * them when the store is stepped by one thread (reused in every step).
+     */
+    private LineIndex obstacles;
+    private SegmentHit obstacleHit;
+
+    /**
+     * A constructor that creates an empty store.
+     */
+    public BallStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * A constructor that creates an empty store with room for the given number of balls.
+     *
+     * @param capacity the number of balls the store can hold before it grows.
+     */
+    public BallStore(int capacity) {
+        capacity = Math.max(capacity, 1);
+        this.x = new double[capacity];
+        this.y = new double[capacity];
+        this.dx = new double[capacity];
+        this.dy = new double[capacity];
+        this.radius = new int[capacity];
+        this.color = new int[capacity];
+        this.frameId = new int[capacity];
+        this.size = 0;
+        this.previousX = null;
+        this.previousY = null;
+        this.stepsPerSecond = Velocity.DEFAULT_STEPS_PER_SECOND;
+        this.frames = new Frame[1];
+        this.left = new double[1];
+        this.top = new double[1];
+        this.right = new double[1];
+        this.bottom = new double[1];
+        this.frameColor = new int[1];
+        this.frameCount = 0;
+        this.rand = RandomStreams.newRandom();
+        this.stepper = null;
+        this.collider = null;
+        this.bounces = 0;
+        this.continuous = false;
+        this.time = 0;
+        this.kernelX = null;
+        this.kernelY = null;
+        this.hits = null;
+        this.obstacles = null;
+        this.obstacleHit = new SegmentHit();
+    }
+
+    /**
+     * A method to add a frame to the store. Adding a frame that is already in the store does nothing.
+     *
+     * @param f the frame.
+     * @return the id of the frame in the store.
+     */
+    public int addFrame(Frame f) {
+        int id = this.frameIdOf(f);
+        if (id >= 0) {
+            return id;
+        }
+        if (this.frameCount == this.frames.length) {
+            int capacity = 2 * this.frames.length;
+            this.frames = Arrays.copyOf(this.frames, capacity);
+            this.left = Arrays.copyOf(this.left, capacity);
+            this.top = Arrays.copyOf(this.top, capacity);
+            this.right = Arrays.copyOf(this.right, capacity);
+            this.bottom = Arrays.copyOf(this.bottom, capacity);
+            this.frameColor = Arrays.copyOf(this.frameColor, capacity);
+        }
+        id = this.frameCount++;
+        this.frames[id] = f;
+        this.left[id] = f.getLeftBorder();
+        this.top[id] = f.getTopBorder();
+        this.right[id] = f.getRightBorder();
+        this.bottom[id] = f.getBottomBorder();
+        this.frameColor[id] = f.getColor().getRGB();
+        return id;
+    }
+
+    /**
+     * A method to find the id of a frame in the store.
+     *
+     * @param f the frame.
+     * @return the id of the frame, -1 if it is not in the store.
+     */
+    public int frameIdOf(Frame f) {
+        for (int i = 0; i < this.frameCount; i++) {
+            if (this.frames[i] == f) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A method to get a frame of the store by its id.
+     *
+     * @param id the id of the frame.
+     * @return the frame.
+     */
+    public Frame getFrame(int id) {
+        return this.frames[id];
+    }
+
+    /**
+     * A method to get the number of frames in the store.
+     *
+     * @return the number of frames.
+     */
+    public int frameCount() {
+        return this.frameCount;
+    }
+
+    /**
+     * A method that makes sure the arrays can hold the given number of balls.
+     *
+     * @param capacity the number of balls.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= this.x.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, 2 * this.x.length);
+        this.x = Arrays.copyOf(this.x, newCapacity);
+        this.y = Arrays.copyOf(this.y, newCapacity);
+        this.dx = Arrays.copyOf(this.dx, newCapacity);
+        this.dy = Arrays.copyOf(this.dy, newCapacity);
+        this.radius = Arrays.copyOf(this.radius, newCapacity);
+        this.color = Arrays.copyOf(this.color, newCapacity);
+        this.frameId = Arrays.copyOf(this.frameId, newCapacity);
+        if (this.hits != null) {
+            this.hits = Arrays.copyOf(this.hits, newCapacity);
+            this.kernelX.setHits(this.hits);
+            this.kernelY.setHits(this.hits);
+        }
+        if (this.previousX != null) {
+            this.previousX = Arrays.copyOf(this.previousX, newCapacity);
+            this.previousY = Arrays.copyOf(this.previousY, newCapacity);
+        }
+    }
+
+    /**
+     * A method that makes the store keep the centers of the balls before the last step, so they can be drawn
+     * between two steps (with drawOn(d, alpha)).
+     */
+    public void enableInterpolation() {
+        if (this.previousX == null) {
+            this.previousX = Arrays.copyOf(this.x, this.x.length);
+            this.previousY = Arrays.copyOf(this.y, this.y.length);
+        }
+    }
+
+    /**
+     * A method that sets the number of steps the balls make in a second. The velocities of the balls are changed
+     * so they keep moving the same distance in a second.
+     *
+     * @param newStepsPerSecond the number of steps in a second.
+     */
+    public void setStepsPerSecond(double newStepsPerSecond) {
+        double factor = this.stepsPerSecond / newStepsPerSecond;
+        this.time /= factor;
+        for (int i = 0; i < this.size; i++) {
+            this.dx[i] *= factor;
+            this.dy[i] *= factor;
+        }
+        this.stepsPerSecond = newStepsPerSecond;
+    }
+
+    /**
+     * A method that sets the number of threads that step the balls. With more than one thread, the balls are
+     * split between the workers of a ForkJoinPool, and every worker has its own random source.
+     *
+     * @param threads the number of threads.
+     */
+    public void setThreads(int threads) {
+        if (this.stepper != null) {
+            this.stepper.shutdown();
+        }
+        this.stepper = (threads > 1) ? new ParallelBallStepper(this, threads, this.rand.split()) : null;
+    }
+
+    /**
+     * A method that sets if the balls collide with each other (bounce off each other) or pass through each other.
+     *
+     * @param enabled true to make the balls collide, false to make them pass through each other.
+     */
+    public void setCollisions(boolean enabled) {
+        this.collider = enabled ? new BallCollider() : null;
+    }
+
+    /**
+     * A method that sets if the balls move with continuous collision detection. With it, a ball that would cross
+     * a border in a step reflects at the moment it hits the border and keeps the rest of its motion (even if it
+     * hits several borders in one step), so large steps (a low number of steps in a second) stay correct. Without
+     * it, a ball is reflected only if it is on or over a border after it moves, like Frame.adjustBallToFrame does.
+     *
+     * @param enabled true to enable continuous collision detection, false otherwise.
+     */
+    public void setContinuous(boolean enabled) {
+        this.continuous = enabled;
+    }
+
+    /**
+     * A method that sets if the balls are moved by a BallKernel - a VectorBallKernel (in SIMD lanes) when the JVM
+     * has the jdk.incubator.vector module, and the scalar kernel when it doesn't. The balls move and get their new
+     * colors exactly like without it. Continuous collision detection doesn't use the kernel.
+     *
+     * @param enabled true to move the balls with the kernel, false otherwise.
+     */
+    public void setSimd(boolean enabled) {
+        this.kernelX = enabled ? BallKernel.create(HIT_X) : null;
+        this.kernelY = enabled ? BallKernel.create(HIT_Y) : null;
+        this.hits = enabled ? new byte[this.x.length] : null;
+        if (enabled) {
+            this.kernelX.setHits(this.hits);
+            this.kernelY.setHits(this.hits);
+        }
+    }
+
+    /**
+     * A method to get the kernel that moves the balls (on the x axis - the y axis has a kernel of the same kind).
+     *
+     * @return the kernel, null if the balls are moved without one.
+     */
+    public BallKernel getKernel() {
+        return this.kernelX;
+    }
+
+    /**
+     * A method that sets the obstacles - lines that the balls of every frame bounce off (a ball is reflected by the
+     * normal of the line at the point it touches it, so it can bounce off lines of any angle). The lines are kept in
+     * a LineIndex, so a step takes about logarithmic time in the number of lines for every ball. The balls move
+     * without continuous collision detection and without the kernels when there are obstacles.
+     *
+     * @param lines the obstacles (none to remove the obstacles).
+     */
+    public void setObstacles(Line... lines) {
+        this.obstacles = (lines.length == 0) ? null : new LineIndex(lines);
+    }
+
+    /**
+     * A method to get the index of the obstacles.
+     *
+     * @return the index of the obstacles, null if there are none.
+     */
+    public LineIndex getObstacles() {
+        return this.obstacles;
+    }
+
+    /**
+     * A method to get the number of bounces so far - off the borders of the frames, and off other balls when
+     * collisions are enabled.
+     *
+     * @return the number of bounces.
+     */
+    public long getBounces() {
+        return this.bounces + ((this.collider == null) ? 0 : this.collider.getCollisions());
+    }
+
+    /**
+     * A method to get the collider of the store.
+     *
+     * @return the collider, null if the balls don't collide.
+     */
+    public BallCollider getCollider() {
+        return this.collider;
+    }
+
+    /**
+     * A method to get the number of threads that step the balls.
+     *
+     * @return the number of threads.
+     */
+    public int getThreads() {
+        return (this.stepper == null) ? 1 : this.stepper.getThreads();
+    }
+
+    /**
+     * A method to get the number of steps the balls make in a second.
+     *
+     * @return the number of steps in a second.
+     */
+    public double getStepsPerSecond() {
+        return this.stepsPerSecond;
+    }
+
+    /**
+     * A method to add a ball to the store.
+     *
+     * @param cx     the x value of the ball's center.
+     * @param cy     the y value of the ball's center.
+     * @param r      the radius of the ball.
+     * @param rgb    the color of the ball (as an RGB value).
+     * @param vx     the dx value of the ball's velocity.
+     * @param vy     the dy value of the ball's velocity.
+     * @param idOfFrame the id of the frame the ball is in.
+     * @return the index of the new ball.
+     */
+    public int add(double cx, double cy, int r, int rgb, double vx, double vy, int idOfFrame) {
+        this.ensureCapacity(this.size + 1);
+        int i = this.size++;
+        this.x[i] = cx;
+        this.y[i] = cy;
+        this.radius[i] = r;
+        this.color[i] = rgb;
+        this.dx[i] = vx;
+        this.dy[i] = vy;
+        this.frameId[i] = idOfFrame;
+        if (this.previousX != null) {
+            this.previousX[i] = cx;
+            this.previousY[i] = cy;
+        }
+        return i;
+    }
+
+    /**
+     * A method to add a ball to the store, by copying the ball's values. The ball must have a frame.
+     *
+     * @param ball the ball.
+     * @return the index of the new ball.
+     * @throws RuntimeException if the ball has no frame.
+     */
+    public int add(Ball ball) throws RuntimeException {
+        if (ball.getFrame() == null) {
+            throw new RuntimeException("a ball in a ball store must have a frame.");
+        }
+        Velocity v = ball.getVelocity();
+        Point center = ball.getCenter();
+        return this.add(center.getX(), center.getY(), ball.getSize(), ball.getColor().getRGB(),
+                v.getDx(), v.getDy(), this.addFrame(ball.getFrame()));
+    }
+
+    /**
+     * A method to get the number of balls in the store.
+     *
+     * @return the number of balls.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * A method to get a Ball view of a ball in the store. Changes made through the view change the store.
+     *
+     * @param i the index of the ball.
+     * @return the ball view.
+     */
+    public Ball ballAt(int i) {
+        return new BallView(this, i);
+    }
+
+    /**
+     * A method to get the x value of a ball's center.
+     *
+     * @param i the index of the ball.
+     * @return the x value of the ball's center.
+     */
+    public double getX(int i) {
+        return this.x[i];
+    }
+
+    /**
+     * A method to get the y value of a ball's center.
+     *
+     * @param i the index of the ball.
+     * @return the y value of the ball's center.
+     */
+    public double getY(int i) {
+        return this.y[i];
+    }
+
+    /**
+     * A method to set the center of a ball.
+     *
+     * @param i  the index of the ball.
+     * @param cx the new x value of the center.
+     * @param cy the new y value of the center.
+     */
+    public void setCenter(int i, double cx, double cy) {
+        this.x[i] = cx;
+        this.y[i] = cy;
+    }
+
+    /**
+     * A method to get the x value of a ball's center before the last step (its current x value if interpolation
+     * is not enabled).
+     *
+     * @param i the index of the ball.
+     * @return the previous x value of the ball's center.
+     */
+    public double getPreviousX(int i) {
+        return (this.previousX == null) ? this.x[i] : this.previousX[i];
+    }
+
+    /**
+     * A method to get the y value of a ball's center before the last step (its current y value if interpolation
+     * is not enabled).
+     *
+     * @param i the index of the ball.
+     * @return the previous y value of the ball's center.
+     */
+    public double getPreviousY(int i) {
+        return (this.previousY == null) ? this.y[i] : this.previousY[i];
+    }
+
+    /**
+     * A method to get the dx value of a ball's velocity.
+     *
+     * @param i the index of the ball.
+     * @return the dx value of the ball's velocity.
+     */
+    public double getDx(int i) {
+        return this.dx[i];
+    }
+
+    /**
+     * A method to get the dy value of a ball's velocity.
+     *
+     * @param i the index of the ball.
+     * @return the dy value of the ball's velocity.
+     */
+    public double getDy(int i) {
+        return this.dy[i];
+    }
+
+    /**
+     * A method to set the velocity of a ball.
+     *
+     * @param i  the index of the ball.
+     * @param vx the new dx value.
+     * @param vy the new dy value.
+     */
+    public void setVelocity(int i, double vx, double vy) {
+        this.dx[i] = vx;
+        this.dy[i] = vy;
+    }
+
+    /**
+     * A method to get the radius of a ball.
+     *
+     * @param i the index of the ball.
+     * @return the radius of the ball.
+     */
+    public int getRadius(int i) {
+        return this.radius[i];
+    }
+
+    /**
+     * A method to get the color of a ball as an RGB value.
+     *
+     * @param i the index of the ball.
+     * @return the RGB value of the ball's color.
+     */
+    public int getColor(int i) {
+        return this.color[i];
+    }
+
+    /**
+     * A method to set the color of a ball.
+     *
+     * @param i   the index of the ball.
+     * @param rgb the RGB value of the new color.
+     */
+    public void setColor(int i, int rgb) {
+        this.color[i] = rgb;
+    }
+
+    /**
+     * A method to get the id of the frame a ball is in.
+     *
+     * @param i the index of the ball.
+     * @return the id of the ball's frame.
+     */
+    public int getFrameId(int i) {
+        return this.frameId[i];
+    }
+
+    /**
+     * A method to move a ball to another frame of the store.
+     *
+     * @param i         the index of the ball.
+     * @param idOfFrame the id of the new frame.
+     */
+    public void setFrameId(int i, int idOfFrame) {
+        this.frameId[i] = idOfFrame;
+    }
+
+    /**
+     * A method to get the time of the store.
+     *
+     * @return the number of steps made so far (or the time the store was seeked to).
+     */
+    public double getTime() {
+        return this.time;
+    }
+
+    /**
+     * A method that moves all the balls to their state at a time, in closed form (with WallReflection) - a seek
+     * takes the same time no matter how far the time is, and it can go back as well as forward.
+     * The balls move like with continuous collision detection, and they don't collide with each other on the way.
+     * Their colors are not changed.
+     *
+     * @param t the time (in steps).
+     */
+    public void seek(double t) {
+        double steps = t - this.time;
+        for (int i = 0; i < this.size; i++) {
+            int f = this.frameId[i], r = this.radius[i];
+            double lowX = this.left[f] + r, highX = this.right[f] - r;
+            double lowY = this.top[f] + r, highY = this.bottom[f] - r;
+            double nx = WallReflection.positionAt(this.x[i], this.dx[i], steps, lowX, highX);
+            double ny = WallReflection.positionAt(this.y[i], this.dy[i], steps, lowY, highY);
+            this.dx[i] = WallReflection.velocityAt(this.x[i], this.dx[i], steps, lowX, highX);
+            this.dy[i] = WallReflection.velocityAt(this.y[i], this.dy[i], steps, lowY, highY);
+            this.x[i] = nx;
+            this.y[i] = ny;
+        }
+        if (this.previousX != null) {
+            System.arraycopy(this.x, 0, this.previousX, 0, this.size);
+            System.arraycopy(this.y, 0, this.previousY, 0, this.size);
+        }
+        this.time = t;
+    }
+
+    /**
+     * A method that moves every ball one step by its velocity and adjusts it to its frame, in one pass.
+     * It does the work of Ball.moveOneStep and Frame.adjustBallToFrame (including the color change on a bounce
+     * and Frame.checkColor) for all the balls. If collisions are enabled, the balls that overlap after moving
+     * bounce off each other.
+     */
+    public void step() {
+        this.time++;
+        if (this.stepper != null) {
+            this.bounces += this.stepper.step();
+        } else {
+            this.bounces += this.stepRange(0, this.size, this.rand, this.obstacleHit);
+        }
+        if (this.collider != null) {
+            this.collider.collide(this);
+        }
+    }
+
+    /**
+     * A method that moves the balls in a range of indexes one step, like the step method does for all the balls.
+     * Ranges that don't overlap can be stepped at the same time by different threads, as long as each thread uses
+     * its own random source and its own hit.
+     *
+     * @param from   the index of the first ball in the range.
+     * @param to     the index after the last ball in the range.
+     * @param random the random source for the new colors of bouncing balls.
+     * @param hit    the hit to reuse for the casts against the obstacles.
+     * @return the number of bounces off the borders of the frames in the range.
+     */
+    public int stepRange(int from, int to, SplittableRandom random, SegmentHit hit) {
+        if (this.previousX != null) {
+            System.arraycopy(this.x, from, this.previousX, from, to - from);
+            System.arraycopy(this.y, from, this.previousY, from, to - from);
+        }
+        if (this.obstacles != null) {
+            return this.stepRangeObstacles(from, to, random, hit);
+        }
+        if (this.continuous) {
+            return this.stepRangeContinuous(from, to, random);
+        }
+        if (this.kernelX != null) {
+            return this.stepRangeKernel(from, to, random);
+        }
+        double[] xs = this.x, ys = this.y, dxs = this.dx, dys = this.dy;
+        int[] rs = this.radius, fs = this.frameId;
+        int bounced = 0;
+        for (int i = from; i < to; i++) {
+            int f = fs[i], r = rs[i];
+            xs[i] += dxs[i];
+            ys[i] += dys[i];
+            // the same (integer) comparisons as Frame.adjustBallToFrame does with Ball.getX and Ball.getY.
+            int cx = (int) xs[i], cy = (int) ys[i];
+            if (cx <= this.left[f] + r || this.right[f] - r <= cx) {
+                dxs[i] = -dxs[i];
+                this.color[i] = ColorPalette.randomRgbOtherThan(this.frameColor[f], random);
+                bounced++;
+            }
+            if (cy <= this.top[f] + r || this.bottom[f] - r <= cy) {
+                dys[i] = -dys[i];
+                this.color[i] = ColorPalette.randomRgbOtherThan(this.frameColor[f], random);
+                bounced++;
+            }
+        }
+        return bounced;
+    }
+
+    /**
+     * A method that moves the balls in a range of indexes one step with the kernels, on every run of balls of the
+     * same frame, and then gives the balls that bounced their new colors (in the same order stepRange does, so the
+     * random colors are the same).
+     *
+     * @param from   the index of the first ball in the range.
+     * @param to     the index after the last ball in the range.
+     * @param random the random source for the new colors of bouncing balls.
+     * @return the number of bounces off the borders of the frames in the range.
+     */
+    private int stepRangeKernel(int from, int to, SplittableRandom random) {
+        int[] fs = this.frameId;
+        byte[] marks = this.hits;
+        int bounced = 0, i = from;
+        while (i < to) {
+            int f = fs[i], j = i + 1;
+            while (j < to && fs[j] == f) {
+                j++;
+            }
+            bounced += this.kernelX.moveAndReflect(this.x, this.dx, this.radius, i, j, this.left[f], this.right[f]);
+            bounced += this.kernelY.moveAndReflect(this.y, this.dy, this.radius, i, j, this.top[f], this.bottom[f]);
+            i = j;
+        }
+        for (i = from; i < to; i++) {
+            if (marks[i] != 0) {
+                int frameRgb = this.frameColor[fs[i]];
+                this.color[i] = ColorPalette.randomRgbOtherThan(frameRgb, random);
+                if (marks[i] == (HIT_X | HIT_Y)) {
+                    this.color[i] = ColorPalette.randomRgbOtherThan(frameRgb, random);
+                }
+                marks[i] = 0;
+            }
+        }
+        return bounced;
+    }
+
+    /**
+     * A method that moves the balls in a range of indexes one step with continuous collision detection. On every
+     * axis, a ball that is between its borders is moved with WallReflection (it reflects at the moment it hits a
+     * border), and a ball which isn't (it is bigger than its frame, or it started out of it) is checked like in
+     * stepRange.
+     *
+     * @param from   the index of the first ball in the range.
+     * @param to     the index after the last ball in the range.
+     * @param random the random source for the new colors of bouncing balls.
+     * @return the number of bounces off the borders of the frames in the range.
+     */
+    private int stepRangeContinuous(int from, int to, SplittableRandom random) {
+        double[] xs = this.x, ys = this.y, dxs = this.dx, dys = this.dy;
+        int[] rs = this.radius, fs = this.frameId;
+        int bounced = 0;
+        for (int i = from; i < to; i++) {
+            int f = fs[i], r = rs[i];
+            double low = this.left[f] + r, high = this.right[f] - r;
+            long hitsX = WallReflection.stepHits(xs[i], dxs[i], low, high);
+            xs[i] = WallReflection.step(xs[i], dxs[i], low, high);
+            low = this.top[f] + r;
+            high = this.bottom[f] - r;
+            long hitsY = WallReflection.stepHits(ys[i], dys[i], low, high);
+            ys[i] = WallReflection.step(ys[i], dys[i], low, high);
+            if ((hitsX & 1) != 0) {
+                dxs[i] = -dxs[i];
+            }
+            if ((hitsY & 1) != 0) {
+                dys[i] = -dys[i];
+            }
+            if (hitsX != 0 || hitsY != 0) {
+                this.color[i] = ColorPalette.randomRgbOtherThan(this.frameColor[f], random);
+                bounced += (int) Math.min(Math.abs(hitsX) + Math.abs(hitsY), Integer.MAX_VALUE);
+            }
+        }
+        return bounced;
+    }
+
+    /**
+     * A method that moves the balls in a range of indexes one step between the obstacles. A ball that hits an
+     * obstacle on its way moves to the point where it touches it, reflects by its normal and keeps the rest of its
+     * motion (so it doesn't pass through thin lines); after it moves, it is checked against the borders of its
+     * frame like in stepRange.
+     *
+     * @param from   the index of the first ball in the range.
+     * @param to     the index after the last ball in the range.
+     * @param random the random source for the new colors of bouncing balls.
+     * @param hit    the hit to reuse for the casts.
+     * @return the number of bounces off the obstacles and the borders of the frames in the range.
+     */
+    private int stepRangeObstacles(int from, int to, SplittableRandom random, SegmentHit hit) {
+        double[] xs = this.x, ys = this.y, dxs = this.dx, dys = this.dy;
+        int[] rs = this.radius, fs = this.frameId;
+        int bounced = 0;
+        for (int i = from; i < to; i++) {
+            int f = fs[i], r = rs[i];
+            double remaining = 1;
+            int hitCount = 0;
+            while (remaining > 0 && this.obstacles.cast(xs[i], ys[i], dxs[i] * remaining, dys[i] * remaining, r,
+                    hit)) {
+                xs[i] = hit.getX();
+                ys[i] = hit.getY();
+                // reflecting the velocity by the normal: v - 2 (v . n) n
+                double along = dxs[i] * hit.getNormalX() + dys[i] * hit.getNormalY();
+                dxs[i] -= 2 * along * hit.getNormalX();
+                dys[i] -= 2 * along * hit.getNormalY();
+                this.color[i] = ColorPalette.randomRgbOtherThan(this.frameColor[f], random);
+                bounced++;
+                hitCount++;
+                remaining = (hitCount == MAX_OBSTACLE_HITS) ? 0 : remaining * (1 - hit.getT());
+            }
+            xs[i] += dxs[i] * remaining;
+            ys[i] += dys[i] * remaining;
+            int cx = (int) xs[i], cy = (int) ys[i];
+            if (cx <= this.left[f] + r || this.right[f] - r <= cx) {
+                dxs[i] = -dxs[i];
+                this.color[i] = ColorPalette.randomRgbOtherThan(this.frameColor[f], random);
+                bounced++;
+            }
+            if (cy <= this.top[f] + r || this.bottom[f] - r <= cy) {
+                dys[i] = -dys[i];
+                this.color[i] = ColorPalette.randomRgbOtherThan(this.frameColor[f], random);
+                bounced++;
+            }
+        }
+        return bounced;
+    }
+
+    /**
+     * A method that draws all the balls on the given DrawSurface.
+     *
+     * @param d the DrawSurface.
+     */
+    public void drawOn(DrawSurface d) {
+        int current = 0;
+        for (int i = 0; i < this.size; i++) {
+            // only set the color when it changes.
+            if (i == 0 || this.color[i] != current) {
+                current = this.color[i];
+                d.setColor(ColorPalette.colorOf(current));
+            }
+            d.fillCircle((int) this.x[i], (int) this.y[i], this.radius[i]);
+        }
+    }
+
+    /**
+     * A method that draws all the balls on the given DrawSurface, between their centers before the last step and
+     * their current centers. If interpolation is not enabled, the balls are drawn in their current centers.
+     *
+     * @param d     the DrawSurface.
+     * @param alpha the part of the step to interpolate (0 is before the last step, 1 is the current centers).
+     */
+    public void drawOn(DrawSurface d, double alpha) {
+        if (this.previousX == null) {
+            this.drawOn(d);
+            return;
+        }
+        int current = 0;
+        for (int i = 0; i < this.size; i++) {
+            if (i == 0 || this.color[i] != current) {
+                current = this.color[i];
+                d.setColor(ColorPalette.colorOf(current));
+            }
+            d.fillCircle((int) (this.previousX[i] + alpha * (this.x[i] - this.previousX[i])),
+                    (int) (this.previousY[i] + alpha * (this.y[i] - this.previousY[i])), this.radius[i]);
+        }
+    }
+}
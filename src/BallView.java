@@ -0,0 +1,154 @@
+// ID - 212945760
+
+import java.awt.Color;
+
+import biuoop.DrawSurface;
+
+/**
+ * The BallView class - a Ball which is a view of a ball that is kept in a BallStore. Every access to the view reads
+ * the store, and every change made through the view is written to the store, so existing code that works with
+ * Ball objects can work with the balls of a store.
+ *
+ * @author Ori Dabush
+ */
+public class BallView extends Ball {
+
+    private BallStore store;
+    private int index;
+
+    /**
+     * A constructor that creates a view of a ball in a store.
+     *
+     * @param store the store.
+     * @param index the index of the ball in the store.
+     */
+    public BallView(BallStore store, int index) {
+        super(store.getX(index), store.getY(index), store.getRadius(index), new Color(store.getColor(index)));
+        this.store = store;
+        this.index = index;
+    }
+
+    /**
+     * A method to get the index of the ball in the store.
+     *
+     * @return the index of the ball.
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    @Override
+    public int getX() {
+        return (int) this.store.getX(this.index);
+    }
+
+    @Override
+    public int getY() {
+        return (int) this.store.getY(this.index);
+    }
+
+    @Override
+    public double getCenterX() {
+        return this.store.getX(this.index);
+    }
+
+    @Override
+    public double getCenterY() {
+        return this.store.getY(this.index);
+    }
+
+    @Override
+    public Point getCenter() {
+        return new Point(this.store.getX(this.index), this.store.getY(this.index));
+    }
+
+    @Override
+    public void setCenter(double x, double y) {
+        this.store.setCenter(this.index, x, y);
+    }
+
+    @Override
+    public int getSize() {
+        return this.store.getRadius(this.index);
+    }
+
+    @Override
+    public Color getColor() {
+        return ColorPalette.colorOf(this.store.getColor(this.index));
+    }
+
+    @Override
+    public void setColor(Color c) {
+        this.store.setColor(this.index, c.getRGB());
+    }
+
+    @Override
+    public void drawOn(DrawSurface surface) {
+        surface.setColor(this.getColor());
+        surface.fillCircle(this.getX(), this.getY(), this.getSize());
+    }
+
+    @Override
+    public void setVelocity(Velocity v) {
+        this.store.setVelocity(this.index, v.getDx(), v.getDy());
+    }
+
+    @Override
+    public void setVelocity(double dx, double dy) {
+        this.store.setVelocity(this.index, dx, dy);
+    }
+
+    /**
+     * An accessor method to get the velocity value of the ball. Changing the returned velocity doesn't change the
+     * ball, use setVelocity instead.
+     *
+     * @return the velocity value of the ball.
+     */
+    @Override
+    public Velocity getVelocity() {
+        return new Velocity(this.store.getDx(this.index), this.store.getDy(this.index));
+    }
+
+    @Override
+    public double getDx() {
+        return this.store.getDx(this.index);
+    }
+
+    @Override
+    public double getDy() {
+        return this.store.getDy(this.index);
+    }
+
+    @Override
+    public Frame getFrame() {
+        return this.store.getFrame(this.store.getFrameId(this.index));
+    }
+
+    @Override
+    public void setFrame(Frame f) {
+        this.store.setFrameId(this.index, this.store.addFrame(f));
+    }
+
+    @Override
+    public void moveOneStep() {
+        this.store.setCenter(this.index, this.store.getX(this.index) + this.store.getDx(this.index),
+                this.store.getY(this.index) + this.store.getDy(this.index));
+    }
+
+    @Override
+    public void reflectHorizontally() {
+        this.store.setVelocity(this.index, -this.store.getDx(this.index), this.store.getDy(this.index));
+    }
+
+    @Override
+    public void reflectVertically() {
+        this.store.setVelocity(this.index, this.store.getDx(this.index), -this.store.getDy(this.index));
+    }
+
+    @Override
+    public void createVelocity(Frame f) {
+        Ball copy = new Ball(this.getCenter(), this.getSize(), this.getColor());
+        copy.createVelocity(f);
+        this.setVelocity(copy.getVelocity());
+    }
+}
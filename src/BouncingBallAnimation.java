@@ -1,16 +1,14 @@
 // ID - 212945760
 
 import biuoop.DrawSurface;
-import biuoop.GUI;
-import biuoop.Sleeper;
 
 /**
  * The BouncingBallAnimation class, which gets 4 double numbers as command line arguments and
- * activates the drawAnimation method.
+ * animates a ball moving from the given start point with the given velocity.
  *
  * @author Ori Dabush
  */
-public class BouncingBallAnimation {
+public class BouncingBallAnimation implements Simulation {
 
     /**
      * constants for the size of the screen.
@@ -37,51 +35,85 @@ public class BouncingBallAnimation {
                 && ball.getY() > TOP_BORDER + ball.getSize() && ball.getY() < BOTTOM_BORDER - ball.getSize();
     }
 
+    private Ball ball;
+    private boolean isInScreen;
+    private Point previous;
+    private long bounces;
+    private double stepsPerSecond;
+
     /**
-     * A method that makes a ball moving with the given velocity, starting in the given point.
+     * A constructor that creates the animation of a ball moving with the given velocity, starting in the given point.
+     * The ball starts bouncing from the borders only after all of it got into the screen.
      *
      * @param start the point where the ball starts moving from.
      * @param dx    the dx value of the ball's velocity.
      * @param dy    the dy value of the ball's velocity.
      */
-    private static void drawAnimation(Point start, double dx, double dy) {
-        GUI gui = new GUI("BouncingBallAnimation", WIDTH, HEIGHT);
-        Sleeper sleeper = new Sleeper();
-        Ball ball = new Ball(start.getX(), start.getY(), 30, java.awt.Color.BLACK);
-        ball.setVelocity(dx, dy);
-        while (!isBallInScreen(ball)) {
-            ball.moveOneStep();
-            DrawSurface d = gui.getDrawSurface();
-            ball.drawOn(d);
-            gui.show(d);
-            sleeper.sleepFor(50);  // wait for 50 milliseconds.
+    public BouncingBallAnimation(Point start, double dx, double dy) {
+        this.ball = new Ball(start.getX(), start.getY(), 30, java.awt.Color.BLACK);
+        this.ball.setVelocity(dx, dy);
+        this.isInScreen = false;
+        this.previous = new Point(start);
+        this.stepsPerSecond = Velocity.DEFAULT_STEPS_PER_SECOND;
+        this.bounces = 0;
+    }
+
+    @Override
+    public void step() {
+        if (!this.isInScreen) {
+            this.isInScreen = isBallInScreen(this.ball);
         }
-        while (true) {
-            ball.moveOneStep();
-            DrawSurface d = gui.getDrawSurface();
-            ball.drawOn(d);
-            gui.show(d);
-            if (ball.getX() <= LEFT_BORDER + ball.getSize() || ball.getX() >= RIGHT_BORDER - ball.getSize()) {
-                Velocity current = ball.getVelocity();
-                Velocity opposite = new Velocity(-current.getDx(), current.getDy());
-                ball.setVelocity(opposite);
-            }
-            if (ball.getY() <= TOP_BORDER + ball.getSize() || ball.getY() >= BOTTOM_BORDER - ball.getSize()) {
-                Velocity current = ball.getVelocity();
-                Velocity opposite = new Velocity(current.getDx(), -current.getDy());
-                ball.setVelocity(opposite);
-            }
-            sleeper.sleepFor(50);  // wait for 50 milliseconds.
+        this.previous.setLocation(this.ball.getCenterX(), this.ball.getCenterY());
+        this.ball.moveOneStep();
+        if (!this.isInScreen) {
+            return;
+        }
+        Ball b = this.ball;
+        if (b.getX() <= LEFT_BORDER + b.getSize() || b.getX() >= RIGHT_BORDER - b.getSize()) {
+            b.reflectHorizontally();
+            this.bounces++;
         }
+        if (b.getY() <= TOP_BORDER + b.getSize() || b.getY() >= BOTTOM_BORDER - b.getSize()) {
+            b.reflectVertically();
+            this.bounces++;
+        }
+    }
+
+    @Override
+    public void drawOn(DrawSurface d) {
+        this.ball.drawOn(d);
+    }
+
+    @Override
+    public void drawOn(DrawSurface d, double alpha) {
+        d.setColor(this.ball.getColor());
+        d.fillCircle((int) (this.previous.getX() + alpha * (this.ball.getCenterX() - this.previous.getX())),
+                (int) (this.previous.getY() + alpha * (this.ball.getCenterY() - this.previous.getY())),
+                this.ball.getSize());
+    }
+
+    @Override
+    public void setStepsPerSecond(double newStepsPerSecond) {
+        Velocity v = this.ball.getVelocity();
+        this.ball.setVelocity(Velocity.fromUnitsPerSecond(v.getDxPerSecond(this.stepsPerSecond),
+                v.getDyPerSecond(this.stepsPerSecond), newStepsPerSecond));
+        this.stepsPerSecond = newStepsPerSecond;
+    }
+
+    @Override
+    public long getBounces() {
+        return this.bounces;
     }
 
     /**
      * The main method which gets 4 double numbers as command line arguments and
-     * activates the drawAnimation method.
+     * runs the animation.
      *
-     * @param args command line arguments.
+     * @param args command line arguments (and the --headless=ticks option).
      */
     public static void main(String[] args) {
+        RunOptions options = new RunOptions(args);
+        args = options.getArgs();
         if (args.length != 4) {
             System.out.println("invalid input!");
         } else {
@@ -89,7 +121,8 @@ public class BouncingBallAnimation {
                 double dx = Double.parseDouble(args[2]);
                 double dy = Double.parseDouble(args[3]);
                 Point start = new Point(Double.parseDouble(args[0]), Double.parseDouble(args[1]));
-                drawAnimation(start, dx, dy);
+                AnimationRunner.run(new BouncingBallAnimation(start, dx, dy), "BouncingBallAnimation", WIDTH, HEIGHT,
+                        options);
             } catch (Exception e) {
                 System.out.println("invalid input!");
             }
@@ -0,0 +1,200 @@
+// ID - 212945760
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import biuoop.DrawSurface;
+
+/**
+ * The BouncingBallsScene class - a simulation of the balls of a BallStore, bouncing in their frames.
+ * Every frame of the scene, the background frames are drawn first (in their order) and then the balls - either
+ * through the DrawSurface, or into an image with a RasterBallRenderer (when the scene has one). With a renderer,
+ * the frames and the obstacles can be cached once as its background (cacheBackground), and then every frame only
+ * the parts of the image around the balls that moved are drawn again. The balls of every step can also be recorded
+ * to a file with a BallRecorder, and published to a SharedWorld.
+ *
+ * @author Ori Dabush
+ */
+public class BouncingBallsScene implements Simulation {
+
+    private BallStore store;
+    private Frame[] backgrounds;
+    private RasterBallRenderer renderer;
+    private BallRecorder recorder;
+    private SharedWorld world;
+
+    /**
+     * A constructor that creates a scene from a ball store and the frames to draw behind the balls.
+     *
+     * @param store       the ball store.
+     * @param backgrounds the frames to draw behind the balls (can be empty).
+     */
+    public BouncingBallsScene(BallStore store, Frame... backgrounds) {
+        this.store = store;
+        this.backgrounds = backgrounds;
+        this.renderer = null;
+        this.recorder = null;
+        this.world = null;
+    }
+
+    /**
+     * A method that sets the renderer that draws the scene into an image.
+     *
+     * @param rasterRenderer the renderer (null to draw the scene through the DrawSurface).
+     */
+    public void setRenderer(RasterBallRenderer rasterRenderer) {
+        this.renderer = rasterRenderer;
+    }
+
+    /**
+     * A method that draws the static parts of the scene - the background frames and the obstacles - once, into the
+     * cached background of its renderer (see RasterBallRenderer.cacheBackground). The obstacles are drawn behind
+     * the balls from now on.
+     *
+     * @throws RuntimeException if the scene doesn't have a renderer.
+     */
+    public void cacheBackground() throws RuntimeException {
+        if (this.renderer == null) {
+            throw new RuntimeException("input is invalid. the scene doesn't have a renderer.");
+        }
+        LineIndex obstacles = this.store.getObstacles();
+        Line[] lines = new Line[(obstacles == null) ? 0 : obstacles.size()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = obstacles.getLine(i);
+        }
+        this.renderer.cacheBackground(this.backgrounds, lines);
+    }
+
+    /**
+     * A method that starts recording the balls of the scene to a file - the current state is the first frame, and
+     * every step adds a frame. The recording is closed when the program exits (after the frame that is being
+     * recorded, if a step is recording one - see BallRecorder.close).
+     *
+     * @param path the path of the file.
+     * @throws IOException if the file can't be written.
+     */
+    public void record(String path) throws IOException {
+        final BallRecorder r = new BallRecorder(path, this.store, BallRecorder.DEFAULT_KEYFRAME_INTERVAL,
+                this.backgrounds);
+        r.record();
+        this.recorder = r;
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                try {
+                    r.close();
+                } catch (IOException e) {
+                    System.out.println("can't close the recording: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * A method that starts publishing the balls of the scene to a shared world - the current state is published
+     * now, and again after every step.
+     *
+     * @param sharedWorld the world (null to stop publishing).
+     */
+    public void share(SharedWorld sharedWorld) {
+        this.world = sharedWorld;
+        if (sharedWorld != null) {
+            sharedWorld.publish(this.store);
+        }
+    }
+
+    /**
+     * A method to get the ball store of the scene.
+     *
+     * @return the ball store.
+     */
+    public BallStore getStore() {
+        return this.store;
+    }
+
+    /**
+     * A method to get the frames which are drawn behind the balls.
+     *
+     * @return the background frames.
+     */
+    public Frame[] getBackgrounds() {
+        return this.backgrounds;
+    }
+
+    /**
+     * A method that moves the scene to its state at a time (see BallStore.seek).
+     *
+     * @param t the time (in steps).
+     */
+    public void seek(double t) {
+        this.store.seek(t);
+    }
+
+    @Override
+    public void step() {
+        this.store.step();
+        if (this.recorder != null) {
+            try {
+                this.recorder.record();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (this.world != null) {
+            this.world.publish(this.store);
+        }
+    }
+
+    @Override
+    public void drawOn(DrawSurface d) {
+        if (this.renderer != null) {
+            this.renderer.drawOn(d, this.store, this.backgrounds, 1);
+        } else {
+            for (Frame f : this.backgrounds) {
+                f.drawFrame(d);
+            }
+            this.store.drawOn(d);
+        }
+        this.drawObstacles(d);
+    }
+
+    @Override
+    public void drawOn(DrawSurface d, double alpha) {
+        // the store starts keeping the previous centers the first time it is drawn between steps.
+        this.store.enableInterpolation();
+        if (this.renderer != null) {
+            this.renderer.drawOn(d, this.store, this.backgrounds, alpha);
+        } else {
+            for (Frame f : this.backgrounds) {
+                f.drawFrame(d);
+            }
+            this.store.drawOn(d, alpha);
+        }
+        this.drawObstacles(d);
+    }
+
+    /**
+     * A method that draws the obstacles of the store (in black), unless they are in the cached background.
+     *
+     * @param d the DrawSurface.
+     */
+    private void drawObstacles(DrawSurface d) {
+        LineIndex obstacles = this.store.getObstacles();
+        if (obstacles == null || (this.renderer != null && this.renderer.isBackgroundCached())) {
+            return;
+        }
+        d.setColor(Color.BLACK);
+        obstacles.drawOn(d);
+    }
+
+    @Override
+    public void setStepsPerSecond(double stepsPerSecond) {
+        this.store.setStepsPerSecond(stepsPerSecond);
+    }
+
+    @Override
+    public long getBounces() {
+        return this.store.getBounces();
+    }
+}
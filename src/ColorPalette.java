@@ -0,0 +1,163 @@
+// ID - 212945760
+
+import java.awt.Color;
+import java.util.SplittableRandom;
+
+/**
+ * The ColorPalette class - the colors of the balls. Instead of creating a new Color for every random color, the
+ * palette keeps a fixed set of Color instances (16 levels of red, green and blue, from 0 to 254 - not until 255 to
+ * avoid very bright colors which won't be seen), and random colors are picked from it, so picking a color never
+ * allocates.
+ * A color different than a given color (like the color of a frame) is picked in one step - a random index among
+ * the other colors of the palette, without trying again when the color is the same.
+ *
+ * @author Ori Dabush
+ */
+public class ColorPalette {
+
+    /**
+     * The number of levels of every channel, and the number of colors in the palette.
+     */
+    private static final int LEVELS = 16;
+    public static final int SIZE = LEVELS * LEVELS * LEVELS;
+
+    /**
+     * The highest value of a channel.
+     */
+    private static final int MAX_CHANNEL = 254;
+
+    /**
+     * constants to build an RGB value (like Color.getRGB returns) from the red, green and blue values.
+     */
+    private static final int OPAQUE = 0xFF000000;
+    private static final int RED_SHIFT = 16;
+    private static final int GREEN_SHIFT = 8;
+    private static final int CHANNEL_MASK = 0xFF;
+
+    private static final Color[] COLORS = new Color[SIZE];
+    private static final int[] RGB = new int[SIZE];
+    private static final int[] LEVEL_OF = new int[CHANNEL_MASK + 1];
+
+    static {
+        for (int c = 0; c <= CHANNEL_MASK; c++) {
+            LEVEL_OF[c] = -1;
+        }
+        for (int l = 0; l < LEVELS; l++) {
+            LEVEL_OF[level(l)] = l;
+        }
+        for (int i = 0; i < SIZE; i++) {
+            RGB[i] = OPAQUE | (level(i / (LEVELS * LEVELS)) << RED_SHIFT) | (level(i / LEVELS % LEVELS) << GREEN_SHIFT)
+                    | level(i % LEVELS);
+            COLORS[i] = new Color(RGB[i]);
+        }
+    }
+
+    /**
+     * A method that calculates the value of a channel level.
+     *
+     * @param l the level.
+     * @return the value of the channel.
+     */
+    private static int level(int l) {
+        return l * MAX_CHANNEL / (LEVELS - 1);
+    }
+
+    /**
+     * A method to get a color of the palette.
+     *
+     * @param index the index of the color.
+     * @return the color.
+     */
+    public static Color get(int index) {
+        return COLORS[index];
+    }
+
+    /**
+     * A method to get the RGB value of a color of the palette.
+     *
+     * @param index the index of the color.
+     * @return the RGB value of the color.
+     */
+    public static int rgb(int index) {
+        return RGB[index];
+    }
+
+    /**
+     * A method that finds the index of a color in the palette.
+     *
+     * @param rgb the RGB value of the color.
+     * @return the index of the color, -1 if it is not in the palette.
+     */
+    public static int indexOf(int rgb) {
+        if ((rgb & OPAQUE) != OPAQUE) {
+            return -1;
+        }
+        int r = LEVEL_OF[(rgb >> RED_SHIFT) & CHANNEL_MASK], g = LEVEL_OF[(rgb >> GREEN_SHIFT) & CHANNEL_MASK];
+        int b = LEVEL_OF[rgb & CHANNEL_MASK];
+        if (r < 0 || g < 0 || b < 0) {
+            return -1;
+        }
+        return (r * LEVELS + g) * LEVELS + b;
+    }
+
+    /**
+     * A method to get the Color of an RGB value - the instance of the palette if the color is in it (so it doesn't
+     * allocate), and a new Color otherwise.
+     *
+     * @param rgb the RGB value.
+     * @return the color.
+     */
+    public static Color colorOf(int rgb) {
+        int index = indexOf(rgb);
+        return (index < 0) ? new Color(rgb) : COLORS[index];
+    }
+
+    /**
+     * A method that picks the index of a random color of the palette which is different than a given color.
+     *
+     * @param other  the RGB value of the color to avoid.
+     * @param random the random source.
+     * @return the index of the new color.
+     */
+    public static int randomIndexOtherThan(int other, SplittableRandom random) {
+        int excluded = indexOf(other);
+        if (excluded < 0) {
+            return random.nextInt(SIZE);
+        }
+        // picking one of the other colors, and skipping over the excluded color.
+        int index = random.nextInt(SIZE - 1);
+        return (index >= excluded) ? index + 1 : index;
+    }
+
+    /**
+     * A method that picks a random color of the palette.
+     *
+     * @param random the random source.
+     * @return the color.
+     */
+    public static Color randomColor(SplittableRandom random) {
+        return COLORS[random.nextInt(SIZE)];
+    }
+
+    /**
+     * A method that picks a random color of the palette which is different than a given color.
+     *
+     * @param other  the color to avoid.
+     * @param random the random source.
+     * @return the new color.
+     */
+    public static Color randomColorOtherThan(Color other, SplittableRandom random) {
+        return COLORS[randomIndexOtherThan(other.getRGB(), random)];
+    }
+
+    /**
+     * A method that picks the RGB value of a random color of the palette which is different than a given color.
+     *
+     * @param other  the RGB value of the color to avoid.
+     * @param random the random source.
+     * @return the RGB value of the new color.
+     */
+    public static int randomRgbOtherThan(int other, SplittableRandom random) {
+        return RGB[randomIndexOtherThan(other, random)];
+    }
+}
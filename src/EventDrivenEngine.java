@@ -0,0 +1,310 @@
+// ID - 212945760
+
+import java.util.SplittableRandom;
+
+import biuoop.DrawSurface;
+
+/**
+ * The EventDrivenEngine class - a simulation of bouncing balls which advances from one wall impact to the next,
+ * instead of moving every ball in every step.
+ * Between two impacts a ball moves on a straight line, so the engine keeps for every ball only its place at the
+ * time of its last impact and its velocity, and predicts the time it will hit a border of its frame next (with
+ * WallReflection). The predicted impacts are kept in an ImpactQueue, and advancing the engine to a time handles
+ * only the impacts before it - a ball is touched only when it bounces. The place of every ball at any time after
+ * the last handled impact is calculated from its line, so the balls can be drawn at any requested time.
+ * A ball reflects and changes its color on an impact like in BallStore (with continuous collision detection). On
+ * an axis a ball is not between the borders of (it is bigger than its frame, or it started out of it), the ball
+ * doesn't reflect. Balls don't collide with each other.
+ *
+ * @author Ori Dabush
+ */
+public class EventDrivenEngine implements Simulation {
+
+    private int size;
+    private double[] x;
+    private double[] y;
+    private double[] since;
+    private double[] dx;
+    private double[] dy;
+    private int[] radius;
+    private int[] color;
+    private int[] frameColor;
+
+    /**
+     * The borders of the centers of the balls - the borders of their frames, moved in by their radii.
+     */
+    private double[] lowX;
+    private double[] highX;
+    private double[] lowY;
+    private double[] highY;
+
+    /**
+     * The predicted impact time of every ball on every axis.
+     */
+    private double[] impactX;
+    private double[] impactY;
+    private ImpactQueue queue;
+
+    private Frame[] backgrounds;
+    private SplittableRandom rand;
+    private double time;
+    private long ticks;
+    private double stepsPerSecond;
+    private long bounces;
+
+    /**
+     * A constructor that creates an engine with the balls of a store (in their current state). The time of the
+     * engine is measured in steps of the store (the velocities are the distances the balls move in a step).
+     *
+     * @param store       the store.
+     * @param backgrounds the frames to draw behind the balls.
+     */
+    public EventDrivenEngine(BallStore store, Frame... backgrounds) {
+        int n = store.size();
+        this.size = n;
+        this.x = new double[n];
+        this.y = new double[n];
+        this.since = new double[n];
+        this.dx = new double[n];
+        this.dy = new double[n];
+        this.radius = new int[n];
+        this.color = new int[n];
+        this.frameColor = new int[n];
+        this.lowX = new double[n];
+        this.highX = new double[n];
+        this.lowY = new double[n];
+        this.highY = new double[n];
+        this.impactX = new double[n];
+        this.impactY = new double[n];
+        this.queue = new ImpactQueue(n);
+        this.backgrounds = backgrounds;
+        this.rand = RandomStreams.newRandom();
+        this.time = 0;
+        this.ticks = 0;
+        this.stepsPerSecond = store.getStepsPerSecond();
+        this.bounces = 0;
+        for (int i = 0; i < n; i++) {
+            Frame f = store.getFrame(store.getFrameId(i));
+            int r = store.getRadius(i);
+            this.x[i] = store.getX(i);
+            this.y[i] = store.getY(i);
+            this.dx[i] = store.getDx(i);
+            this.dy[i] = store.getDy(i);
+            this.radius[i] = r;
+            this.color[i] = store.getColor(i);
+            this.frameColor[i] = f.getColor().getRGB();
+            this.lowX[i] = f.getLeftBorder() + r;
+            this.highX[i] = f.getRightBorder() - r;
+            this.lowY[i] = f.getTopBorder() + r;
+            this.highY[i] = f.getBottomBorder() - r;
+            this.predict(i);
+        }
+    }
+
+    /**
+     * A method to get the number of balls.
+     *
+     * @return the number of balls.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * A method to get the time of the engine - the time of the last handled impact is not after it.
+     *
+     * @return the time (in steps).
+     */
+    public double getTime() {
+        return this.time;
+    }
+
+    /**
+     * A method that predicts the next impact of a ball, from its place at its last impact.
+     *
+     * @param i the index of the ball.
+     */
+    private void predict(int i) {
+        this.impactX[i] = this.since[i] + impactAfter(this.x[i], this.dx[i], this.lowX[i], this.highX[i]);
+        this.impactY[i] = this.since[i] + impactAfter(this.y[i], this.dy[i], this.lowY[i], this.highY[i]);
+        this.queue.setTime(i, Math.min(this.impactX[i], this.impactY[i]));
+    }
+
+    /**
+     * A method that calculates the time until a ball hits a wall on one axis.
+     *
+     * @param start    the place of the center.
+     * @param velocity the velocity on the axis.
+     * @param low      the low wall.
+     * @param high     the high wall.
+     * @return the time until the ball hits a wall, infinity if it never does.
+     */
+    private static double impactAfter(double start, double velocity, double low, double high) {
+        if (!WallReflection.isBetween(start, low, high)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return WallReflection.timeOfImpact(start, velocity, low, high);
+    }
+
+    /**
+     * A method that advances the engine to a time, handling all the impacts before it (and at it). A time before
+     * the time of the engine is ignored - the engine can't go back.
+     *
+     * @param t the time (in steps).
+     */
+    public void advanceTo(double t) {
+        while (this.queue.peekTime() <= t) {
+            this.handleImpact(this.queue.peekBall());
+        }
+        this.time = Math.max(this.time, t);
+    }
+
+    /**
+     * A method that handles the impact of a ball - moves it to the wall, reflects it and predicts its next impact.
+     *
+     * @param i the index of the ball.
+     */
+    private void handleImpact(int i) {
+        double t = this.queue.getTime(i);
+        boolean hitX = this.impactX[i] <= t, hitY = this.impactY[i] <= t;
+        this.x[i] = hitX ? ((this.dx[i] > 0) ? this.highX[i] : this.lowX[i]) : this.x[i] + this.dx[i] * (t
+                - this.since[i]);
+        this.y[i] = hitY ? ((this.dy[i] > 0) ? this.highY[i] : this.lowY[i]) : this.y[i] + this.dy[i] * (t
+                - this.since[i]);
+        this.since[i] = t;
+        if (hitX) {
+            this.dx[i] = -this.dx[i];
+            this.bounces++;
+        }
+        if (hitY) {
+            this.dy[i] = -this.dy[i];
+            this.bounces++;
+        }
+        this.color[i] = ColorPalette.randomRgbOtherThan(this.frameColor[i], this.rand);
+        this.predict(i);
+    }
+
+    /**
+     * A method that moves the engine to a time, before or after its time, in closed form (with WallReflection) -
+     * every ball is moved to its state at the time, and its next impact is predicted again.
+     *
+     * @param t the time (in steps).
+     */
+    public void seek(double t) {
+        for (int i = 0; i < this.size; i++) {
+            double steps = t - this.since[i];
+            double nx = WallReflection.positionAt(this.x[i], this.dx[i], steps, this.lowX[i], this.highX[i]);
+            double ny = WallReflection.positionAt(this.y[i], this.dy[i], steps, this.lowY[i], this.highY[i]);
+            this.dx[i] = WallReflection.velocityAt(this.x[i], this.dx[i], steps, this.lowX[i], this.highX[i]);
+            this.dy[i] = WallReflection.velocityAt(this.y[i], this.dy[i], steps, this.lowY[i], this.highY[i]);
+            this.x[i] = nx;
+            this.y[i] = ny;
+            this.since[i] = t;
+            this.predict(i);
+        }
+        this.time = t;
+        this.ticks = (long) Math.ceil(t);
+    }
+
+    /**
+     * A method to get the x value of the center of a ball at a time which is not before the time of the engine
+     * (and not after the next impact).
+     *
+     * @param i the index of the ball.
+     * @param t the time.
+     * @return the x value of the center.
+     */
+    public double getX(int i, double t) {
+        return this.x[i] + this.dx[i] * (Math.min(t, this.impactX[i]) - this.since[i]);
+    }
+
+    /**
+     * A method to get the y value of the center of a ball at a time which is not before the time of the engine
+     * (and not after the next impact).
+     *
+     * @param i the index of the ball.
+     * @param t the time.
+     * @return the y value of the center.
+     */
+    public double getY(int i, double t) {
+        return this.y[i] + this.dy[i] * (Math.min(t, this.impactY[i]) - this.since[i]);
+    }
+
+    /**
+     * A method that draws the balls at the given time - it advances the engine to it first.
+     *
+     * @param d the surface.
+     * @param t the time (in steps).
+     */
+    public void drawAt(DrawSurface d, double t) {
+        this.advanceTo(t);
+        for (Frame f : this.backgrounds) {
+            f.drawFrame(d);
+        }
+        int current = 0;
+        for (int i = 0; i < this.size; i++) {
+            if (i == 0 || this.color[i] != current) {
+                current = this.color[i];
+                d.setColor(ColorPalette.colorOf(current));
+            }
+            d.fillCircle((int) this.getX(i, this.time), (int) this.getY(i, this.time), this.radius[i]);
+        }
+    }
+
+    /**
+     * A method that advances the time of the simulation by one step. The impacts are handled only when the balls
+     * are drawn (or when advanceTo is called), so a step costs nothing.
+     */
+    @Override
+    public void step() {
+        this.ticks++;
+    }
+
+    @Override
+    public void drawOn(DrawSurface d) {
+        this.drawAt(d, this.ticks);
+    }
+
+    /**
+     * A method that draws the balls between the last step and the one before it (like the other simulations,
+     * which draw between their previous and current states).
+     *
+     * @param d     the DrawSurface.
+     * @param alpha the part of the step (0 is the time of the step before the last step, 1 is the time of the
+     *              last step).
+     */
+    @Override
+    public void drawOn(DrawSurface d, double alpha) {
+        this.drawAt(d, Math.max(this.ticks - 1 + alpha, 0));
+    }
+
+    /**
+     * A method that sets the number of steps the simulation makes in a second. The balls are moved to the current
+     * time, their velocities are changed so they move the same distance in a second, and the time is measured in
+     * the new steps.
+     *
+     * @param newStepsPerSecond the number of steps in a second.
+     */
+    @Override
+    public void setStepsPerSecond(double newStepsPerSecond) {
+        double factor = this.stepsPerSecond / newStepsPerSecond;
+        for (int i = 0; i < this.size; i++) {
+            this.x[i] = this.getX(i, this.time);
+            this.y[i] = this.getY(i, this.time);
+            this.since[i] = this.time / factor;
+            this.dx[i] *= factor;
+            this.dy[i] *= factor;
+        }
+        this.time /= factor;
+        this.ticks = (long) Math.floor(this.time);
+        this.stepsPerSecond = newStepsPerSecond;
+        for (int i = 0; i < this.size; i++) {
+            this.predict(i);
+        }
+    }
+
+    @Override
+    public long getBounces() {
+        return this.bounces;
+    }
+}
@@ -3,19 +3,12 @@
 import biuoop.DrawSurface;
 
 import java.awt.Color;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * The Frame class, which describing a frame. it will be used to create frames and draw stuff insitd of them.
  */
 public class Frame {
-    /**
-     * constants to generate random colors - it's not until 256 to avoid very bright color's which won't be seen.
-     */
-    private static final int MAX_COLOR_R = 255;
-    private static final int MAX_COLOR_G = 255;
-    private static final int MAX_COLOR_B = 255;
-
     /**
      * The members of the class.
      */
@@ -23,6 +16,11 @@ public class Frame {
     private Point bottomRight;
     private Color color;
 
+    /**
+     * The random source of the frame (for the places and colors of its balls).
+     */
+    private SplittableRandom random;
+
     /**
      * Constructor that creates a frame from 2 points - top left and bottom right and color.
      *
@@ -34,6 +32,7 @@ public class Frame {
         this.topLeft = new Point(topLeft);
         this.bottomRight = new Point(bottomRight);
         this.color = color;
+        this.random = RandomStreams.newRandom();
     }
 
     /**
@@ -49,6 +48,7 @@ public class Frame {
         this.topLeft = new Point(x1, y1);
         this.bottomRight = new Point(x2, y2);
         this.color = color;
+        this.random = RandomStreams.newRandom();
     }
 
     /**
@@ -125,19 +125,6 @@ public class Frame {
         return this.color;
     }
 
-    /**
-     * A method to create a random color.
-     *
-     * @return the new color.
-     */
-    private static Color createRandomColor() {
-        Random rand = new Random();
-        int r = rand.nextInt(MAX_COLOR_R);
-        int g = rand.nextInt(MAX_COLOR_G);
-        int b = rand.nextInt(MAX_COLOR_B);
-        return new Color(r, g, b);
-    }
-
     /**
      * A method to create a ball in the frame, using a given size.
      *
@@ -149,19 +136,86 @@ public class Frame {
         if (size / 2 >= Math.max(this.getWidth(), this.getHeight())) {
             throw new RuntimeException("input is invalid. a ball is bigger than the frame's size.");
         }
-        Random rand = new Random();
-        int x = rand.nextInt((int) (this.getRightBorder() - 2 * size - this.getLeftBorder()))
+        int x = this.random.nextInt((int) (this.getRightBorder() - 2 * size - this.getLeftBorder()))
                 + (int) this.getLeftBorder() + size;
-        int y = rand.nextInt((int) (this.getBottomBorder() - 2 * size - this.getTopBorder()))
+        int y = this.random.nextInt((int) (this.getBottomBorder() - 2 * size - this.getTopBorder()))
                 + (int) this.getTopBorder() + size;
-        Point center = new Point(x, y);
-        Ball ball = new Ball(center, size, createRandomColor());
-        this.checkColor(ball);
+        return this.createBallInFrame(new Point(x, y), size);
+    }
+
+    /**
+     * A method to create a ball in the frame, using a given center (like the one a FrameRegionSampler picks) and
+     * size.
+     *
+     * @param center the center of the ball.
+     * @param size   the given size.
+     * @return the ball that has been created.
+     */
+    public Ball createBallInFrame(Point center, int size) {
+        Ball ball = new Ball(center, size, ColorPalette.randomColorOtherThan(this.color, this.random));
         ball.setFrame(this);
         ball.createVelocity(this);
         return ball;
     }
 
+    /**
+     * A method to create many balls in the frame at once, without overlaps (see PoissonDiskSpawner), and add them
+     * to a store. Like createBallInFrame, every ball gets a random color other than the frame's color and the
+     * velocity of createVelocity. Large numbers of balls are placed on several threads.
+     *
+     * @param store the store to add the balls to (the frame is added to it too).
+     * @param sizes the sizes (radii) of the balls.
+     * @return the index in the store of the first ball (the balls are added in the order of the sizes).
+     * @throws RuntimeException if a ball is bigger than the frame, or there's no room for one of the balls.
+     */
+    public int spawnBalls(BallStore store, int... sizes) throws RuntimeException {
+        PoissonDiskSpawner spawner = new PoissonDiskSpawner(this, sizes, this.random.split());
+        spawner.place();
+        double[] dx = new double[sizes.length], dy = new double[sizes.length];
+        Ball.createVelocities(this, sizes, dx, dy);
+        int id = store.addFrame(this), first = store.size(), rgb = this.color.getRGB();
+        for (int i = 0; i < sizes.length; i++) {
+            store.add(spawner.getX(i), spawner.getY(i), sizes[i], ColorPalette.randomRgbOtherThan(rgb, this.random),
+                    dx[i], dy[i], id);
+        }
+        return first;
+    }
+
+    /**
+     * A method to create a line in the frame (an obstacle for the balls), with a random middle point, angle and
+     * length.
+     *
+     * @param maxLength the maximal length of the line.
+     * @return the line that has been created.
+     */
+    public Line createLineInFrame(int maxLength) {
+        double cx = this.getLeftBorder() + this.random.nextDouble() * this.getWidth();
+        double cy = this.getTopBorder() + this.random.nextDouble() * this.getHeight();
+        double angle = this.random.nextDouble() * Math.PI, half = (1 + this.random.nextDouble() * maxLength) / 2;
+        double hx = Math.cos(angle) * half, hy = Math.sin(angle) * half;
+        return new Line(this.clampX(cx - hx), this.clampY(cy - hy), this.clampX(cx + hx), this.clampY(cy + hy));
+    }
+
+    /**
+     * A method that clamps an x value to the borders of the frame.
+     *
+     * @param v the x value.
+     * @return the closest x value in the frame.
+     */
+    private double clampX(double v) {
+        return Math.max(this.getLeftBorder(), Math.min(this.getRightBorder(), v));
+    }
+
+    /**
+     * A method that clamps a y value to the borders of the frame.
+     *
+     * @param v the y value.
+     * @return the closest y value in the frame.
+     */
+    private double clampY(double v) {
+        return Math.max(this.getTopBorder(), Math.min(this.getBottomBorder(), v));
+    }
+
     /**
      * A method to adjust the ball to the frame, which means to make the ball stay in the frame.
      *
@@ -170,18 +224,46 @@ public class Frame {
     public void adjustBallToFrame(Ball ball) {
         if (ball.getX() <= this.getLeftBorder() + ball.getSize()
                 || this.getRightBorder() - ball.getSize() <= ball.getX()) {
-            Velocity current = ball.getVelocity();
-            Velocity opposite = new Velocity(-current.getDx(), current.getDy());
-            ball.setVelocity(opposite);
-            ball.setColor(createRandomColor());
+            ball.reflectHorizontally();
+            ball.setColor(ColorPalette.randomColorOtherThan(this.color, this.random));
         }
         if (ball.getY() <= this.getTopBorder() + ball.getSize()
                 || this.getBottomBorder() - ball.getSize() <= ball.getY()) {
-            Velocity current = ball.getVelocity();
-            Velocity opposite = new Velocity(current.getDx(), -current.getDy());
-            ball.setVelocity(opposite);
-            ball.setColor(createRandomColor());
+            ball.reflectVertically();
+            ball.setColor(ColorPalette.randomColorOtherThan(this.color, this.random));
+        }
+    }
+
+    /**
+     * A method to move a ball one step in the frame with continuous collision detection - instead of moving the
+     * ball and then checking if it is over a border (like moveOneStep and adjustBallToFrame do), the ball reflects
+     * at the moment it hits a border and keeps the rest of its motion in the step, so a fast ball can't skip over
+     * a border. On an axis the ball isn't between the borders of (it is bigger than the frame, or it is out of it),
+     * it is moved and adjusted like in adjustBallToFrame.
+     *
+     * @param ball the ball we want to move.
+     * @return the number of times the ball hit the borders.
+     */
+    public long moveBallInFrame(Ball ball) {
+        double x = ball.getCenterX(), y = ball.getCenterY(), dx = ball.getDx(), dy = ball.getDy();
+        double low = this.getLeftBorder() + ball.getSize(), high = this.getRightBorder() - ball.getSize();
+        long hitsX = WallReflection.stepHits(x, dx, low, high);
+        x = WallReflection.step(x, dx, low, high);
+        low = this.getTopBorder() + ball.getSize();
+        high = this.getBottomBorder() - ball.getSize();
+        long hitsY = WallReflection.stepHits(y, dy, low, high);
+        y = WallReflection.step(y, dy, low, high);
+        ball.setCenter(x, y);
+        if ((hitsX & 1) != 0) {
+            ball.reflectHorizontally();
+        }
+        if ((hitsY & 1) != 0) {
+            ball.reflectVertically();
+        }
+        if (hitsX != 0 || hitsY != 0) {
+            ball.setColor(ColorPalette.randomColorOtherThan(this.color, this.random));
         }
+        return Math.abs(hitsX) + Math.abs(hitsY);
     }
 
     /**
@@ -190,8 +272,8 @@ public class Frame {
      * @param ball the given ball.
      */
     public void checkColor(Ball ball) {
-        while (this.color.equals(ball.getColor())) {
-            ball.setColor(createRandomColor());
+        if (this.color.equals(ball.getColor())) {
+            ball.setColor(ColorPalette.randomColorOtherThan(this.color, this.random));
         }
     }
 }
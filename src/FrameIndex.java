@@ -0,0 +1,223 @@
+// ID - 212945760
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The FrameIndex class - an R-tree over the bounds of a set of frames, which finds the frames that contain a point
+ * or intersect a rectangle without checking every frame.
+ * The tree is built once (packed bottom up with the sort-tile-recursive method: the frames are sorted into
+ * vertical slices by the x value of their centers, and every slice is sorted by the y value), and it is kept in
+ * flat arrays - every node has a bounding box and a range of children, which are nodes of the level below or,
+ * in the leaves, frames. The bounds of a frame are closed (a point on the border is in the frame), like in
+ * Ball.isBallInFrame.
+ *
+ * @author Ori Dabush
+ */
+public class FrameIndex {
+
+    /**
+     * The maximal number of children of a node.
+     */
+    private static final int NODE_SIZE = 8;
+
+    private Frame[] frames;
+
+    /**
+     * The nodes - their bounding boxes, and the index of their first child and the number of children. The leaves
+     * are the first nodes, and the root is the last node.
+     */
+    private double[] left;
+    private double[] top;
+    private double[] right;
+    private double[] bottom;
+    private int[] firstChild;
+    private int[] childCount;
+    private int leaves;
+    private int root;
+
+    /**
+     * A constructor that creates an index of the given frames.
+     *
+     * @param frames the frames.
+     */
+    public FrameIndex(Frame... frames) {
+        this.frames = sortTiles(frames.clone());
+        int n = this.frames.length, level = (Math.max(n, 1) + NODE_SIZE - 1) / NODE_SIZE, nodes = level;
+        while (level > 1) {
+            level = (level + NODE_SIZE - 1) / NODE_SIZE;
+            nodes += level;
+        }
+        this.left = new double[nodes];
+        this.top = new double[nodes];
+        this.right = new double[nodes];
+        this.bottom = new double[nodes];
+        this.firstChild = new int[nodes];
+        this.childCount = new int[nodes];
+        // the leaves - groups of frames which are next to each other in the tiles.
+        int count = 0;
+        for (int i = 0; i < n; i += NODE_SIZE) {
+            int size = Math.min(NODE_SIZE, n - i);
+            this.setNode(count++, i, size, true);
+        }
+        if (n == 0) {
+            this.setNode(count++, 0, 0, true);
+        }
+        this.leaves = count;
+        // the levels above the leaves - groups of nodes of the level below.
+        int levelStart = 0, levelSize = count;
+        while (levelSize > 1) {
+            int next = count;
+            for (int i = 0; i < levelSize; i += NODE_SIZE) {
+                this.setNode(count++, levelStart + i, Math.min(NODE_SIZE, levelSize - i), false);
+            }
+            levelStart = next;
+            levelSize = count - next;
+        }
+        this.root = count - 1;
+    }
+
+    /**
+     * A method that sorts frames into tiles - vertical slices of about the square root of the number of leaves
+     * frames, each sorted from top to bottom.
+     *
+     * @param frames the frames.
+     * @return the sorted frames (the same array).
+     */
+    private static Frame[] sortTiles(Frame[] frames) {
+        Arrays.sort(frames, new Comparator<Frame>() {
+            @Override
+            public int compare(Frame a, Frame b) {
+                return Double.compare(a.getLeftBorder() + a.getRightBorder(), b.getLeftBorder() + b.getRightBorder());
+            }
+        });
+        int leafCount = (frames.length + NODE_SIZE - 1) / NODE_SIZE;
+        int sliceSize = NODE_SIZE * (int) Math.ceil(Math.sqrt(leafCount));
+        for (int i = 0; i < frames.length; i += sliceSize) {
+            Arrays.sort(frames, i, Math.min(frames.length, i + sliceSize), new Comparator<Frame>() {
+                @Override
+                public int compare(Frame a, Frame b) {
+                    return Double.compare(a.getTopBorder() + a.getBottomBorder(),
+                            b.getTopBorder() + b.getBottomBorder());
+                }
+            });
+        }
+        return frames;
+    }
+
+    /**
+     * A method that sets a node to a range of children, and its bounding box to the bounding box of the children.
+     *
+     * @param node   the index of the node.
+     * @param first  the index of the first child.
+     * @param count  the number of children.
+     * @param isLeaf true if the children are frames, false if they are nodes.
+     */
+    private void setNode(int node, int first, int count, boolean isLeaf) {
+        this.firstChild[node] = first;
+        this.childCount[node] = count;
+        double l = Double.POSITIVE_INFINITY, t = Double.POSITIVE_INFINITY;
+        double r = Double.NEGATIVE_INFINITY, b = Double.NEGATIVE_INFINITY;
+        for (int c = first; c < first + count; c++) {
+            if (isLeaf) {
+                Frame f = this.frames[c];
+                l = Math.min(l, f.getLeftBorder());
+                t = Math.min(t, f.getTopBorder());
+                r = Math.max(r, f.getRightBorder());
+                b = Math.max(b, f.getBottomBorder());
+            } else {
+                l = Math.min(l, this.left[c]);
+                t = Math.min(t, this.top[c]);
+                r = Math.max(r, this.right[c]);
+                b = Math.max(b, this.bottom[c]);
+            }
+        }
+        this.left[node] = l;
+        this.top[node] = t;
+        this.right[node] = r;
+        this.bottom[node] = b;
+    }
+
+    /**
+     * A method to get the number of frames in the index.
+     *
+     * @return the number of frames.
+     */
+    public int size() {
+        return this.frames.length;
+    }
+
+    /**
+     * A method that finds the frames that contain a point (including their borders).
+     *
+     * @param x      the x value of the point.
+     * @param y      the y value of the point.
+     * @param result the list to add the frames to.
+     */
+    public void framesAt(double x, double y, List<Frame> result) {
+        this.search(this.root, x, y, x, y, result);
+    }
+
+    /**
+     * A method that finds the frames that intersect a rectangle (including the borders of both).
+     *
+     * @param x1     the left border of the rectangle.
+     * @param y1     the top border of the rectangle.
+     * @param x2     the right border of the rectangle.
+     * @param y2     the bottom border of the rectangle.
+     * @param result the list to add the frames to.
+     */
+    public void framesIntersecting(double x1, double y1, double x2, double y2, List<Frame> result) {
+        this.search(this.root, x1, y1, x2, y2, result);
+    }
+
+    /**
+     * A method that checks if any frame contains a point (including its borders).
+     *
+     * @param x the x value of the point.
+     * @param y the y value of the point.
+     * @return true if a frame contains the point, false otherwise.
+     */
+    public boolean isCovered(double x, double y) {
+        return this.search(this.root, x, y, x, y, null);
+    }
+
+    /**
+     * A method that searches the subtree of a node for the frames that intersect a rectangle.
+     *
+     * @param node   the index of the node.
+     * @param x1     the left border of the rectangle.
+     * @param y1     the top border of the rectangle.
+     * @param x2     the right border of the rectangle.
+     * @param y2     the bottom border of the rectangle.
+     * @param result the list to add the frames to, or null to stop at the first frame.
+     * @return true if a frame was found, false otherwise.
+     */
+    private boolean search(int node, double x1, double y1, double x2, double y2, List<Frame> result) {
+        if (this.right[node] < x1 || x2 < this.left[node] || this.bottom[node] < y1 || y2 < this.top[node]) {
+            return false;
+        }
+        boolean found = false;
+        int end = this.firstChild[node] + this.childCount[node];
+        for (int c = this.firstChild[node]; c < end; c++) {
+            if (node < this.leaves) {
+                Frame f = this.frames[c];
+                if (f.getLeftBorder() <= x2 && x1 <= f.getRightBorder() && f.getTopBorder() <= y2
+                        && y1 <= f.getBottomBorder()) {
+                    if (result == null) {
+                        return true;
+                    }
+                    result.add(f);
+                    found = true;
+                }
+            } else if (this.search(c, x1, y1, x2, y2, result)) {
+                if (result == null) {
+                    return true;
+                }
+                found = true;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,302 @@
+// ID - 212945760
+
+import java.awt.Color;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import biuoop.DrawSurface;
+
+/**
+ * The FrameMetrics class - the per-frame performance of an animation loop: the time of the physics steps, of
+ * drawing, of gui.show and how much longer than asked the loop slept (in LatencyHistograms), and the bounces and
+ * the bytes the loop allocated in every frame (in counters).
+ * The loop records a whole frame with one call, which doesn't allocate or lock, so recording costs a few dozen
+ * nanoseconds in a frame. The metrics can be read through JMX (see register) and drawn over the animation as a
+ * HUD (see drawOn).
+ *
+ * @author Ori Dabush
+ */
+public class FrameMetrics implements FrameMetricsMBean {
+
+    /**
+     * The value to give recordFrame when the loop didn't sleep in the frame.
+     */
+    public static final long NO_SLEEP = -1;
+
+    /**
+     * The number of frames the text of the HUD stays the same (so the HUD doesn't allocate in every frame).
+     */
+    private static final int HUD_REFRESH_FRAMES = 10;
+
+    /**
+     * constants for drawing the HUD.
+     */
+    private static final int HUD_X = 10;
+    private static final int HUD_Y = 20;
+    private static final int HUD_FONT_SIZE = 14;
+    private static final int HUD_LINE_HEIGHT = 18;
+
+    private static final double NANOS_PER_MILLISECOND = 1e6;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double P99 = 99;
+
+    private LatencyHistogram physics;
+    private LatencyHistogram draw;
+    private LatencyHistogram show;
+    private LatencyHistogram sleepOvershoot;
+
+    /**
+     * The counters - they are written only by the thread of the loop (with ordered writes).
+     */
+    private AtomicLong frames;
+    private AtomicLong maxFrameNanos;
+    private AtomicLong lastBounces;
+    private AtomicLong totalBounces;
+    private AtomicLong lastAllocated;
+    private AtomicLong totalAllocated;
+
+    /**
+     * The state of the thread of the loop.
+     */
+    private ThreadMXBean threads;
+    private long threadId;
+    private long firstFrameStart;
+    private long lastFrameEnd;
+    private long lastBounceCount;
+    private long lastAllocatedBytes;
+
+    private boolean hudVisible;
+    private String[] hud;
+
+    /**
+     * A constructor that creates empty metrics.
+     */
+    public FrameMetrics() {
+        this.physics = new LatencyHistogram();
+        this.draw = new LatencyHistogram();
+        this.show = new LatencyHistogram();
+        this.sleepOvershoot = new LatencyHistogram();
+        this.frames = new AtomicLong();
+        this.maxFrameNanos = new AtomicLong();
+        this.lastBounces = new AtomicLong();
+        this.totalBounces = new AtomicLong();
+        this.lastAllocated = new AtomicLong(-1);
+        this.totalAllocated = new AtomicLong(-1);
+        this.threads = ManagementFactory.getThreadMXBean();
+        this.threadId = -1;
+        this.hudVisible = false;
+        this.hud = new String[0];
+    }
+
+    /**
+     * A method that registers the metrics in the platform MBean server, with the name
+     * "animation:type=FrameMetrics,name=[name]". If it fails, the animation runs without JMX.
+     *
+     * @param name the name of the animation.
+     */
+    public void register(String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                    new ObjectName("animation:type=FrameMetrics,name=" + ObjectName.quote(name)));
+        } catch (JMException e) {
+            System.err.println("can't register the frame metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A method that sets if the HUD is drawn.
+     *
+     * @param visible true to draw the HUD, false otherwise.
+     */
+    public void setHudVisible(boolean visible) {
+        this.hudVisible = visible;
+    }
+
+    /**
+     * A method that checks if the HUD is drawn.
+     *
+     * @return true if the HUD is drawn, false otherwise.
+     */
+    public boolean isHudVisible() {
+        return this.hudVisible;
+    }
+
+    /**
+     * A method to get the number of bytes the thread of the loop allocated so far.
+     *
+     * @return the number of bytes, -1 if the JVM can't tell.
+     */
+    private long allocatedBytes() {
+        if (this.threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) this.threads).getThreadAllocatedBytes(this.threadId);
+        }
+        return -1;
+    }
+
+    /**
+     * A method that records a frame of the loop. It must be called by the thread of the loop, at the end of every
+     * frame.
+     *
+     * @param physicsNanos        the time of the physics steps of the frame.
+     * @param drawNanos           the time of drawing the frame.
+     * @param showNanos           the time of showing the frame.
+     * @param sleepOvershootNanos how much longer than asked the loop slept, or NO_SLEEP.
+     * @param bounces             the number of bounces of the simulation so far (Simulation.getBounces).
+     */
+    public void recordFrame(long physicsNanos, long drawNanos, long showNanos, long sleepOvershootNanos,
+                            long bounces) {
+        long now = System.nanoTime();
+        if (this.threadId == -1) {
+            // the first frame - everything so far happened before the loop.
+            this.threadId = Thread.currentThread().getId();
+            this.lastAllocatedBytes = this.allocatedBytes();
+            this.firstFrameStart = now - physicsNanos - drawNanos - showNanos - Math.max(sleepOvershootNanos, 0);
+            this.lastFrameEnd = this.firstFrameStart;
+            this.lastBounceCount = bounces;
+        }
+        this.physics.record(physicsNanos);
+        this.draw.record(drawNanos);
+        this.show.record(showNanos);
+        if (sleepOvershootNanos != NO_SLEEP) {
+            this.sleepOvershoot.record(sleepOvershootNanos);
+        }
+        if (now - this.lastFrameEnd > this.maxFrameNanos.get()) {
+            this.maxFrameNanos.lazySet(now - this.lastFrameEnd);
+        }
+        this.lastFrameEnd = now;
+        this.lastBounces.lazySet(bounces - this.lastBounceCount);
+        this.totalBounces.lazySet(this.totalBounces.get() + bounces - this.lastBounceCount);
+        this.lastBounceCount = bounces;
+        long allocated = this.allocatedBytes();
+        if (allocated >= 0 && this.lastAllocatedBytes >= 0) {
+            this.lastAllocated.lazySet(allocated - this.lastAllocatedBytes);
+            this.totalAllocated.lazySet(Math.max(this.totalAllocated.get(), 0) + allocated - this.lastAllocatedBytes);
+        }
+        this.lastAllocatedBytes = allocated;
+        this.frames.lazySet(this.frames.get() + 1);
+    }
+
+    /**
+     * A method that draws the HUD - the main metrics as text in the top left corner of the surface. The text is
+     * calculated again only every few frames.
+     *
+     * @param d the surface to draw on.
+     */
+    public void drawOn(DrawSurface d) {
+        if (this.frames.get() % HUD_REFRESH_FRAMES == 0 || this.hud.length == 0) {
+            this.hud = this.toString().split("\\R");
+        }
+        d.setColor(Color.BLACK);
+        for (int i = 0; i < this.hud.length; i++) {
+            d.drawText(HUD_X, HUD_Y + i * HUD_LINE_HEIGHT, this.hud[i], HUD_FONT_SIZE);
+        }
+    }
+
+    /**
+     * A method that converts a time in nanoseconds to milliseconds.
+     *
+     * @param nanos the time in nanoseconds.
+     * @return the time in milliseconds.
+     */
+    private static double millis(double nanos) {
+        return nanos / NANOS_PER_MILLISECOND;
+    }
+
+    @Override
+    public long getFrames() {
+        return this.frames.get();
+    }
+
+    @Override
+    public double getPhysicsMeanMillis() {
+        return millis(this.physics.getMean());
+    }
+
+    @Override
+    public double getPhysicsP99Millis() {
+        return millis(this.physics.getPercentile(P99));
+    }
+
+    @Override
+    public double getDrawMeanMillis() {
+        return millis(this.draw.getMean());
+    }
+
+    @Override
+    public double getDrawP99Millis() {
+        return millis(this.draw.getPercentile(P99));
+    }
+
+    @Override
+    public double getShowMeanMillis() {
+        return millis(this.show.getMean());
+    }
+
+    @Override
+    public double getShowP99Millis() {
+        return millis(this.show.getPercentile(P99));
+    }
+
+    @Override
+    public double getSleepOvershootMeanMillis() {
+        return millis(this.sleepOvershoot.getMean());
+    }
+
+    @Override
+    public double getSleepOvershootP99Millis() {
+        return millis(this.sleepOvershoot.getPercentile(P99));
+    }
+
+    @Override
+    public double getMaxFrameMillis() {
+        return millis(this.maxFrameNanos.get());
+    }
+
+    @Override
+    public long getBouncesPerFrame() {
+        return this.lastBounces.get();
+    }
+
+    @Override
+    public long getTotalBounces() {
+        return this.totalBounces.get();
+    }
+
+    @Override
+    public double getAllocatedBytesPerSecond() {
+        long allocated = this.totalAllocated.get();
+        if (allocated < 0) {
+            return -1;
+        }
+        return allocated * NANOS_PER_SECOND / Math.max(this.lastFrameEnd - this.firstFrameStart, 1);
+    }
+
+    @Override
+    public long getAllocatedBytesPerFrame() {
+        return this.lastAllocated.get();
+    }
+
+    /**
+     * A method that converts the main metrics to a string, a metric in a line.
+     *
+     * @return the metrics as a string.
+     */
+    @Override
+    public String toString() {
+        return String.format("frames: %d (max %.2f ms)%n"
+                        + "physics: %.3f ms (p99 %.3f ms)%n"
+                        + "draw: %.3f ms (p99 %.3f ms)%n"
+                        + "show: %.3f ms (p99 %.3f ms)%n"
+                        + "sleep overshoot: %.3f ms (p99 %.3f ms)%n"
+                        + "bounces: %d per frame (%d in total)%n"
+                        + "allocated: %d bytes per frame (%.0f bytes per second)",
+                this.getFrames(), this.getMaxFrameMillis(), this.getPhysicsMeanMillis(), this.getPhysicsP99Millis(),
+                this.getDrawMeanMillis(), this.getDrawP99Millis(), this.getShowMeanMillis(), this.getShowP99Millis(),
+                this.getSleepOvershootMeanMillis(), this.getSleepOvershootP99Millis(), this.getBouncesPerFrame(),
+                this.getTotalBounces(), this.getAllocatedBytesPerFrame(), this.getAllocatedBytesPerSecond());
+    }
+}
@@ -0,0 +1,80 @@
+// ID - 212945760
+
+/**
+ * The FrameMetricsMBean interface - the management interface of FrameMetrics, which shows the per-frame
+ * performance of a running animation to JMX clients (like jconsole). All the times are in milliseconds.
+ *
+ * @author Ori Dabush
+ */
+public interface FrameMetricsMBean {
+
+    /**
+     * @return the number of frames that were recorded.
+     */
+    long getFrames();
+
+    /**
+     * @return the mean time of the physics steps of a frame.
+     */
+    double getPhysicsMeanMillis();
+
+    /**
+     * @return the 99th percentile of the time of the physics steps of a frame.
+     */
+    double getPhysicsP99Millis();
+
+    /**
+     * @return the mean time of drawing a frame.
+     */
+    double getDrawMeanMillis();
+
+    /**
+     * @return the 99th percentile of the time of drawing a frame.
+     */
+    double getDrawP99Millis();
+
+    /**
+     * @return the mean time of showing a frame (gui.show).
+     */
+    double getShowMeanMillis();
+
+    /**
+     * @return the 99th percentile of the time of showing a frame (gui.show).
+     */
+    double getShowP99Millis();
+
+    /**
+     * @return the mean time the loop slept more than it asked to.
+     */
+    double getSleepOvershootMeanMillis();
+
+    /**
+     * @return the 99th percentile of the time the loop slept more than it asked to.
+     */
+    double getSleepOvershootP99Millis();
+
+    /**
+     * @return the longest time of a whole frame.
+     */
+    double getMaxFrameMillis();
+
+    /**
+     * @return the number of bounces in the last frame.
+     */
+    long getBouncesPerFrame();
+
+    /**
+     * @return the number of bounces in all the recorded frames.
+     */
+    long getTotalBounces();
+
+    /**
+     * @return the number of bytes the loop allocated in a second (-1 if the JVM can't tell).
+     */
+    double getAllocatedBytesPerSecond();
+
+    /**
+     * @return the number of bytes the loop allocated in the last frame (-1 if the JVM can't tell).
+     */
+    long getAllocatedBytesPerFrame();
+}
@@ -0,0 +1,229 @@
+// ID - 212945760
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The FrameRegionSampler class - picks random centers for balls in a frame, but out of a set of other frames
+ * ("frame A minus frames B..C"), without trying random places until one of them is good.
+ * The centers are the same integer points Frame.createBallInFrame picks from (so the ball is in the frame), minus
+ * the points that are in one of the other frames (like Ball.isBallInFrame, including the borders). For every ball
+ * size, the allowed points are split once into vertical strips where the same frames are excluded, and every strip
+ * keeps its free ranges of y values. A center is then picked uniformly in two binary searches - a strip (by its
+ * number of free points) and a free y value in it, so the time doesn't depend on how much the frames overlap.
+ *
+ * @author Ori Dabush
+ */
+public class FrameRegionSampler {
+
+    private Frame frame;
+    private FrameIndex excluded;
+    private Random rand;
+
+    /**
+     * The regions of every ball size which was sampled so far.
+     */
+    private Map<Integer, Region> regions;
+
+    /**
+     * A constructor that creates a sampler of centers in a frame, out of other frames.
+     *
+     * @param frame    the frame.
+     * @param excluded the frames the centers must be out of.
+     */
+    public FrameRegionSampler(Frame frame, Frame... excluded) {
+        this(new Random(RandomStreams.newRandom().nextLong()), frame, excluded);
+    }
+
+    /**
+     * A constructor that creates a sampler of centers in a frame, out of other frames, with a given random source.
+     *
+     * @param rand     the random source.
+     * @param frame    the frame.
+     * @param excluded the frames the centers must be out of.
+     */
+    public FrameRegionSampler(Random rand, Frame frame, Frame... excluded) {
+        this.frame = frame;
+        this.excluded = new FrameIndex(excluded);
+        this.rand = rand;
+        this.regions = new HashMap<Integer, Region>();
+    }
+
+    /**
+     * A method that picks a random center for a ball of the given size, in the frame and out of the excluded
+     * frames.
+     *
+     * @param size the size of the ball.
+     * @return the center.
+     * @throws RuntimeException if there's no such center (the ball is too big or the frame is covered).
+     */
+    public Point sample(int size) throws RuntimeException {
+        Region region = this.regions.get(size);
+        if (region == null) {
+            region = new Region(size);
+            this.regions.put(size, region);
+        }
+        if (region.total == 0) {
+            throw new RuntimeException("input is invalid. there's no room for a ball of size " + size + ".");
+        }
+        long k = (long) (this.rand.nextDouble() * region.total);
+        // the strip of the k'th free point.
+        int s = upperBound(region.stripPrefix, 1, region.strips + 1, k) - 1;
+        long inStrip = k - region.stripPrefix[s];
+        long freeInColumn = (region.stripPrefix[s + 1] - region.stripPrefix[s]) / region.stripWidth[s];
+        int x = region.stripX[s] + (int) (inStrip / freeInColumn);
+        long yIndex = inStrip % freeInColumn;
+        // the free range of the y value (the prefixes of the ranges start from 0 in every strip).
+        int r = upperBound(region.rangePrefix, region.firstRange[s] + 1, region.firstRange[s + 1], yIndex) - 1;
+        int y = region.rangeStart[r] + (int) (yIndex - region.rangePrefix[r]);
+        return new Point(x, y);
+    }
+
+    /**
+     * A method that finds the first index in a range of a sorted array whose value is bigger than a key.
+     *
+     * @param a    the array.
+     * @param from the first index of the range.
+     * @param to   the index after the range.
+     * @param key  the key.
+     * @return the first index whose value is bigger than the key, or to if there's no such index.
+     */
+    private static int upperBound(long[] a, int from, int to, long key) {
+        int low = from, high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (a[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The allowed centers of the balls of one size - vertical strips of x values, with the free ranges of y values
+     * of every strip (the same in all the columns of the strip), and prefix sums of the number of free points.
+     */
+    private final class Region {
+        private int strips;
+        private int[] stripX;
+        private int[] stripWidth;
+        private long[] stripPrefix;
+        private int[] firstRange;
+        private int[] rangeStart;
+        private long[] rangePrefix;
+        private long total;
+
+        /**
+         * A constructor that splits the allowed centers of the balls of a size into strips.
+         *
+         * @param size the size of the balls.
+         */
+        private Region(int size) {
+            Frame f = FrameRegionSampler.this.frame;
+            // the centers Frame.createBallInFrame picks from - x in [minX, maxX), y in [minY, maxY).
+            int minX = (int) f.getLeftBorder() + size, maxX = (int) f.getRightBorder() - size;
+            int minY = (int) f.getTopBorder() + size, maxY = (int) f.getBottomBorder() - size;
+            List<Frame> all = new ArrayList<Frame>();
+            if (minX < maxX && minY < maxY) {
+                FrameRegionSampler.this.excluded.framesIntersecting(minX, minY, maxX - 1, maxY - 1, all);
+            }
+            // the x values where the excluded frames start and end - the borders of the strips.
+            int[] cuts = new int[2 * all.size() + 2];
+            int n = 0;
+            cuts[n++] = minX;
+            cuts[n++] = maxX;
+            for (Frame e : all) {
+                cuts[n++] = (int) Math.max(minX, Math.min(maxX, Math.ceil(e.getLeftBorder())));
+                cuts[n++] = (int) Math.max(minX, Math.min(maxX, Math.floor(e.getRightBorder()) + 1));
+            }
+            Arrays.sort(cuts, 0, n);
+            this.stripX = new int[n];
+            this.stripWidth = new int[n];
+            this.stripPrefix = new long[n + 1];
+            this.firstRange = new int[n + 1];
+            List<int[]> ranges = new ArrayList<int[]>();
+            List<Frame> inStrip = new ArrayList<Frame>();
+            for (int i = 0; i + 1 < n; i++) {
+                if (cuts[i] == cuts[i + 1]) {
+                    continue;
+                }
+                inStrip.clear();
+                FrameRegionSampler.this.excluded.framesIntersecting(cuts[i], minY, cuts[i + 1] - 1, maxY - 1,
+                        inStrip);
+                int before = ranges.size();
+                long free = freeRanges(inStrip, minY, maxY, ranges);
+                if (free == 0) {
+                    continue;
+                }
+                int s = this.strips++;
+                this.stripX[s] = cuts[i];
+                this.stripWidth[s] = cuts[i + 1] - cuts[i];
+                this.firstRange[s] = before;
+                this.stripPrefix[s + 1] = this.stripPrefix[s] + free * this.stripWidth[s];
+            }
+            this.firstRange[this.strips] = ranges.size();
+            this.total = this.stripPrefix[this.strips];
+            this.rangeStart = new int[ranges.size()];
+            this.rangePrefix = new long[ranges.size()];
+            for (int s = 0; s < this.strips; s++) {
+                long seen = 0;
+                for (int r = this.firstRange[s]; r < this.firstRange[s + 1]; r++) {
+                    this.rangeStart[r] = ranges.get(r)[0];
+                    this.rangePrefix[r] = seen;
+                    seen += ranges.get(r)[1] - ranges.get(r)[0];
+                }
+            }
+        }
+
+        /**
+         * A method that finds the free ranges of y values of a strip - the values in [minY, maxY) which are out of
+         * all the frames of the strip.
+         *
+         * @param frames the frames that cover parts of the strip.
+         * @param minY   the first y value.
+         * @param maxY   the value after the last y value.
+         * @param ranges the list to add the free ranges to ({start, end} - end is not in the range).
+         * @return the number of free y values.
+         */
+        private long freeRanges(List<Frame> frames, int minY, int maxY, List<int[]> ranges) {
+            int[][] covered = new int[frames.size()][];
+            for (int i = 0; i < covered.length; i++) {
+                Frame e = frames.get(i);
+                covered[i] = new int[] {(int) Math.ceil(e.getTopBorder()), (int) Math.floor(e.getBottomBorder()) + 1};
+            }
+            Arrays.sort(covered, new Comparator<int[]>() {
+                @Override
+                public int compare(int[] a, int[] b) {
+                    return Integer.compare(a[0], b[0]);
+                }
+            });
+            long free = 0;
+            int y = minY;
+            for (int[] c : covered) {
+                if (c[0] > y) {
+                    int end = Math.min(c[0], maxY);
+                    if (y < end) {
+                        ranges.add(new int[] {y, end});
+                        free += end - y;
+                    }
+                }
+                y = Math.max(y, c[1]);
+                if (y >= maxY) {
+                    break;
+                }
+            }
+            if (y < maxY) {
+                ranges.add(new int[] {y, maxY});
+                free += maxY - y;
+            }
+            return free;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+// ID - 212945760
+
+import biuoop.DrawSurface;
+import biuoop.GUI;
+
+/**
+ * The GameLoop class - runs a simulation on the screen with a fixed timestep. The simulation is stepped a fixed
+ * number of times in a second (using an accumulator of the time that passed), no matter how long drawing takes,
+ * and it is drawn as often as the screen allows, interpolated between the last two steps.
+ * When the loop falls behind (drawing or stepping took too long), physics steps are dropped instead of frames, so
+ * the loop never tries to catch up by running many steps without drawing.
+ *
+ * @author Ori Dabush
+ */
+public class GameLoop {
+
+    /**
+     * The default maximal number of steps in one frame - more steps than that are dropped.
+     */
+    public static final int DEFAULT_MAX_STEPS_PER_FRAME = 5;
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private Simulation simulation;
+    private double stepsPerSecond;
+    private int maxStepsPerFrame;
+    private long steps;
+    private long droppedSteps;
+    private long frames;
+    private FrameMetrics metrics;
+
+    /**
+     * A constructor that creates a game loop for a simulation. The velocities of the simulation are changed to
+     * the given number of steps in a second.
+     *
+     * @param simulation       the simulation.
+     * @param stepsPerSecond   the number of physics steps in a second.
+     * @param maxStepsPerFrame the maximal number of steps between two frames.
+     */
+    public GameLoop(Simulation simulation, double stepsPerSecond, int maxStepsPerFrame) {
+        this.simulation = simulation;
+        this.stepsPerSecond = stepsPerSecond;
+        this.maxStepsPerFrame = Math.max(maxStepsPerFrame, 1);
+        this.simulation.setStepsPerSecond(stepsPerSecond);
+        this.metrics = null;
+    }
+
+    /**
+     * A method that sets the metrics to record every frame of the loop in.
+     *
+     * @param frameMetrics the metrics (null to not record the frames).
+     */
+    public void setMetrics(FrameMetrics frameMetrics) {
+        this.metrics = frameMetrics;
+    }
+
+    /**
+     * A method that runs the simulation on the screen forever.
+     *
+     * @param gui the gui to draw on.
+     */
+    public void run(GUI gui) {
+        double stepNanos = NANOS_PER_SECOND / this.stepsPerSecond;
+        double accumulator = 0;
+        long previous = System.nanoTime();
+        while (true) {
+            long now = System.nanoTime();
+            accumulator += now - previous;
+            previous = now;
+            accumulator = this.advance(accumulator, stepNanos);
+            long stepped = System.nanoTime();
+            DrawSurface d = gui.getDrawSurface();
+            this.simulation.drawOn(d, accumulator / stepNanos);
+            if (this.metrics != null && this.metrics.isHudVisible()) {
+                this.metrics.drawOn(d);
+            }
+            long drawn = System.nanoTime();
+            gui.show(d);
+            this.frames++;
+            if (this.metrics != null) {
+                this.metrics.recordFrame(stepped - now, drawn - stepped, System.nanoTime() - drawn,
+                        FrameMetrics.NO_SLEEP, this.simulation.getBounces());
+            }
+        }
+    }
+
+    /**
+     * A method that makes the steps the accumulated time is worth (up to the maximal number of steps in a frame,
+     * the rest of the steps are dropped).
+     *
+     * @param accumulator the time (in nanoseconds) which hasn't been simulated yet.
+     * @param stepNanos   the time of one step (in nanoseconds).
+     * @return the time which is left in the accumulator - less than one step.
+     */
+    private double advance(double accumulator, double stepNanos) {
+        int stepsInFrame = 0;
+        while (accumulator >= stepNanos && stepsInFrame < this.maxStepsPerFrame) {
+            this.simulation.step();
+            accumulator -= stepNanos;
+            stepsInFrame++;
+        }
+        this.steps += stepsInFrame;
+        if (accumulator >= stepNanos) {
+            long dropped = (long) (accumulator / stepNanos);
+            this.droppedSteps += dropped;
+            accumulator -= dropped * stepNanos;
+        }
+        return accumulator;
+    }
+
+    /**
+     * A method to get the number of steps that were made.
+     *
+     * @return the number of steps.
+     */
+    public long getSteps() {
+        return this.steps;
+    }
+
+    /**
+     * A method to get the number of steps that were dropped because the loop was behind.
+     *
+     * @return the number of dropped steps.
+     */
+    public long getDroppedSteps() {
+        return this.droppedSteps;
+    }
+
+    /**
+     * A method to get the number of frames that were drawn.
+     *
+     * @return the number of frames.
+     */
+    public long getFrames() {
+        return this.frames;
+    }
+}
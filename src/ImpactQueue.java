@@ -0,0 +1,135 @@
+// ID - 212945760
+
+/**
+ * The ImpactQueue class - a priority queue of the next impact time of every ball, kept as a binary min heap in
+ * arrays. Every ball has exactly one entry (a ball which never hits anything has an infinite time), and the time
+ * of a ball can be changed in O(log n) without removing it, so handling an impact costs O(log n) and allocates
+ * nothing.
+ *
+ * @author Ori Dabush
+ */
+public class ImpactQueue {
+
+    private int[] heap;
+    private int[] position;
+    private double[] time;
+
+    /**
+     * A constructor that creates a queue of the given number of balls, all with an infinite time.
+     *
+     * @param balls the number of balls.
+     */
+    public ImpactQueue(int balls) {
+        this.heap = new int[balls];
+        this.position = new int[balls];
+        this.time = new double[balls];
+        for (int i = 0; i < balls; i++) {
+            this.heap[i] = i;
+            this.position[i] = i;
+            this.time[i] = Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * A method to get the number of balls in the queue.
+     *
+     * @return the number of balls.
+     */
+    public int size() {
+        return this.heap.length;
+    }
+
+    /**
+     * A method to get the ball with the earliest impact.
+     *
+     * @return the index of the ball, -1 if the queue is empty.
+     */
+    public int peekBall() {
+        return (this.heap.length == 0) ? -1 : this.heap[0];
+    }
+
+    /**
+     * A method to get the earliest impact time.
+     *
+     * @return the time, infinity if the queue is empty.
+     */
+    public double peekTime() {
+        return (this.heap.length == 0) ? Double.POSITIVE_INFINITY : this.time[this.heap[0]];
+    }
+
+    /**
+     * A method to get the impact time of a ball.
+     *
+     * @param ball the index of the ball.
+     * @return the impact time.
+     */
+    public double getTime(int ball) {
+        return this.time[ball];
+    }
+
+    /**
+     * A method that sets the impact time of a ball, and moves it to its place in the queue.
+     *
+     * @param ball    the index of the ball.
+     * @param newTime the new impact time.
+     */
+    public void setTime(int ball, double newTime) {
+        double old = this.time[ball];
+        this.time[ball] = newTime;
+        if (newTime < old) {
+            this.siftUp(this.position[ball]);
+        } else {
+            this.siftDown(this.position[ball]);
+        }
+    }
+
+    /**
+     * A method that moves an entry up the heap until its parent is not later than it.
+     *
+     * @param index the index of the entry in the heap.
+     */
+    private void siftUp(int index) {
+        int ball = this.heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (this.time[this.heap[parent]] <= this.time[ball]) {
+                break;
+            }
+            this.place(this.heap[parent], index);
+            index = parent;
+        }
+        this.place(ball, index);
+    }
+
+    /**
+     * A method that moves an entry down the heap until its children are not earlier than it.
+     *
+     * @param index the index of the entry in the heap.
+     */
+    private void siftDown(int index) {
+        int ball = this.heap[index], n = this.heap.length;
+        while (2 * index + 1 < n) {
+            int child = 2 * index + 1;
+            if (child + 1 < n && this.time[this.heap[child + 1]] < this.time[this.heap[child]]) {
+                child++;
+            }
+            if (this.time[ball] <= this.time[this.heap[child]]) {
+                break;
+            }
+            this.place(this.heap[child], index);
+            index = child;
+        }
+        this.place(ball, index);
+    }
+
+    /**
+     * A method that puts a ball in an index of the heap.
+     *
+     * @param ball  the index of the ball.
+     * @param index the index in the heap.
+     */
+    private void place(int ball, int index) {
+        this.heap[index] = ball;
+        this.position[ball] = index;
+    }
+}
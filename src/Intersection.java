@@ -0,0 +1,54 @@
+// ID - 212945760
+
+/**
+ * The Intersection class - an intersection between two lines of an array of lines. It holds the indexes of the two
+ * lines in the array (first is smaller than second) and the intersection point.
+ *
+ * @author Ori Dabush
+ */
+public class Intersection {
+
+    private int first;
+    private int second;
+    private Point point;
+
+    /**
+     * A constructor that creates an intersection.
+     *
+     * @param first  the index of the first line.
+     * @param second the index of the second line.
+     * @param point  the intersection point.
+     */
+    public Intersection(int first, int second, Point point) {
+        this.first = Math.min(first, second);
+        this.second = Math.max(first, second);
+        this.point = point;
+    }
+
+    /**
+     * A method to get the index of the first line (the smaller index).
+     *
+     * @return the index of the first line.
+     */
+    public int getFirst() {
+        return this.first;
+    }
+
+    /**
+     * A method to get the index of the second line (the bigger index).
+     *
+     * @return the index of the second line.
+     */
+    public int getSecond() {
+        return this.second;
+    }
+
+    /**
+     * A method to get the intersection point.
+     *
+     * @return the intersection point.
+     */
+    public Point getPoint() {
+        return this.point;
+    }
+}
@@ -0,0 +1,127 @@
+// ID - 212945760
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The LatencyHistogram class - a histogram of durations (in nanoseconds) with a fixed number of buckets, where
+ * bucket b holds the durations of b binary digits (from 2^(b-1) to 2^b - 1 nanoseconds), so recording a duration
+ * is a few instructions and never allocates.
+ * The histogram has a single writer (the thread of the animation loop) and any number of readers (like a JMX
+ * client), so it is lock free - the writer publishes its counts with ordered writes, and readers may see a
+ * recording which is partly published, but never a torn count.
+ *
+ * @author Ori Dabush
+ */
+public class LatencyHistogram {
+
+    /**
+     * The number of buckets - the last bucket holds everything from 2^(BUCKETS - 2) nanoseconds (about 9 minutes).
+     */
+    public static final int BUCKETS = 41;
+
+    private static final double PERCENT = 100;
+
+    private AtomicLongArray buckets;
+    private AtomicLong count;
+    private AtomicLong total;
+    private AtomicLong max;
+
+    /**
+     * A constructor that creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        this.buckets = new AtomicLongArray(BUCKETS);
+        this.count = new AtomicLong();
+        this.total = new AtomicLong();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * A method that calculates the bucket of a duration.
+     *
+     * @param nanos the duration (in nanoseconds).
+     * @return the index of the bucket.
+     */
+    private static int bucketOf(long nanos) {
+        return Math.min(Long.SIZE - Long.numberOfLeadingZeros(Math.max(nanos, 0)), BUCKETS - 1);
+    }
+
+    /**
+     * A method that records a duration. It may only be called by one thread.
+     *
+     * @param nanos the duration (in nanoseconds), negative durations are recorded as 0.
+     */
+    public void record(long nanos) {
+        int b = bucketOf(nanos);
+        this.buckets.lazySet(b, this.buckets.get(b) + 1);
+        this.total.lazySet(this.total.get() + Math.max(nanos, 0));
+        if (nanos > this.max.get()) {
+            this.max.lazySet(nanos);
+        }
+        this.count.lazySet(this.count.get() + 1);
+    }
+
+    /**
+     * A method to get the number of recorded durations.
+     *
+     * @return the number of durations.
+     */
+    public long getCount() {
+        return this.count.get();
+    }
+
+    /**
+     * A method to get the mean of the recorded durations.
+     *
+     * @return the mean (in nanoseconds), 0 if nothing was recorded.
+     */
+    public double getMean() {
+        long n = this.count.get();
+        return (n == 0) ? 0 : (double) this.total.get() / n;
+    }
+
+    /**
+     * A method to get the longest recorded duration.
+     *
+     * @return the longest duration (in nanoseconds).
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * A method that estimates a percentile of the recorded durations - the upper bound of the bucket it is in.
+     *
+     * @param percentile the percentile (between 0 and 100).
+     * @return the estimated percentile (in nanoseconds), 0 if nothing was recorded.
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = this.getBuckets();
+        long n = 0;
+        for (long c : counts) {
+            n += c;
+        }
+        long needed = (long) Math.ceil(n * Math.max(0, Math.min(percentile, PERCENT)) / PERCENT), seen = 0;
+        for (int b = 0; b < counts.length; b++) {
+            seen += counts[b];
+            if (seen >= needed && seen > 0) {
+                return (b == BUCKETS - 1) ? this.max.get() : (1L << b) - 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * A method to get a copy of the counts of the buckets.
+     *
+     * @return the counts, the count of bucket b is in index b.
+     */
+    public long[] getBuckets() {
+        long[] counts = new long[BUCKETS];
+        for (int b = 0; b < BUCKETS; b++) {
+            counts[b] = this.buckets.get(b);
+        }
+        return counts;
+    }
+}
@@ -8,22 +8,6 @@
  */
 public class Line {
 
-    /**
-     * epsilon is a const to compare between double numbers.
-     */
-    private static final double EPSILON = Math.pow(10, -20);
-
-    /**
-     * A method to compare between 2 double variables using epsilon const.
-     *
-     * @param d1 the first double variable.
-     * @param d2 the second double variable.
-     * @return true if they are equal, false otherwise.
-     */
-    private static boolean cmpDouble(double d1, double d2) {
-        return Math.abs(d1 - d2) <= EPSILON;
-    }
-
     /**
      * The start and end points of the line.
      */
@@ -79,52 +63,46 @@ public class Line {
     }
 
     /**
-     * @return the start point of the line.
+     * A method that calculates the middle point of the line, and adds it to a buffer (without a Point object).
+     *
+     * @param result the buffer to add the middle point to.
+     * @return true if the middle point was added, false if one of the points (start / end) is null.
      */
-    public Point start() {
-        return this.start;
+    public boolean middle(PointBuffer result) {
+        if (this.start == null || this.end == null) {
+            return false;
+        }
+        result.add((this.start.getX() + this.end.getX()) / 2, (this.start.getY() + this.end.getY()) / 2);
+        return true;
     }
 
     /**
-     * @return the end point of the line.
+     * @return a copy of the start point of the line.
      */
-    public Point end() {
-        return this.end;
+    public Point start() {
+        return new Point(this.start);
     }
 
     /**
-     * A method that finds the current line's slope, if it doesn't have a slope (x=5 for example), it returns null.
-     *
-     * @return the slope of the current line.
+     * @return a copy of the end point of the line.
      */
-    private Double slope() {
-        if (this.start == null || this.end == null) {
-            return null;
-        }
-        if (cmpDouble(this.start.getX(), this.end.getX())) {
-            return null;
-        }
-        return (this.start.getY() - this.end.getY()) / (this.start.getX() - this.end.getX());
+    public Point end() {
+        return new Point(this.end);
     }
 
     /**
-     * A method that checks if the point is in the range of the line.
+     * A method that checks if the line is vertical (a single point is also vertical).
      *
-     * @param p the point we would like to check
-     * @return true if it is in the range, false otherwise.
+     * @return true if the start and end points have the same x value, false otherwise.
      */
-    private boolean isPointInRange(Point p) {
-        if (p == null || this.start == null || this.end == null) {
-            return false;
-        }
-        return ((this.start.getX() <= p.getX() && p.getX() <= this.end.getX())
-                || (this.end.getX() <= p.getX() && p.getX() <= this.start.getX()))
-                && ((this.start.getY() <= p.getY() && p.getY() <= this.end.getY())
-                || (this.end.getY() <= p.getY() && p.getY() <= this.start.getY()));
+    private boolean isVertical() {
+        return this.start.getX() == this.end.getX();
     }
 
     /**
-     * A method that checks if two lines have the same line equation.
+     * A method that checks if two lines have the same line equation. The check is exact (with the orientation
+     * predicates), so nearly parallel lines are never taken for the same line. A single point has the equation of
+     * the vertical line through it.
      *
      * @param other the other line.
      * @return true if they have the same line equation, false otherwise.
@@ -133,177 +111,162 @@ public class Line {
         if (other == null || this.start == null || this.end == null || other.start == null || other.end == null) {
             return false;
         }
-        if (this.slope() == null && other.slope() == null) {
-            return this.start.getX() == other.start.getX();
-        }
-        if (this.slope() == null || other.slope() == null) {
-            return false;
+        if (this.isVertical() || other.isVertical()) {
+            return this.isVertical() && other.isVertical() && this.start.getX() == other.start.getX();
         }
-        // comparing the slope and the intersection with y axis
-        boolean isSlopeEqual = cmpDouble(this.slope(), other.slope());
-        boolean isYAxisIntersectionEqual = cmpDouble(-this.slope() * this.start.getX() + this.start.getY(),
-                -other.slope() * other.start.getX() + other.start.getY());
-        return isSlopeEqual && isYAxisIntersectionEqual;
+        // both of the points of the other line are on the current line.
+        double px = this.start.getX(), py = this.start.getY(), pex = this.end.getX(), pey = this.end.getY();
+        return Predicates.orient2d(px, py, pex, pey, other.start.getX(), other.start.getY()) == 0
+                && Predicates.orient2d(px, py, pex, pey, other.end.getX(), other.end.getY()) == 0;
     }
 
     /**
-     * A method that checks if the lines contain each other.
+     * A method that checks if the current line and another line are intersecting.
      *
-     * @param other the other line.
-     * @return true if they contain each other, false otherwise.
+     * @param other the line that we want to check if the current line intersects.
+     * @return true if the lines intersect, false otherwise.
      */
-    private boolean isOn(Line other) {
-        if (other == null || this.start == null || this.end == null || other.start == null || other.end == null) {
-            return false;
-        }
-        if (this.haveSameLineEquation(other)) {
-            return (this.isPointInRange(other.start) && this.isPointInRange(other.end))
-                    || (other.isPointInRange(this.start) && other.isPointInRange(this.end));
+    public boolean isIntersecting(Line other) {
+        return this.intersect(other, null, null);
+    }
+
+    /**
+     * A method that finds the intersection between the current line and another line.
+     *
+     * @param other the line that we want to find the intersection of the current line with.
+     * @return the intersection point if the lines intersect, and null otherwise.
+     */
+    public Point intersectionWith(Line other) {
+        Point intersection = new Point(0, 0);
+        if (this.intersectionWith(other, intersection)) {
+            return intersection;
         }
-        return false;
+        return null;
     }
 
     /**
-     * A method that checks if the current line and another line are intersecting.
+     * A method that checks if the current line and another line are intersecting, and finds the intersection point
+     * in the same pass. Two lines intersect if they have exactly one point in common (so collinear lines which
+     * overlap on more than one point don't intersect).
+     * The lines are rejected early if their bounding boxes don't overlap. The answer is decided with the exact
+     * orientation predicates (see Predicates), so it is right even for nearly parallel lines, and only the
+     * intersection point itself is calculated (from the parametric form of the lines) with rounding.
      *
-     * @param other the line that we want to check if the current line intersects.
+     * @param other  the line that we want to find the intersection of the current line with.
+     * @param result a point which is set to the intersection point if the lines intersect (can be null if only
+     *               the answer is needed).
      * @return true if the lines intersect, false otherwise.
      */
-    public boolean isIntersecting(Line other) {
-        // check that there's no null value
+    public boolean intersectionWith(Line other, Point result) {
+        return this.intersect(other, result, null);
+    }
+
+    /**
+     * A method that checks if the current line and another line are intersecting, and adds the intersection point
+     * to a buffer (without a Point object) if they are, like intersectionWith with a point.
+     *
+     * @param other  the line that we want to find the intersection of the current line with.
+     * @param result the buffer to add the intersection point to.
+     * @return true if the lines intersect, false otherwise.
+     */
+    public boolean intersectionWith(Line other, PointBuffer result) {
+        return this.intersect(other, null, result);
+    }
+
+    /**
+     * A method that checks if the current line and another line are intersecting, and writes the intersection point
+     * to a point or to a buffer.
+     *
+     * @param other  the other line.
+     * @param point  a point which is set to the intersection point (can be null).
+     * @param buffer a buffer which the intersection point is added to (can be null).
+     * @return true if the lines intersect, false otherwise.
+     */
+    private boolean intersect(Line other, Point point, PointBuffer buffer) {
         if (other == null || this.start == null || this.end == null || other.start == null || other.end == null) {
             return false;
         }
-        // case of two null slopes
-        if (this.slope() == null && other.slope() == null) {
-            if (!this.haveSameLineEquation(other)) {
-                return false;
-            } else {
-                if (this.isOn(other)) {
-                    return cmpDouble(this.length(), 0.0) || cmpDouble(other.length(), 0.0);
-                } else {
-                    return this.start.equals(other.start) || this.end.equals(other.end)
-                            || this.start.equals(other.end) || this.end.equals(other.start);
-                }
-            }
+        double px = this.start.getX(), py = this.start.getY(), pex = this.end.getX(), pey = this.end.getY();
+        double qx = other.start.getX(), qy = other.start.getY(), qex = other.end.getX(), qey = other.end.getY();
+        // bounding box rejection
+        if (Math.max(px, pex) < Math.min(qx, qex) || Math.max(qx, qex) < Math.min(px, pex)
+                || Math.max(py, pey) < Math.min(qy, qey) || Math.max(qy, qey) < Math.min(py, pey)) {
+            return false;
         }
-        // case of 'this' having a null slope
-        if (this.slope() == null) {
-            double intersectionX = this.start.getX(),
-                    intersectionY = other.slope() * (intersectionX - other.start.getX()) + other.start.getY();
-            Point intersection = new Point(intersectionX, intersectionY);
-            // checking if the intersection is on the segments.
-            return this.isPointInRange(intersection) && other.isPointInRange(intersection);
+        // the sides of the end points of every line, relative to the other line.
+        int o1 = Predicates.orient2d(px, py, pex, pey, qx, qy), o2 = Predicates.orient2d(px, py, pex, pey, qex, qey);
+        if (o1 * o2 > 0) {
+            return false;
         }
-        // case of 'other' having a null slope
-        if (other.slope() == null) {
-            double intersectionX = other.start.getX(),
-                    intersectionY = this.slope() * (intersectionX - this.start.getX()) + this.start.getY();
-            Point intersection = new Point(intersectionX, intersectionY);
-            // checking if the intersection is on the segments.
-            return this.isPointInRange(intersection) && other.isPointInRange(intersection);
+        int o3 = Predicates.orient2d(qx, qy, qex, qey, px, py), o4 = Predicates.orient2d(qx, qy, qex, qey, pex, pey);
+        if (o3 * o4 > 0) {
+            return false;
         }
-        // case of different slopes (which are not null)
-        if (!(cmpDouble(this.slope(), other.slope()))) {
-            // case of 'this' having a slope which is 0.
-            if (cmpDouble(this.slope(), 0.0)) {
-                double intersectionY = this.start.getY(),
-                        intersectionX = (intersectionY - other.start.getY()) / other.slope() + other.start.getX();
-                Point intersection = new Point(intersectionX, intersectionY);
-                // checking if the intersection is on the segments.
-                return this.isPointInRange(intersection) && other.isPointInRange(intersection);
-            }
-            // case of 'other' having a slope which is 0.
-            if (cmpDouble(other.slope(), 0.0)) {
-                double intersectionY = other.start.getY(),
-                        intersectionX = (intersectionY - this.start.getY()) / this.slope() + this.start.getX();
-                Point intersection = new Point(intersectionX, intersectionY);
-                // checking if the intersection is on the segments.
-                return this.isPointInRange(intersection) && other.isPointInRange(intersection);
-            }
-            // case of different slopes (which are not null / 0)
-            double intersectionX = (this.slope() * this.start.getX() - other.slope() * other.start.getX()
-                    + other.start.getY() - this.start.getY()) / (this.slope() - other.slope()),
-                    intersectionY = this.slope() * (intersectionX - this.start.getX()) + this.start.getY();
-            Point intersection = new Point(intersectionX, intersectionY);
-            // checking if the intersection is on the segments.
-            return this.isPointInRange(intersection) && other.isPointInRange(intersection);
+        if (o1 == 0 && o2 == 0 && o3 == 0 && o4 == 0) {
+            return this.collinearIntersection(other, point, buffer);
         }
-        // case of equal slopes
-        if (!this.haveSameLineEquation(other)) {
+        if ((o1 == 0 && o2 == 0) || (o3 == 0 && o4 == 0)) {
+            // one of the lines is a single point, which isn't on the other line.
             return false;
-        } else {
-            if (this.isOn(other)) {
-                return cmpDouble(this.length(), 0.0) || cmpDouble(other.length(), 0.0);
+        }
+        if (point != null || buffer != null) {
+            // an end point on the other line is the intersection point - it is copied as it is.
+            Point exact = (o1 == 0) ? other.start : (o2 == 0) ? other.end : (o3 == 0) ? this.start
+                    : (o4 == 0) ? this.end : null;
+            if (exact != null) {
+                setResult(exact.getX(), exact.getY(), point, buffer);
             } else {
-                return this.start.equals(other.start) || this.end.equals(other.end)
-                        || this.start.equals(other.end) || this.end.equals(other.start);
+                // this = start + t * r, other = other.start + u * s
+                double rx = pex - px, ry = pey - py, sx = qex - qx, sy = qey - qy;
+                double t = ((qx - px) * sy - (qy - py) * sx) / (rx * sy - ry * sx);
+                t = Math.max(0, Math.min(1, t));
+                setResult(px + t * rx, py + t * ry, point, buffer);
             }
         }
+        return true;
     }
 
     /**
-     * A method that finds the intersection between the current line and another line.
+     * A method that writes an intersection point to a point and to a buffer.
      *
-     * @param other the line that we want to find the intersection of the current line with.
-     * @return the intersection point if the lines intersect, and null otherwise.
+     * @param x      the x value of the intersection point.
+     * @param y      the y value of the intersection point.
+     * @param point  a point to set (can be null).
+     * @param buffer a buffer to add the point to (can be null).
      */
-    public Point intersectionWith(Line other) {
-        // check that there's no null value.
-        if (other == null || this.start == null || this.end == null || other.start == null || other.end == null) {
-            return null;
+    private static void setResult(double x, double y, Point point, PointBuffer buffer) {
+        if (point != null) {
+            point.setLocation(x, y);
         }
-        // check if they are intersecting.
-        if (this.isIntersecting(other)) {
-            // case of 2 null slopes.
-            if (this.slope() == null && other.slope() == null) {
-                if (cmpDouble(this.start.getY(), other.start.getY())) {
-                    return this.start;
-                }
-                if (cmpDouble(this.end.getY(), other.start.getY())) {
-                    return this.end;
-                }
-                if (cmpDouble(this.start.getY(), other.end.getY())) {
-                    return this.start;
-                }
-                if (cmpDouble(this.end.getY(), other.end.getY())) {
-                    return this.end;
-                }
-            }
-            // case of 'this' having a null slope.
-            if (this.slope() == null) {
-                double intersectionX = this.start.getX(),
-                        intersectionY = other.slope() * (intersectionX - other.start.getX()) + other.start.getY();
-                return new Point(intersectionX, intersectionY);
-            }
-            // case of 'other' having a null slope.
-            if (other.slope() == null) {
-                double intersectionX = other.start.getX(),
-                        intersectionY = this.slope() * (intersectionX - this.start.getX()) + this.start.getY();
-                return new Point(intersectionX, intersectionY);
-            }
-            // case of 2 equal slopes which are not null
-            if (cmpDouble(other.slope(), this.slope())) {
-                if (cmpDouble(this.length(), 0.0)) {
-                    return this.start;
-                }
-                if (cmpDouble(other.length(), 0.0)) {
-                    return other.start;
-                }
-                if (this.start.equals(other.start) || this.start.equals(other.end)) {
-                    return this.start;
-                }
-                if (this.end.equals(other.end) || this.end.equals(other.start)) {
-                    return this.end;
-                }
-            }
-            //case of 2 different slopes which are not null
-            double intersectionX = (this.slope() * this.start.getX() - other.slope() * other.start.getX()
-                    + other.start.getY() - this.start.getY()) / (this.slope() - other.slope()),
-                    intersectionY = this.slope() * (intersectionX - this.start.getX()) + this.start.getY();
-            return new Point(intersectionX, intersectionY);
+        if (buffer != null) {
+            buffer.add(x, y);
         }
-        return null;
+    }
+
+    /**
+     * A method that checks if the current line and a collinear line (or single points on the same line) intersect
+     * - if their ranges have exactly one common point.
+     *
+     * @param other  the other line.
+     * @param point  a point which is set to the common point if there is one (can be null).
+     * @param buffer a buffer which the common point is added to if there is one (can be null).
+     * @return true if the lines have exactly one common point, false otherwise.
+     */
+    private boolean collinearIntersection(Line other, Point point, PointBuffer buffer) {
+        double px = this.start.getX(), py = this.start.getY(), pex = this.end.getX(), pey = this.end.getY();
+        double qx = other.start.getX(), qy = other.start.getY(), qex = other.end.getX(), qey = other.end.getY();
+        boolean byX = Math.abs(pex - px) + Math.abs(qex - qx) >= Math.abs(pey - py) + Math.abs(qey - qy);
+        double a1 = byX ? px : py, a2 = byX ? pex : pey, b1 = byX ? qx : qy, b2 = byX ? qex : qey;
+        double low = Math.max(Math.min(a1, a2), Math.min(b1, b2)), high = Math.min(Math.max(a1, a2), Math.max(b1, b2));
+        if (low != high) {
+            return false;
+        }
+        if (point != null || buffer != null) {
+            // the common point is an end point of one of the lines.
+            Point common = (a1 == low) ? this.start : (a2 == low) ? this.end : (b1 == low) ? other.start : other.end;
+            setResult(common.getX(), common.getY(), point, buffer);
+        }
+        return true;
     }
 
     /**
@@ -0,0 +1,383 @@
+// ID - 212945760
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import biuoop.DrawSurface;
+
+/**
+ * The LineIndex class - a bounding volume hierarchy over a set of lines (obstacles), which finds the first line a
+ * moving ball hits without checking every line.
+ * The tree is built like the FrameIndex (packed bottom up with the sort-tile-recursive method, by the middle points
+ * of the lines) and kept in flat arrays. A cast moves a ball (a circle) along a path, and finds the first moment it
+ * touches a line - either one of the sides of the line, or one of its end points. Only the nodes whose bounding
+ * box (grown by the radius of the ball) is crossed by the path before the best hit so far are visited, so a cast
+ * takes about logarithmic time in the number of lines.
+ *
+ * @author Ori Dabush
+ */
+public class LineIndex {
+
+    /**
+     * The maximal number of children of a node.
+     */
+    private static final int NODE_SIZE = 8;
+
+    /**
+     * The distance a ball can be inside a line and still touch it (for the rounding errors of the hits).
+     */
+    private static final double EPSILON = Math.pow(10, -9);
+
+    /**
+     * The lines, ordered by the tiles - their end points and their indexes in the array the index was created from.
+     */
+    private Line[] lines;
+    private double[] startX;
+    private double[] startY;
+    private double[] endX;
+    private double[] endY;
+    private int[] ids;
+
+    /**
+     * The nodes - their bounding boxes, and the index of their first child and the number of children. The leaves
+     * are the first nodes, and the root is the last node.
+     */
+    private double[] left;
+    private double[] top;
+    private double[] right;
+    private double[] bottom;
+    private int[] firstChild;
+    private int[] childCount;
+    private int leaves;
+    private int root;
+
+    /**
+     * A constructor that creates an index of the given lines.
+     *
+     * @param lines the lines (they must have both of their points).
+     */
+    public LineIndex(Line... lines) {
+        this.lines = lines.clone();
+        int n = lines.length;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        sortTiles(order, lines);
+        this.startX = new double[n];
+        this.startY = new double[n];
+        this.endX = new double[n];
+        this.endY = new double[n];
+        this.ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            Point a = lines[order[i]].start(), b = lines[order[i]].end();
+            this.startX[i] = a.getX();
+            this.startY[i] = a.getY();
+            this.endX[i] = b.getX();
+            this.endY[i] = b.getY();
+            this.ids[i] = order[i];
+        }
+        int level = (Math.max(n, 1) + NODE_SIZE - 1) / NODE_SIZE, nodes = level;
+        while (level > 1) {
+            level = (level + NODE_SIZE - 1) / NODE_SIZE;
+            nodes += level;
+        }
+        this.left = new double[nodes];
+        this.top = new double[nodes];
+        this.right = new double[nodes];
+        this.bottom = new double[nodes];
+        this.firstChild = new int[nodes];
+        this.childCount = new int[nodes];
+        // the leaves - groups of lines which are next to each other in the tiles.
+        int count = 0;
+        for (int i = 0; i < n; i += NODE_SIZE) {
+            this.setNode(count++, i, Math.min(NODE_SIZE, n - i), true);
+        }
+        if (n == 0) {
+            this.setNode(count++, 0, 0, true);
+        }
+        this.leaves = count;
+        // the levels above the leaves - groups of nodes of the level below.
+        int levelStart = 0, levelSize = count;
+        while (levelSize > 1) {
+            int next = count;
+            for (int i = 0; i < levelSize; i += NODE_SIZE) {
+                this.setNode(count++, levelStart + i, Math.min(NODE_SIZE, levelSize - i), false);
+            }
+            levelStart = next;
+            levelSize = count - next;
+        }
+        this.root = count - 1;
+    }
+
+    /**
+     * A method that sorts the indexes of lines into tiles - vertical slices (by the x value of the middle points)
+     * of about the square root of the number of leaves lines, each sorted by the y value of the middle points.
+     *
+     * @param order the indexes of the lines.
+     * @param lines the lines.
+     */
+    private static void sortTiles(Integer[] order, Line[] lines) {
+        // twice the middle points, taken once (start() and end() return copies).
+        final double[] middleX = new double[lines.length];
+        final double[] middleY = new double[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            Point a = lines[i].start(), b = lines[i].end();
+            middleX[i] = a.getX() + b.getX();
+            middleY[i] = a.getY() + b.getY();
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Double.compare(middleX[a], middleX[b]);
+            }
+        });
+        int leafCount = (order.length + NODE_SIZE - 1) / NODE_SIZE;
+        int sliceSize = NODE_SIZE * (int) Math.ceil(Math.sqrt(leafCount));
+        for (int i = 0; i < order.length; i += sliceSize) {
+            Arrays.sort(order, i, Math.min(order.length, i + sliceSize), new Comparator<Integer>() {
+                @Override
+                public int compare(Integer a, Integer b) {
+                    return Double.compare(middleY[a], middleY[b]);
+                }
+            });
+        }
+    }
+
+    /**
+     * A method that sets a node to a range of children, and its bounding box to the bounding box of the children.
+     *
+     * @param node   the index of the node.
+     * @param first  the index of the first child.
+     * @param count  the number of children.
+     * @param isLeaf true if the children are lines, false if they are nodes.
+     */
+    private void setNode(int node, int first, int count, boolean isLeaf) {
+        this.firstChild[node] = first;
+        this.childCount[node] = count;
+        double l = Double.POSITIVE_INFINITY, t = Double.POSITIVE_INFINITY;
+        double r = Double.NEGATIVE_INFINITY, b = Double.NEGATIVE_INFINITY;
+        for (int c = first; c < first + count; c++) {
+            if (isLeaf) {
+                l = Math.min(l, Math.min(this.startX[c], this.endX[c]));
+                t = Math.min(t, Math.min(this.startY[c], this.endY[c]));
+                r = Math.max(r, Math.max(this.startX[c], this.endX[c]));
+                b = Math.max(b, Math.max(this.startY[c], this.endY[c]));
+            } else {
+                l = Math.min(l, this.left[c]);
+                t = Math.min(t, this.top[c]);
+                r = Math.max(r, this.right[c]);
+                b = Math.max(b, this.bottom[c]);
+            }
+        }
+        this.left[node] = l;
+        this.top[node] = t;
+        this.right[node] = r;
+        this.bottom[node] = b;
+    }
+
+    /**
+     * A method to get the number of lines in the index.
+     *
+     * @return the number of lines.
+     */
+    public int size() {
+        return this.lines.length;
+    }
+
+    /**
+     * A method to get a line of the index.
+     *
+     * @param i the index of the line (in the array the index was created from).
+     * @return the line.
+     */
+    public Line getLine(int i) {
+        return this.lines[i];
+    }
+
+    /**
+     * A method that draws the lines on a DrawSurface, from their end points (so no point is created).
+     *
+     * @param d the DrawSurface.
+     */
+    public void drawOn(DrawSurface d) {
+        for (int i = 0; i < this.ids.length; i++) {
+            d.drawLine((int) this.startX[i], (int) this.startY[i], (int) this.endX[i], (int) this.endY[i]);
+        }
+    }
+
+    /**
+     * A method that finds the first line a ball hits when it moves along a path. A ball which touches a line and
+     * moves towards it hits it at the start of the path, and a ball that moves away from a line never hits it (so a
+     * ball that was just reflected off a line doesn't hit it again). A ball that is already inside a line (it was
+     * put there) ignores it, so it can get out of it.
+     *
+     * @param x      the x value of the center of the ball at the start of the path.
+     * @param y      the y value of the center of the ball at the start of the path.
+     * @param dx     the x value of the path (the center moves from x to x + dx).
+     * @param dy     the y value of the path.
+     * @param radius the radius of the ball (0 for a point).
+     * @param hit    the hit to set, if a line is hit.
+     * @return true if the ball hits a line on the path, false otherwise.
+     */
+    public boolean cast(double x, double y, double dx, double dy, double radius, SegmentHit hit) {
+        hit.set(Double.POSITIVE_INFINITY, 0, 0, 0, 0, -1);
+        this.castNode(this.root, x, y, dx, dy, radius, hit);
+        return hit.getLine() >= 0;
+    }
+
+    /**
+     * A method that casts a ball in the subtree of a node, if the path enters the bounding box of the node (grown
+     * by the radius) before the best hit so far.
+     *
+     * @param node   the index of the node.
+     * @param x      the x value of the start of the path.
+     * @param y      the y value of the start of the path.
+     * @param dx     the x value of the path.
+     * @param dy     the y value of the path.
+     * @param radius the radius of the ball.
+     * @param hit    the best hit so far.
+     */
+    private void castNode(int node, double x, double y, double dx, double dy, double radius, SegmentHit hit) {
+        double limit = Math.min(hit.getT(), 1);
+        double enter = Math.max(entry(x, dx, this.left[node] - radius, this.right[node] + radius, limit),
+                entry(y, dy, this.top[node] - radius, this.bottom[node] + radius, limit));
+        if (enter > limit || enter > exit(x, dx, this.left[node] - radius, this.right[node] + radius)
+                || enter > exit(y, dy, this.top[node] - radius, this.bottom[node] + radius)) {
+            return;
+        }
+        int end = this.firstChild[node] + this.childCount[node];
+        for (int c = this.firstChild[node]; c < end; c++) {
+            if (node < this.leaves) {
+                this.castLine(c, x, y, dx, dy, radius, hit);
+            } else {
+                this.castNode(c, x, y, dx, dy, radius, hit);
+            }
+        }
+    }
+
+    /**
+     * A method that calculates when a path enters a range on one axis (a slab of a bounding box).
+     *
+     * @param start the start of the path on the axis.
+     * @param d     the path on the axis.
+     * @param low   the low end of the range.
+     * @param high  the high end of the range.
+     * @param never the value to return if the path never enters the range (bigger than any hit).
+     * @return the part of the path at which it enters the range (0 if it starts in it).
+     */
+    private static double entry(double start, double d, double low, double high, double never) {
+        if (low <= start && start <= high) {
+            return 0;
+        }
+        if (d == 0) {
+            return never + 1;
+        }
+        return Math.max(0, ((d > 0) ? low - start : high - start) / d);
+    }
+
+    /**
+     * A method that calculates when a path leaves a range on one axis.
+     *
+     * @param start the start of the path on the axis.
+     * @param d     the path on the axis.
+     * @param low   the low end of the range.
+     * @param high  the high end of the range.
+     * @return the part of the path at which it leaves the range (infinity if it never leaves it).
+     */
+    private static double exit(double start, double d, double low, double high) {
+        if (d == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return ((d > 0) ? high - start : low - start) / d;
+    }
+
+    /**
+     * A method that casts a ball at one line, and sets the hit if the ball hits it before the best hit so far -
+     * on one of its sides (the ball's distance from the line is its radius) or on one of its end points. The ball
+     * must be moving towards the side or the point, and it must not be inside the line.
+     *
+     * @param i      the index of the line in the sorted arrays.
+     * @param x      the x value of the start of the path.
+     * @param y      the y value of the start of the path.
+     * @param dx     the x value of the path.
+     * @param dy     the y value of the path.
+     * @param radius the radius of the ball.
+     * @param hit    the best hit so far.
+     */
+    private void castLine(int i, double x, double y, double dx, double dy, double radius, SegmentHit hit) {
+        double ax = this.startX[i], ay = this.startY[i], bx = this.endX[i], by = this.endY[i];
+        // rejecting lines out of the bounding box of the path so far (grown by the radius).
+        double limit = Math.min(hit.getT(), 1), ex = x + limit * dx, ey = y + limit * dy;
+        if (Math.max(ax, bx) < Math.min(x, ex) - radius || Math.min(ax, bx) > Math.max(x, ex) + radius
+                || Math.max(ay, by) < Math.min(y, ey) - radius || Math.min(ay, by) > Math.max(y, ey) + radius) {
+            return;
+        }
+        double sx = bx - ax, sy = by - ay, lengthSquared = sx * sx + sy * sy;
+        if (lengthSquared > 0) {
+            double length = Math.sqrt(lengthSquared);
+            double nx = -sy / length, ny = sx / length;
+            double distance = (x - ax) * nx + (y - ay) * ny;
+            // the normal of the side the ball is on.
+            if (distance < 0) {
+                nx = -nx;
+                ny = -ny;
+                distance = -distance;
+            }
+            double approach = dx * nx + dy * ny;
+            if (approach < 0 && distance >= radius - EPSILON) {
+                double t = Math.max(0, (distance - radius) / -approach);
+                if (t <= Math.min(hit.getT(), 1)) {
+                    double cx = x + t * dx, cy = y + t * dy;
+                    double u = ((cx - ax) * sx + (cy - ay) * sy) / lengthSquared;
+                    if (u >= 0 && u <= 1) {
+                        hit.set(t, cx, cy, nx, ny, this.ids[i]);
+                    }
+                }
+            }
+        }
+        // the end points of the line.
+        for (int point = 0; point < 2; point++) {
+            double px = (point == 0) ? ax : bx, py = (point == 0) ? ay : by;
+            double t = touch(x - px, y - py, dx, dy, radius);
+            if (t <= Math.min(hit.getT(), 1)) {
+                double cx = x + t * dx, cy = y + t * dy, nx = cx - px, ny = cy - py;
+                double length = Math.sqrt(nx * nx + ny * ny);
+                if (length == 0) {
+                    // the center is on the point - the normal is against the path.
+                    nx = -dx;
+                    ny = -dy;
+                    length = Math.sqrt(dx * dx + dy * dy);
+                }
+                hit.set(t, cx, cy, nx / length, ny / length, this.ids[i]);
+            }
+        }
+    }
+
+    /**
+     * A method that calculates when a ball that moves towards a point touches it.
+     *
+     * @param wx     the x value of the start of the path, relative to the point.
+     * @param wy     the y value of the start of the path, relative to the point.
+     * @param dx     the x value of the path.
+     * @param dy     the y value of the path.
+     * @param radius the radius of the ball.
+     * @return the part of the path at which the ball touches the point (0 if it touches it already), or infinity
+     * if it doesn't move towards the point, misses it or is already over it.
+     */
+    private static double touch(double wx, double wy, double dx, double dy, double radius) {
+        double a = dx * dx + dy * dy, b = wx * dx + wy * dy, c = wx * wx + wy * wy - radius * radius;
+        if (a == 0 || b >= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (c <= 0) {
+            double inside = Math.max(radius - EPSILON, 0);
+            return (wx * wx + wy * wy < inside * inside) ? Double.POSITIVE_INFINITY : 0;
+        }
+        double discriminant = b * b - a * c;
+        if (discriminant < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return (-b - Math.sqrt(discriminant)) / a;
+    }
+}
@@ -1,11 +1,8 @@
 // ID - 212945760
 
-import biuoop.DrawSurface;
-import biuoop.GUI;
-import biuoop.Sleeper;
-
 import java.awt.Color;
-import java.util.Random;
+import java.io.IOException;
+import java.util.SplittableRandom;
 
 /**
  * The MultipleBouncingBallsAnimation class, which will create an animation with the ball's size's from the command
@@ -44,11 +41,9 @@ public class MultipleBouncingBallsAnimation {
     private static final int MAX_SIZE = 50;
 
     /**
-     * constants to generate random colors - it's not until 256 to avoid very bright color's which won't be seen.
+     * The maximal length of an obstacle line.
      */
-    private static final int MAX_COLOR_R = 255;
-    private static final int MAX_COLOR_G = 255;
-    private static final int MAX_COLOR_B = 255;
+    private static final int MAX_OBSTACLE_LENGTH = 120;
 
     /**
      * A method to create velocity using ball's size and the VELOCITY_CALCULATOR and the formula.
@@ -65,60 +60,104 @@ public class MultipleBouncingBallsAnimation {
         }
     }
 
-    /**
-     * A method to create a random color.
-     *
-     * @return the new color.
-     */
-    private static Color createRandomColor() {
-        Random rand = new Random();
-        int r = rand.nextInt(MAX_COLOR_R);
-        int g = rand.nextInt(MAX_COLOR_G);
-        int b = rand.nextInt(MAX_COLOR_B);
-        return new Color(r, g, b);
-    }
-
     /**
      * A method to create a ball. the method creates a random center point and color, using the given size
      * and calculates the velocity of the new ball.
      *
      * @param size the ball's radius.
+     * @param rand the random source.
      * @return the new ball.
      */
-    private static Ball createBall(int size) {
+    private static Ball createBall(int size, SplittableRandom rand) {
         if (size < 0) {
             throw new RuntimeException("the size can't be negative!");
         }
-        Random rand = new Random();
         //random point
         int x = rand.nextInt(WIDTH - 2 * size) + size;
         int y = rand.nextInt(HEIGHT - 2 * size) + size;
         Point center = new Point(x, y);
         //random color
-        Color color = createRandomColor();
+        Color color = ColorPalette.randomColor(rand);
         Ball ball = new Ball(center, size, color);
         createVelocity(ball);
         return ball;
     }
 
     /**
-     * A method that checks if the ball is in the screen, and if it touches the borders it makes
-     * it change its direction.
+     * A method to create the store of the balls with the sizes from the command line, where the screen is the frame
+     * of all the balls.
+     *
+     * @param args   the sizes of the balls.
+     * @param screen the frame of the balls.
+     * @param rand   the random source.
+     * @param spawn  true to place all the balls at once without overlaps, false to place every ball randomly.
+     * @return the store.
+     */
+    private static BallStore createStore(String[] args, Frame screen, SplittableRandom rand, boolean spawn) {
+        BallStore store = new BallStore(args.length);
+        store.addFrame(screen);
+        int[] sizes = new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            double value = Double.parseDouble(args[i]);
+            //checking that sizes between 0 and 1 won't become 0 size.
+            sizes[i] = (value < 1.0) ? 1 : (int) value;
+        }
+        if (spawn) {
+            // all the balls are placed at once, without overlaps
+            screen.spawnBalls(store, sizes);
+        } else {
+            for (int size : sizes) {
+                Ball ball = createBall(size, rand);
+                ball.setFrame(screen);
+                store.add(ball);
+            }
+        }
+        return store;
+    }
+
+    /**
+     * A method that opens a shared world file to restart the world from it.
+     *
+     * @param path the path of the file.
+     * @return the shared world.
+     * @throws IOException if the file can't be opened (the message says it is the shared world's file).
+     */
+    static SharedWorld openWorld(String path) throws IOException {
+        try {
+            return SharedWorld.open(path, true);
+        } catch (IOException e) {
+            throw new IOException("can't open the shared world: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * A method that creates a shared world file which the balls of a store are published to.
      *
-     * @param ball the ball.
+     * @param path  the path of the file.
+     * @param store the store.
+     * @return the shared world.
+     * @throws IOException if the file can't be created (the message says it is the shared world's file).
      */
-    private static void adjustBallToScreen(Ball ball) {
-        if (ball.getX() <= LEFT_BORDER + ball.getSize() || ball.getX() >= RIGHT_BORDER - ball.getSize()) {
-            Velocity current = ball.getVelocity();
-            Velocity opposite = new Velocity(-current.getDx(), current.getDy());
-            ball.setVelocity(opposite);
-            ball.setColor(createRandomColor());
+    static SharedWorld createWorld(String path, BallStore store) throws IOException {
+        try {
+            return SharedWorld.create(path, store.size(), store.frameCount());
+        } catch (IOException e) {
+            throw new IOException("can't create the shared world: " + e.getMessage(), e);
         }
-        if (ball.getY() <= TOP_BORDER + ball.getSize() || ball.getY() >= BOTTOM_BORDER - ball.getSize()) {
-            Velocity current = ball.getVelocity();
-            Velocity opposite = new Velocity(current.getDx(), -current.getDy());
-            ball.setVelocity(opposite);
-            ball.setColor(createRandomColor());
+    }
+
+    /**
+     * A method that records the balls of every step of a scene to a file.
+     *
+     * @param scene the scene.
+     * @param path  the path of the file.
+     * @throws IOException if the file can't be written (the message says it is the recording).
+     */
+    static void record(BouncingBallsScene scene, String path) throws IOException {
+        try {
+            scene.record(path);
+        } catch (IOException e) {
+            throw new IOException("can't record: " + e.getMessage(), e);
         }
     }
 
@@ -128,35 +167,79 @@ public class MultipleBouncingBallsAnimation {
      * * we want larger balls to be slower (but balls above size 50 can all have the same slow speed).
      * * Each ball will change direction when hitting the window border.
      *
-     * @param args the command line arguments, which are the sizes of the balls.
+     * @param args the command line arguments, which are the sizes of the balls (and the options of
+     *             AnimationRunner).
      */
     public static void main(String[] args) {
         try {
-            // creating the ball array
-            Ball[] ballsArray = new Ball[args.length];
-            for (int i = 0; i < args.length; i++) {
-                int size;
-                //checking that sizes between 0 and 1 won't become 0 size.
-                if (Double.parseDouble(args[i]) < 1.0) {
-                    size = 1;
-                } else {
-                    size = (int) Double.parseDouble(args[i]);
-                }
-                ballsArray[i] = createBall(size);
+            RunOptions options = new RunOptions(args);
+            args = options.getArgs();
+            // the event-driven engine replaces the scene, so the options of the scene would be dropped silently
+            String unsupported = AnimationRunner.unsupportedOption(options);
+            if (unsupported != null) {
+                System.out.println("invalid input! --" + unsupported + " can't be used with --"
+                        + AnimationRunner.EVENTS);
+                return;
             }
-            GUI gui = new GUI("MultipleBouncingBallsAnimation", WIDTH, HEIGHT);
-            Sleeper sleeper = new Sleeper();
-            // moving the balls
-            while (true) {
-                DrawSurface d = gui.getDrawSurface();
-                for (Ball ball : ballsArray) {
-                    ball.drawOn(d);
-                    ball.moveOneStep();
-                    adjustBallToScreen(ball);
+            RandomStreams.setSeed(options);
+            SplittableRandom rand = RandomStreams.newRandom();
+            Frame screen = new Frame(LEFT_BORDER, TOP_BORDER, RIGHT_BORDER, BOTTOM_BORDER, Color.WHITE);
+            // the balls (and the frames drawn behind them) are loaded from a scenario file, or without balls the
+            // world is restarted from the shared world file - only otherwise the balls are created from the sizes
+            Frame[] backgrounds = new Frame[0];
+            SharedWorld world = null;
+            BallStore store;
+            if (options.has(AnimationRunner.SCENARIO)) {
+                ScenarioLoader loader = new ScenarioLoader(screen, rand);
+                try {
+                    store = loader.load(options.getString(AnimationRunner.SCENARIO, ""));
+                } catch (IOException e) {
+                    throw new IOException("can't read the scenario: " + e.getMessage(), e);
+                } catch (RuntimeException e) {
+                    // the loader's message tells which line is invalid and why
+                    System.out.println(e.getMessage());
+                    return;
                 }
-                sleeper.sleepFor(50);  // wait for 50 milliseconds.
-                gui.show(d);
+                backgrounds = loader.getFrames();
+            } else if (options.has(AnimationRunner.SHARED) && args.length == 0) {
+                world = openWorld(options.getString(AnimationRunner.SHARED, ""));
+                store = world.restore();
+            } else {
+                store = createStore(args, screen, rand, options.has(AnimationRunner.SPAWN));
+            }
+            if (options.has(AnimationRunner.SHARED) && world == null) {
+                world = createWorld(options.getString(AnimationRunner.SHARED, ""), store);
+            }
+            store.setThreads((int) options.getLong(AnimationRunner.THREADS, 1));
+            store.setCollisions(options.has(AnimationRunner.COLLISIONS));
+            store.setContinuous(options.has(AnimationRunner.CONTINUOUS));
+            store.setSimd(options.has(AnimationRunner.SIMD));
+            Line[] obstacles = new Line[(int) options.getLong(AnimationRunner.OBSTACLES, 0)];
+            for (int i = 0; i < obstacles.length; i++) {
+                obstacles[i] = screen.createLineInFrame(MAX_OBSTACLE_LENGTH);
+            }
+            store.setObstacles(obstacles);
+            if (options.has(AnimationRunner.SEEK)) {
+                store.seek(options.getLong(AnimationRunner.SEEK, 0));
             }
+            BouncingBallsScene scene = new BouncingBallsScene(store, backgrounds);
+            scene.share(world);
+            if (options.has(AnimationRunner.RECORD)) {
+                record(scene, options.getString(AnimationRunner.RECORD, ""));
+            }
+            if (options.has(AnimationRunner.RASTER) || options.has(AnimationRunner.DIRTY)) {
+                scene.setRenderer(new RasterBallRenderer(screen));
+            }
+            // the frames and the obstacles don't change, they are drawn once
+            if (options.has(AnimationRunner.DIRTY)) {
+                scene.cacheBackground();
+            }
+            // moving the balls
+            Simulation simulation = options.has(AnimationRunner.EVENTS)
+                    ? new EventDrivenEngine(store, backgrounds) : scene;
+            AnimationRunner.run(simulation, "MultipleBouncingBallsAnimation", WIDTH, HEIGHT, options);
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
         } catch (RuntimeException e) {
             System.out.println("invalid input!");
         }
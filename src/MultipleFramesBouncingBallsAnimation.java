@@ -1,10 +1,7 @@
 // ID - 212945760
 
-import biuoop.DrawSurface;
-import biuoop.GUI;
-import biuoop.Sleeper;
-
 import java.awt.Color;
+import java.io.IOException;
 
 /**
  * The MultipleFramesBouncingBallsAnimation, which will create bouncing balls like in the
@@ -28,43 +25,93 @@ public class MultipleFramesBouncingBallsAnimation {
     private static final Point TOP_LEFT_2 = new Point(450, 450);
     private static final Point BOTTOM_RIGHT_2 = new Point(600, 600);
 
+    /**
+     * The maximal length of an obstacle line.
+     */
+    private static final int MAX_OBSTACLE_LENGTH = 120;
+
     /**
      * The main method to create bouncing balls like in the MultipleBouncingBallsAnimation class, only in 2 frames.
      *
-     * @param args the command line arguments.
+     * @param args the command line arguments (the sizes of the balls, and the options of AnimationRunner).
      */
     public static void main(String[] args) {
         try {
-            GUI gui = new GUI("MultipleFramesBouncingBallsAnimation", WIDTH, HEIGHT);
-            Sleeper sleeper = new Sleeper();
+            RunOptions options = new RunOptions(args);
+            args = options.getArgs();
+            // the event-driven engine replaces the scene, so the options of the scene would be dropped silently
+            String unsupported = AnimationRunner.unsupportedOption(options);
+            if (unsupported != null) {
+                System.out.println("invalid input! --" + unsupported + " can't be used with --"
+                        + AnimationRunner.EVENTS);
+                return;
+            }
+            // the balls are always created from the sizes, half of them in every frame
+            for (String name : new String[] {AnimationRunner.SCENARIO, AnimationRunner.SPAWN}) {
+                if (options.has(name)) {
+                    System.out.println("invalid input! --" + name + " can't be used with two frames");
+                    return;
+                }
+            }
+            RandomStreams.setSeed(options);
             Frame frame1 = new Frame(TOP_LEFT_1, BOTTOM_RIGHT_1, Color.gray),
                     frame2 = new Frame(TOP_LEFT_2, BOTTOM_RIGHT_2, Color.yellow);
-            Ball[] balls = new Ball[args.length];
-            for (int i = 0; i < balls.length; i++) {
+            BallStore store = new BallStore(args.length);
+            // to avoid the case of being in both of the frames
+            FrameRegionSampler outOfFrame2 = new FrameRegionSampler(frame1, frame2);
+            for (int i = 0; i < args.length; i++) {
                 int size = 0;
                 size = (int) Double.parseDouble(args[i]);
+                Ball ball;
                 if (i < args.length / 2) {
-                    // to avoid the case of being in both of the frames
-                    do {
-                        balls[i] = frame1.createBallInFrame(size);
-                    } while (balls[i].isBallInFrame(frame2));
+                    ball = frame1.createBallInFrame(outOfFrame2.sample(size), size);
                 } else {
-                    balls[i] = frame2.createBallInFrame(size);
+                    ball = frame2.createBallInFrame(size);
                 }
+                store.add(ball);
             }
-            while (true) {
-                DrawSurface d = gui.getDrawSurface();
-                frame1.drawFrame(d);
-                frame2.drawFrame(d);
-                for (Ball ball : balls) {
-                    ball.getFrame().checkColor(ball);
-                    ball.drawOn(d);
-                    ball.moveOneStep();
-                    ball.getFrame().adjustBallToFrame(ball);
+            // without balls, the world is restarted from the shared world file
+            SharedWorld world = null;
+            if (options.has(AnimationRunner.SHARED)) {
+                String path = options.getString(AnimationRunner.SHARED, "");
+                if (args.length == 0) {
+                    world = MultipleBouncingBallsAnimation.openWorld(path);
+                    store = world.restore();
+                } else {
+                    world = MultipleBouncingBallsAnimation.createWorld(path, store);
                 }
-                sleeper.sleepFor(50);  // wait for 50 milliseconds.
-                gui.show(d);
             }
+            store.setThreads((int) options.getLong(AnimationRunner.THREADS, 1));
+            store.setCollisions(options.has(AnimationRunner.COLLISIONS));
+            store.setContinuous(options.has(AnimationRunner.CONTINUOUS));
+            store.setSimd(options.has(AnimationRunner.SIMD));
+            // the obstacles are split between the frames
+            Line[] obstacles = new Line[(int) options.getLong(AnimationRunner.OBSTACLES, 0)];
+            for (int i = 0; i < obstacles.length; i++) {
+                obstacles[i] = ((i % 2 == 0) ? frame1 : frame2).createLineInFrame(MAX_OBSTACLE_LENGTH);
+            }
+            store.setObstacles(obstacles);
+            if (options.has(AnimationRunner.SEEK)) {
+                store.seek(options.getLong(AnimationRunner.SEEK, 0));
+            }
+            BouncingBallsScene scene = new BouncingBallsScene(store, frame1, frame2);
+            scene.share(world);
+            if (options.has(AnimationRunner.RECORD)) {
+                MultipleBouncingBallsAnimation.record(scene, options.getString(AnimationRunner.RECORD, ""));
+            }
+            if (options.has(AnimationRunner.RASTER) || options.has(AnimationRunner.DIRTY)) {
+                scene.setRenderer(new RasterBallRenderer(new Frame(0, 0, WIDTH, HEIGHT, Color.WHITE)));
+            }
+            // the frames and the obstacles don't change, they are drawn once
+            if (options.has(AnimationRunner.DIRTY)) {
+                scene.cacheBackground();
+            }
+            // the store moves the balls and keeps their colors different than their frames' colors
+            Simulation simulation = options.has(AnimationRunner.EVENTS)
+                    ? new EventDrivenEngine(store, frame1, frame2) : scene;
+            AnimationRunner.run(simulation, "MultipleFramesBouncingBallsAnimation", WIDTH, HEIGHT, options);
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
         } catch (RuntimeException e) {
             System.out.println("invalid input");
         }
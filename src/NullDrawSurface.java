@@ -0,0 +1,111 @@
+// ID - 212945760
+
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+
+/**
+ * The NullDrawSurface class - a DrawSurface which doesn't draw anything, it only counts the drawing calls.
+ * It is used to run simulations headless (without a window), where only the cost of the simulation is measured.
+ *
+ * @author Ori Dabush
+ */
+public class NullDrawSurface implements DrawSurface {
+
+    private int width;
+    private int height;
+    private long calls;
+
+    /**
+     * A constructor that creates a surface with the given size.
+     *
+     * @param width  the width of the surface.
+     * @param height the height of the surface.
+     */
+    public NullDrawSurface(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.calls = 0;
+    }
+
+    /**
+     * A method to get the number of drawing calls made on the surface.
+     *
+     * @return the number of drawing calls.
+     */
+    public long getCallCount() {
+        return this.calls;
+    }
+
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    @Override
+    public int getHeight() {
+        return this.height;
+    }
+
+    @Override
+    public void setColor(Color color) {
+        this.calls++;
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        this.calls++;
+    }
+
+    @Override
+    public void drawOval(int x, int y, int w, int h) {
+        this.calls++;
+    }
+
+    @Override
+    public void fillOval(int x, int y, int w, int h) {
+        this.calls++;
+    }
+
+    @Override
+    public void drawRectangle(int x, int y, int w, int h) {
+        this.calls++;
+    }
+
+    @Override
+    public void fillRectangle(int x, int y, int w, int h) {
+        this.calls++;
+    }
+
+    @Override
+    public void drawImage(int x, int y, Image image) {
+        this.calls++;
+    }
+
+    @Override
+    public void drawCircle(int x, int y, int r) {
+        this.calls++;
+    }
+
+    @Override
+    public void fillCircle(int x, int y, int r) {
+        this.calls++;
+    }
+
+    @Override
+    public void drawText(int x, int y, String text, int fontSize) {
+        this.calls++;
+    }
+
+    @Override
+    public void drawPolygon(Polygon p) {
+        this.calls++;
+    }
+
+    @Override
+    public void fillPolygon(Polygon p) {
+        this.calls++;
+    }
+}
@@ -0,0 +1,145 @@
+// ID - 212945760
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The ParallelBallStepper class - steps the balls of a BallStore on several threads. The balls are split into
+ * chunks of consecutive indexes, a few chunks for every thread, and the chunks are stepped by the workers of a
+ * ForkJoinPool. Every chunk has its own random source (split from one seed), so the workers never share a random
+ * source when balls bounce and change their colors, and its own SegmentHit for the casts against the obstacles.
+ *
+ * @author Ori Dabush
+ */
+public class ParallelBallStepper {
+
+    /**
+     * The number of chunks for every thread (more chunks than threads let fast workers steal work).
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * The minimal number of balls in a chunk (smaller chunks aren't worth a task).
+     */
+    private static final int MIN_CHUNK_SIZE = 1024;
+
+    private BallStore store;
+    private int threads;
+    private ForkJoinPool pool;
+    private SplittableRandom seed;
+    private Chunk[] chunks;
+    private int chunkedSize;
+
+    /**
+     * A constructor that creates a parallel stepper for a store.
+     *
+     * @param store   the store.
+     * @param threads the number of threads.
+     * @param seed    the random source to split the random sources of the chunks from.
+     */
+    public ParallelBallStepper(BallStore store, int threads, SplittableRandom seed) {
+        this.store = store;
+        this.threads = threads;
+        this.pool = new ForkJoinPool(threads);
+        this.seed = seed;
+        this.chunks = new Chunk[0];
+        this.chunkedSize = -1;
+    }
+
+    /**
+     * A method to get the number of threads.
+     *
+     * @return the number of threads.
+     */
+    public int getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * A method that steps all the balls of the store, and returns when all of them were stepped.
+     *
+     * @return the number of bounces off the borders of the frames.
+     */
+    public int step() {
+        int size = this.store.size();
+        if (size != this.chunkedSize) {
+            this.split(size);
+        }
+        if (this.chunks.length == 1) {
+            this.chunks[0].compute();
+            return this.chunks[0].bounces;
+        }
+        for (Chunk c : this.chunks) {
+            c.reinitialize();
+        }
+        this.pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(ParallelBallStepper.this.chunks);
+            }
+        });
+        int bounces = 0;
+        for (Chunk c : this.chunks) {
+            bounces += c.bounces;
+        }
+        return bounces;
+    }
+
+    /**
+     * A method that splits the balls into chunks (when the number of balls changes). Chunks that already exist keep
+     * their random sources.
+     *
+     * @param size the number of balls.
+     */
+    private void split(int size) {
+        int count = Math.max(1, Math.min(this.threads * CHUNKS_PER_THREAD, size / MIN_CHUNK_SIZE));
+        Chunk[] newChunks = new Chunk[count];
+        for (int i = 0; i < count; i++) {
+            SplittableRandom random = (i < this.chunks.length) ? this.chunks[i].random : this.seed.split();
+            newChunks[i] = new Chunk((int) ((long) size * i / count), (int) ((long) size * (i + 1) / count), random);
+        }
+        this.chunks = newChunks;
+        this.chunkedSize = size;
+    }
+
+    /**
+     * A method that stops the threads of the stepper.
+     */
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+
+    /**
+     * A chunk of balls, which is stepped by one worker with its own random source.
+     */
+    private final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private int from;
+        private int to;
+        private SplittableRandom random;
+        private SegmentHit hit;
+        private int bounces;
+
+        /**
+         * A constructor that creates a chunk.
+         *
+         * @param from   the index of the first ball.
+         * @param to     the index after the last ball.
+         * @param random the random source of the chunk.
+         */
+        private Chunk(int from, int to, SplittableRandom random) {
+            this.from = from;
+            this.to = to;
+            this.random = random;
+            this.hit = new SegmentHit();
+        }
+
+        @Override
+        protected void compute() {
+            this.bounces = ParallelBallStepper.this.store.stepRange(this.from, this.to, this.random, this.hit);
+        }
+    }
+}
@@ -78,6 +78,30 @@ public class Point {
         return cmpDouble(this.x, other.x) && cmpDouble(this.y, other.y);
     }
 
+    /**
+     * A method that moves the current point in place by the given deltas, without creating a new point.
+     * It is package-private - only the owner of a point (a ball moving on the tick path) moves it.
+     *
+     * @param deltaX the change in the x value.
+     * @param deltaY the change in the y value.
+     */
+    void translate(double deltaX, double deltaY) {
+        this.x += deltaX;
+        this.y += deltaY;
+    }
+
+    /**
+     * A method that sets the location of the current point in place, without creating a new point.
+     * It is package-private - only the owner of a point (a ball, or a buffer of a result) sets it.
+     *
+     * @param newX the new x value.
+     * @param newY the new y value.
+     */
+    void setLocation(double newX, double newY) {
+        this.x = newX;
+        this.y = newY;
+    }
+
     /**
      * @return the x value of the current point.
      */
@@ -0,0 +1,115 @@
+// ID - 212945760
+
+import java.util.Arrays;
+
+import biuoop.DrawSurface;
+
+/**
+ * The PointBuffer class - a growable list of points, kept as x and y values in one flat array of doubles instead
+ * of Point objects. Bulk geometry results (the middle points and the intersections of many lines) are written into
+ * a buffer, which can be cleared and reused, so finding and drawing millions of points doesn't create an object for
+ * every one of them.
+ *
+ * @author Ori Dabush
+ */
+public class PointBuffer {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The points - the x value of point i is in cell 2 * i, and its y value is in cell 2 * i + 1.
+     */
+    private double[] coordinates;
+    private int size;
+
+    /**
+     * A constructor that creates an empty buffer.
+     */
+    public PointBuffer() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * A constructor that creates an empty buffer with room for the given number of points.
+     *
+     * @param capacity the number of points the buffer can hold before it grows.
+     */
+    public PointBuffer(int capacity) {
+        this.coordinates = new double[2 * Math.max(capacity, 1)];
+        this.size = 0;
+    }
+
+    /**
+     * A method that adds a point to the end of the buffer.
+     *
+     * @param x the x value of the point.
+     * @param y the y value of the point.
+     */
+    public void add(double x, double y) {
+        if (2 * this.size == this.coordinates.length) {
+            this.coordinates = Arrays.copyOf(this.coordinates, 2 * this.coordinates.length);
+        }
+        this.coordinates[2 * this.size] = x;
+        this.coordinates[2 * this.size + 1] = y;
+        this.size++;
+    }
+
+    /**
+     * A method to get the number of points in the buffer.
+     *
+     * @return the number of points.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * A method that removes all the points (the buffer keeps its capacity).
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * A method to get the x value of a point.
+     *
+     * @param i the index of the point.
+     * @return the x value.
+     */
+    public double getX(int i) {
+        return this.coordinates[2 * i];
+    }
+
+    /**
+     * A method to get the y value of a point.
+     *
+     * @param i the index of the point.
+     * @return the y value.
+     */
+    public double getY(int i) {
+        return this.coordinates[2 * i + 1];
+    }
+
+    /**
+     * A method to get a point as a Point object (a new one, changing it doesn't change the buffer).
+     *
+     * @param i the index of the point.
+     * @return the point.
+     */
+    public Point get(int i) {
+        return new Point(this.getX(i), this.getY(i));
+    }
+
+    /**
+     * A method that draws all the points of the buffer as filled circles on the given DrawSurface, in its current
+     * color.
+     *
+     * @param d      the DrawSurface.
+     * @param radius the radius of the circles.
+     */
+    public void drawOn(DrawSurface d, int radius) {
+        for (int i = 0; i < this.size; i++) {
+            d.fillCircle((int) this.coordinates[2 * i], (int) this.coordinates[2 * i + 1], radius);
+        }
+    }
+}
@@ -0,0 +1,372 @@
+// ID - 212945760
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The PoissonDiskSpawner class - places many balls of given sizes in a frame, so that no two balls overlap
+ * (Poisson-disk sampling with a different radius for every ball).
+ * The balls are placed from the biggest to the smallest. A ball gets a few random places in the frame, and then
+ * places right next to balls that were already placed (in the ring around them, like Bridson's algorithm), until
+ * one of them is free. If none of them is, the ball takes the first free place of a lattice over the frame.
+ * Whether a place is free is checked with a uniform grid of the centers of the placed balls, so only the balls in
+ * the nearby cells are checked.
+ * For many balls the frame is split into vertical strips which are wider than the biggest ball, and the balls are
+ * spread between them (by the width of the strips). Every strip places its balls with its own random source, and
+ * the strips are placed in two rounds - the even strips and then the odd strips - on several threads. Strips of the
+ * same round are never next to each other, so their balls can't overlap, and the grid cells of a strip are only
+ * written by its own task. The result doesn't depend on the number of threads.
+ *
+ * @author Ori Dabush
+ */
+public class PoissonDiskSpawner {
+
+    /**
+     * The number of random places in the whole strip a ball tries first, and the number of places it tries in all.
+     */
+    private static final int RANDOM_ATTEMPTS = 8;
+    private static final int MAX_ATTEMPTS = 64;
+
+    /**
+     * The minimal number of balls that are placed on several threads, and the minimal number of strips for it.
+     */
+    private static final int PARALLEL_THRESHOLD = 20000;
+    private static final int MIN_STRIPS = 4;
+
+    /**
+     * A multiplier which spreads the balls between the strips evenly (the fraction of the golden ratio).
+     */
+    private static final double SPREAD = 0.6180339887498949;
+
+    /**
+     * The maximal number of grid cells for every ball (the cells are made bigger if there are more).
+     */
+    private static final int MAX_CELLS_PER_BALL = 4;
+
+    private double left;
+    private double top;
+    private double right;
+    private double bottom;
+    private int[] sizes;
+    private int maxSize;
+
+    /**
+     * The places of the balls.
+     */
+    private double[] x;
+    private double[] y;
+
+    /**
+     * The grid of the centers - the first ball of every cell, and the next ball in the cell of every ball (-1 is
+     * the end of a cell).
+     */
+    private double cellSize;
+    private int columns;
+    private int rows;
+    private int[] cellHead;
+    private int[] next;
+
+    /**
+     * The strips - the first column of every strip (and the number of columns after the last strip), and the
+     * balls of every strip.
+     */
+    private int[] stripColumn;
+    private int[][] stripBalls;
+    private SplittableRandom[] stripRandom;
+
+    /**
+     * A constructor that creates a spawner of balls in a frame.
+     *
+     * @param frame  the frame.
+     * @param sizes  the sizes (radii) of the balls.
+     * @param random the random source to split the random sources of the strips from.
+     * @throws RuntimeException if a ball is bigger than the frame.
+     */
+    public PoissonDiskSpawner(Frame frame, int[] sizes, SplittableRandom random) throws RuntimeException {
+        this.left = frame.getLeftBorder();
+        this.top = frame.getTopBorder();
+        this.right = frame.getRightBorder();
+        this.bottom = frame.getBottomBorder();
+        this.sizes = sizes;
+        this.maxSize = 0;
+        long total = 0;
+        for (int size : sizes) {
+            if (size < 0) {
+                throw new RuntimeException("input is invalid. the size can't be negative.");
+            }
+            if (2 * size + 2 >= Math.min(frame.getWidth(), frame.getHeight())) {
+                throw new RuntimeException("input is invalid. a ball is bigger than the frame's size.");
+            }
+            this.maxSize = Math.max(this.maxSize, size);
+            total += size;
+        }
+        int n = sizes.length;
+        this.x = new double[n];
+        this.y = new double[n];
+        // cells of about the diameter of an average ball, but not too many of them.
+        this.cellSize = Math.max(1, 2.0 * total / Math.max(n, 1));
+        double area = frame.getWidth() * frame.getHeight(), maxCells = (double) MAX_CELLS_PER_BALL * Math.max(n, 1);
+        if (area / (this.cellSize * this.cellSize) > maxCells) {
+            this.cellSize = Math.sqrt(area / maxCells);
+        }
+        this.columns = (int) Math.ceil(frame.getWidth() / this.cellSize);
+        this.rows = (int) Math.ceil(frame.getHeight() / this.cellSize);
+        this.cellHead = new int[this.columns * this.rows];
+        Arrays.fill(this.cellHead, -1);
+        this.next = new int[n];
+        this.split(random);
+    }
+
+    /**
+     * A method that splits the frame into strips which are wider than the biggest ball, and spreads the balls
+     * between them (from the biggest to the smallest in every strip).
+     *
+     * @param random the random source to split the random sources of the strips from.
+     */
+    private void split(SplittableRandom random) {
+        int n = this.sizes.length;
+        int stripColumns = (int) Math.ceil(2.0 * this.maxSize / this.cellSize) + 1;
+        int strips = this.columns / stripColumns;
+        if (n < PARALLEL_THRESHOLD || strips < MIN_STRIPS) {
+            strips = 1;
+        }
+        this.stripColumn = new int[strips + 1];
+        for (int s = 0; s < strips; s++) {
+            this.stripColumn[s] = s * stripColumns;
+        }
+        this.stripColumn[strips] = this.columns;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        final int[] ballSizes = this.sizes;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Integer.compare(ballSizes[b], ballSizes[a]);
+            }
+        });
+        // the strip of every ball (by the column a spread fraction of it falls in), and the balls of every strip.
+        int[] stripOf = new int[n];
+        int[] counts = new int[strips];
+        for (int k = 0; k < n; k++) {
+            int column = (int) ((k * SPREAD) % 1.0 * this.columns);
+            int s = Math.min(strips - 1, column / stripColumns);
+            stripOf[k] = s;
+            counts[s]++;
+        }
+        this.stripBalls = new int[strips][];
+        this.stripRandom = new SplittableRandom[strips];
+        for (int s = 0; s < strips; s++) {
+            this.stripBalls[s] = new int[counts[s]];
+            this.stripRandom[s] = random.split();
+            counts[s] = 0;
+        }
+        for (int k = 0; k < n; k++) {
+            this.stripBalls[stripOf[k]][counts[stripOf[k]]++] = order[k];
+        }
+    }
+
+    /**
+     * A method that places all the balls (on several threads when there are many of them).
+     *
+     * @throws RuntimeException if there's no room for one of the balls.
+     */
+    public void place() throws RuntimeException {
+        int strips = this.stripBalls.length;
+        if (strips == 1) {
+            this.placeStrip(0);
+            return;
+        }
+        for (int round = 0; round < 2; round++) {
+            final StripTask[] tasks = new StripTask[(strips - round + 1) / 2];
+            for (int t = 0; t < tasks.length; t++) {
+                tasks[t] = new StripTask(2 * t + round);
+            }
+            ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    ForkJoinTask.invokeAll(tasks);
+                }
+            });
+        }
+    }
+
+    /**
+     * A method that places the balls of a strip.
+     *
+     * @param s the index of the strip.
+     * @throws RuntimeException if there's no room for one of the balls.
+     */
+    private void placeStrip(int s) throws RuntimeException {
+        SplittableRandom random = this.stripRandom[s];
+        int[] balls = this.stripBalls[s];
+        double low = this.left + this.stripColumn[s] * this.cellSize;
+        double high = Math.min(this.right, this.left + this.stripColumn[s + 1] * this.cellSize);
+        for (int k = 0; k < balls.length; k++) {
+            int i = balls[k], r = this.sizes[i];
+            // the centers are far enough from the borders that the ball doesn't bounce right away.
+            double minX = Math.max(low, this.left + r + 1), maxX = Math.min(high, this.right - r - 1);
+            double minY = this.top + r + 1, maxY = this.bottom - r - 1;
+            boolean isPlaced = false;
+            for (int attempt = 0; attempt < MAX_ATTEMPTS && !isPlaced; attempt++) {
+                double cx, cy;
+                if (attempt < RANDOM_ATTEMPTS || k == 0) {
+                    cx = minX + random.nextDouble() * Math.max(maxX - minX, 0);
+                    cy = minY + random.nextDouble() * (maxY - minY);
+                } else {
+                    // in the ring around a ball that was already placed, up to a diameter away from it.
+                    int other = balls[random.nextInt(k)];
+                    double angle = random.nextDouble() * 2 * Math.PI;
+                    double distance = this.sizes[other] + r + random.nextDouble() * Math.max(r, 1);
+                    cx = this.x[other] + Math.cos(angle) * distance;
+                    cy = this.y[other] + Math.sin(angle) * distance;
+                }
+                if (cx >= minX && cx < maxX && cy >= minY && cy < maxY && this.isFree(cx, cy, r)) {
+                    this.insert(i, cx, cy);
+                    isPlaced = true;
+                }
+            }
+            if (!isPlaced && !this.scan(i, minX, maxX, minY, maxY, random)) {
+                throw new RuntimeException("input is invalid. there's no room for a ball of size " + r + ".");
+            }
+        }
+    }
+
+    /**
+     * A method that places a ball which didn't find a free random place - it checks the places of a lattice over
+     * its range (with a step of half its radius, from a random row), and takes the first free one.
+     *
+     * @param i      the index of the ball.
+     * @param minX   the smallest x value of the center.
+     * @param maxX   the x value the center must be smaller than.
+     * @param minY   the smallest y value of the center.
+     * @param maxY   the y value the center must be smaller than.
+     * @param random the random source.
+     * @return true if the ball was placed, false if there's no free place.
+     */
+    private boolean scan(int i, double minX, double maxX, double minY, double maxY, SplittableRandom random) {
+        int r = this.sizes[i];
+        double step = Math.max(1, r / 2.0);
+        int columnCount = (int) Math.ceil((maxX - minX) / step), rowCount = (int) Math.ceil((maxY - minY) / step);
+        int firstRow = (rowCount == 0) ? 0 : random.nextInt(rowCount);
+        for (int k = 0; k < rowCount; k++) {
+            double cy = minY + ((firstRow + k) % rowCount) * step;
+            for (int c = 0; c < columnCount; c++) {
+                double cx = minX + c * step;
+                if (this.isFree(cx, cy, r)) {
+                    this.insert(i, cx, cy);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A method that checks if a ball can be placed at a center without overlapping the balls that were placed.
+     *
+     * @param cx the x value of the center.
+     * @param cy the y value of the center.
+     * @param r  the radius of the ball.
+     * @return true if the ball doesn't overlap any placed ball, false otherwise.
+     */
+    private boolean isFree(double cx, double cy, int r) {
+        double reach = r + this.maxSize;
+        int c0 = this.column(cx - reach), c1 = this.column(cx + reach);
+        int r0 = this.row(cy - reach), r1 = this.row(cy + reach);
+        for (int row = r0; row <= r1; row++) {
+            for (int col = c0; col <= c1; col++) {
+                for (int j = this.cellHead[row * this.columns + col]; j >= 0; j = this.next[j]) {
+                    double dx = this.x[j] - cx, dy = this.y[j] - cy, min = r + this.sizes[j];
+                    if (dx * dx + dy * dy < min * min) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A method that places a ball at a center, and puts it in the cell of its center.
+     *
+     * @param i  the index of the ball.
+     * @param cx the x value of the center.
+     * @param cy the y value of the center.
+     */
+    private void insert(int i, double cx, double cy) {
+        this.x[i] = cx;
+        this.y[i] = cy;
+        int cell = this.row(cy) * this.columns + this.column(cx);
+        this.next[i] = this.cellHead[cell];
+        this.cellHead[cell] = i;
+    }
+
+    /**
+     * A method that calculates the column of an x value in the grid (clamped to the grid).
+     *
+     * @param v the x value.
+     * @return the column.
+     */
+    private int column(double v) {
+        return Math.max(0, Math.min(this.columns - 1, (int) Math.floor((v - this.left) / this.cellSize)));
+    }
+
+    /**
+     * A method that calculates the row of a y value in the grid (clamped to the grid).
+     *
+     * @param v the y value.
+     * @return the row.
+     */
+    private int row(double v) {
+        return Math.max(0, Math.min(this.rows - 1, (int) Math.floor((v - this.top) / this.cellSize)));
+    }
+
+    /**
+     * A method to get the x value of the center of a ball (after place).
+     *
+     * @param i the index of the ball.
+     * @return the x value.
+     */
+    public double getX(int i) {
+        return this.x[i];
+    }
+
+    /**
+     * A method to get the y value of the center of a ball (after place).
+     *
+     * @param i the index of the ball.
+     * @return the y value.
+     */
+    public double getY(int i) {
+        return this.y[i];
+    }
+
+    /**
+     * A task that places the balls of one strip.
+     */
+    private final class StripTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private int strip;
+
+        /**
+         * A constructor that creates a task of a strip.
+         *
+         * @param strip the index of the strip.
+         */
+        private StripTask(int strip) {
+            this.strip = strip;
+        }
+
+        @Override
+        protected void compute() {
+            PoissonDiskSpawner.this.placeStrip(this.strip);
+        }
+    }
+}
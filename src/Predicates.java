@@ -0,0 +1,118 @@
+// ID - 212945760
+
+import java.math.BigDecimal;
+
+/**
+ * The Predicates class - exact geometric predicates on points with double coordinates: the orientation of three
+ * points and if a point is on a line segment.
+ * The orientation is the sign of a determinant. It is first calculated with doubles, and if the result is bigger
+ * than the largest rounding error it can have (the bound of Shewchuk's adaptive orient2d), its sign is right.
+ * Only when it isn't - the points are collinear or almost collinear - the error is checked: if the calculation had
+ * no rounding at all (like with small integer coordinates), comparing the two products is exact. Otherwise the
+ * determinant is calculated again exactly, with BigDecimal (every double is a BigDecimal, and their sums and
+ * products are exact). So the answers are always exact, and the exact cost is paid only on degenerate input.
+ *
+ * @author Ori Dabush
+ */
+public final class Predicates {
+
+    /**
+     * The bound of the relative rounding error of the orientation determinant, (3 + 16 * e) * e where e is the
+     * machine epsilon of doubles (2 ^ -53).
+     */
+    private static final double ORIENT_ERROR_BOUND = (3.0 + 16.0 * Math.ulp(0.5)) * Math.ulp(0.5);
+
+    /**
+     * A private constructor, the class only has static methods.
+     */
+    private Predicates() {
+    }
+
+    /**
+     * A method that finds the orientation of three points - if c is to the left of the directed line from a to b
+     * (counterclockwise, when the y axis goes up), to its right, or on it.
+     *
+     * @param ax the x value of a.
+     * @param ay the y value of a.
+     * @param bx the x value of b.
+     * @param by the y value of b.
+     * @param cx the x value of c.
+     * @param cy the y value of c.
+     * @return 1 if a, b and c are counterclockwise, -1 if they are clockwise and 0 if they are collinear.
+     */
+    public static int orient2d(double ax, double ay, double bx, double by, double cx, double cy) {
+        double acx = ax - cx, bcy = by - cy, acy = ay - cy, bcx = bx - cx;
+        // a difference of doubles is 0 only if they are equal, so products with a 0 factor are exact.
+        if ((acx == 0 || bcy == 0) && (acy == 0 || bcx == 0)) {
+            return 0;
+        }
+        double left = acx * bcy, right = acy * bcx, det = left - right;
+        // when the products have different signs there is no cancellation, the sign is right.
+        if ((left > 0 && right <= 0) || (left < 0 && right >= 0)) {
+            return (int) Math.signum(det);
+        }
+        if (Math.abs(det) > ORIENT_ERROR_BOUND * (Math.abs(left) + Math.abs(right))) {
+            return (int) Math.signum(det);
+        }
+        // if the differences and the products had no rounding (like with small integer coordinates), comparing the
+        // products is exact.
+        boolean isExact = isExactDifference(ax, cx, acx) && isExactDifference(by, cy, bcy)
+                && isExactDifference(ay, cy, acy) && isExactDifference(bx, cx, bcx);
+        if (isExact && Math.fma(acx, bcy, -left) == 0 && Math.fma(acy, bcx, -right) == 0) {
+            return Double.compare(left, right);
+        }
+        return orient2dExact(ax, ay, bx, by, cx, cy);
+    }
+
+    /**
+     * A method that checks if the difference of two doubles was calculated without rounding (by the rounding error
+     * of Knuth's two-sum).
+     *
+     * @param a          the first double.
+     * @param b          the second double.
+     * @param difference the rounded difference, a - b.
+     * @return true if the difference is exact, false otherwise.
+     */
+    private static boolean isExactDifference(double a, double b, double difference) {
+        double bVirtual = a - difference, aVirtual = difference + bVirtual;
+        return (a - aVirtual) + (bVirtual - b) == 0;
+    }
+
+    /**
+     * A method that finds the orientation of three points exactly, with BigDecimal.
+     *
+     * @param ax the x value of a.
+     * @param ay the y value of a.
+     * @param bx the x value of b.
+     * @param by the y value of b.
+     * @param cx the x value of c.
+     * @param cy the y value of c.
+     * @return 1 if a, b and c are counterclockwise, -1 if they are clockwise and 0 if they are collinear.
+     */
+    private static int orient2dExact(double ax, double ay, double bx, double by, double cx, double cy) {
+        if (!Double.isFinite(ax) || !Double.isFinite(ay) || !Double.isFinite(bx) || !Double.isFinite(by)
+                || !Double.isFinite(cx) || !Double.isFinite(cy)) {
+            return (int) Math.signum((ax - cx) * (by - cy) - (ay - cy) * (bx - cx));
+        }
+        BigDecimal x = new BigDecimal(cx), y = new BigDecimal(cy);
+        BigDecimal left = new BigDecimal(ax).subtract(x).multiply(new BigDecimal(by).subtract(y));
+        BigDecimal right = new BigDecimal(ay).subtract(y).multiply(new BigDecimal(bx).subtract(x));
+        return left.compareTo(right);
+    }
+
+    /**
+     * A method that checks if a point is on a line segment (including its end points).
+     *
+     * @param px the x value of the point.
+     * @param py the y value of the point.
+     * @param ax the x value of the start of the segment.
+     * @param ay the y value of the start of the segment.
+     * @param bx the x value of the end of the segment.
+     * @param by the y value of the end of the segment.
+     * @return true if the point is on the segment, false otherwise.
+     */
+    public static boolean onSegment(double px, double py, double ax, double ay, double bx, double by) {
+        return Math.min(ax, bx) <= px && px <= Math.max(ax, bx) && Math.min(ay, by) <= py && py <= Math.max(ay, by)
+                && orient2d(ax, ay, bx, by, px, py) == 0;
+    }
+}
@@ -0,0 +1,51 @@
+// ID - 212945760
+
+import java.util.SplittableRandom;
+
+/**
+ * The RandomStreams class - the source of the random streams of the animations (the places, velocities and colors
+ * of the balls). Every stream is split from one root stream, so after setting the seed of the root (with the
+ * --seed option of the animations), a run makes exactly the same random choices as any other run with the same
+ * seed and input. Without a seed the root is seeded randomly.
+ *
+ * @author Ori Dabush
+ */
+public class RandomStreams {
+
+    /**
+     * The name of the option to set the seed of the random streams.
+     */
+    public static final String SEED = "seed";
+
+    private static SplittableRandom root = new SplittableRandom();
+
+    /**
+     * A method that sets the seed of the root stream. Streams that were created before aren't changed.
+     *
+     * @param seed the seed.
+     */
+    public static synchronized void setSeed(long seed) {
+        root = new SplittableRandom(seed);
+    }
+
+    /**
+     * A method that sets the seed of the root stream from the --seed option, if it was given.
+     *
+     * @param options the command line options.
+     */
+    public static void setSeed(RunOptions options) {
+        if (options.has(SEED)) {
+            setSeed(options.getLong(SEED, 0));
+        }
+    }
+
+    /**
+     * A method that creates a new random stream, split from the root stream. A stream is not thread safe - every
+     * thread should use its own stream.
+     *
+     * @return the new stream.
+     */
+    public static synchronized SplittableRandom newRandom() {
+        return root.split();
+    }
+}
@@ -0,0 +1,500 @@
+// ID - 212945760
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+import biuoop.DrawSurface;
+
+/**
+ * The RasterBallRenderer class - draws the balls of a BallStore straight into the pixels of an image, and gives the
+ * image to the DrawSurface with one drawImage call, instead of a setColor and a fillCircle call for every ball.
+ * The image covers a visible frame (usually the screen). Every frame, the image is cleared, the background frames
+ * are filled in it, and the balls are filled as rows of pixels (the rows of every radius are calculated once).
+ * Balls which are completely out of the visible frame are skipped, and the balls are drawn grouped by their color
+ * (in the order of the palette, and in the order of the store inside a color), so balls of the same color are
+ * drawn one after the other.
+ * The static content (the background frames and lines) can also be drawn once into a cached background, with
+ * cacheBackground. Then the image is kept between frames, and every frame only the tiles of the image that are
+ * covered by the old or the new bounds of a ball that changed are copied back from the background, and the balls
+ * that touch them are drawn again (in the order of the store, clipped to these tiles). So the cost of a frame
+ * depends on the number of moving balls, and not on the size of the image or the number of static objects.
+ *
+ * @author Ori Dabush
+ */
+public class RasterBallRenderer {
+
+    /**
+     * The color the image is cleared to (the background of the GUI).
+     */
+    private static final int CLEAR_COLOR = Color.WHITE.getRGB();
+
+    /**
+     * The size of the (square) tiles the image is split into, to keep the parts of it that need to be drawn again.
+     */
+    private static final int TILE_SIZE = 16;
+
+    private int left;
+    private int top;
+    private int width;
+    private int height;
+    private BufferedImage image;
+    private int[] pixels;
+
+    /**
+     * The half widths of the rows of the circles of every radius that was drawn so far.
+     */
+    private int[][] rows;
+
+    /**
+     * The order of the balls (grouped by color) and the first index of every color in it.
+     */
+    private int[] order;
+    private int[] colorStart;
+    private int drawn;
+    private int culled;
+
+    /**
+     * The part of the image that fillCircle draws in (the left and top borders are included, and the right and
+     * bottom borders are not).
+     */
+    private int clipLeft;
+    private int clipTop;
+    private int clipRight;
+    private int clipBottom;
+
+    /**
+     * The cached background (the pixels of the static content, null if it wasn't cached), and the bounds and the
+     * colors of the balls as they were drawn in the last frame (null before the first frame after caching).
+     */
+    private int[] background;
+    private int[] lastX;
+    private int[] lastY;
+    private int[] lastRadius;
+    private int[] lastColor;
+
+    /**
+     * The tiles of the image that have to be drawn again in the current frame - a flag for every tile, and a list
+     * of the flagged tiles.
+     */
+    private int tilesX;
+    private boolean[] isDirty;
+    private int[] dirtyTiles;
+    private int dirtyCount;
+
+    /**
+     * A constructor that creates a renderer for the given visible frame.
+     *
+     * @param visible the part of the surface the balls are drawn in.
+     */
+    public RasterBallRenderer(Frame visible) {
+        this.left = (int) visible.getLeftBorder();
+        this.top = (int) visible.getTopBorder();
+        this.width = Math.max((int) visible.getWidth(), 1);
+        this.height = Math.max((int) visible.getHeight(), 1);
+        this.image = new BufferedImage(this.width, this.height, BufferedImage.TYPE_INT_RGB);
+        this.pixels = ((DataBufferInt) this.image.getRaster().getDataBuffer()).getData();
+        this.rows = new int[0][];
+        this.order = new int[0];
+        this.colorStart = new int[ColorPalette.SIZE + 2];
+        this.tilesX = (this.width + TILE_SIZE - 1) / TILE_SIZE;
+        int tiles = this.tilesX * ((this.height + TILE_SIZE - 1) / TILE_SIZE);
+        this.isDirty = new boolean[tiles];
+        this.dirtyTiles = new int[tiles];
+        this.setClip(0, 0, this.width, this.height);
+    }
+
+    /**
+     * A method to get the image the balls are drawn in.
+     *
+     * @return the image.
+     */
+    public BufferedImage getImage() {
+        return this.image;
+    }
+
+    /**
+     * A method to get the number of balls that were drawn in the last frame.
+     *
+     * @return the number of drawn balls.
+     */
+    public int getDrawn() {
+        return this.drawn;
+    }
+
+    /**
+     * A method to get the number of balls that were skipped in the last frame, because they were out of the visible
+     * frame.
+     *
+     * @return the number of skipped balls.
+     */
+    public int getCulled() {
+        return this.culled;
+    }
+
+    /**
+     * A method to get the number of tiles that were drawn again in the last frame (only when the background is
+     * cached).
+     *
+     * @return the number of drawn tiles.
+     */
+    public int getDirtyTiles() {
+        return this.dirtyCount;
+    }
+
+    /**
+     * A method to check if the static content was cached with cacheBackground.
+     *
+     * @return true if the background is cached, false otherwise.
+     */
+    public boolean isBackgroundCached() {
+        return this.background != null;
+    }
+
+    /**
+     * A method that draws the background frames and the balls of a store in the image, and the image on a surface.
+     * If the background is cached, only the parts of the image that changed are drawn (and the given frames are
+     * ignored, they are in the background).
+     *
+     * @param d           the surface.
+     * @param store       the store.
+     * @param backgrounds the frames to draw behind the balls.
+     * @param alpha       the part of the last step to interpolate the balls by (1 for their current centers).
+     */
+    public void drawOn(DrawSurface d, BallStore store, Frame[] backgrounds, double alpha) {
+        if (this.background != null) {
+            this.renderDirty(store, alpha);
+        } else {
+            this.render(store, backgrounds, alpha);
+        }
+        d.drawImage(this.left, this.top, this.image);
+    }
+
+    /**
+     * A method that draws the static content - frames and then lines (in black) - once, and keeps it as the
+     * background of the following frames (which are drawn with renderDirty).
+     *
+     * @param backgrounds the frames.
+     * @param lines       the lines.
+     */
+    public void cacheBackground(Frame[] backgrounds, Line[] lines) {
+        Arrays.fill(this.pixels, CLEAR_COLOR);
+        for (Frame f : backgrounds) {
+            this.fillRectangle((int) f.getLeftBorder(), (int) f.getTopBorder(), (int) f.getWidth(),
+                    (int) f.getHeight(), f.getColor().getRGB());
+        }
+        Graphics2D g = this.image.createGraphics();
+        g.translate(-this.left, -this.top);
+        g.setColor(Color.BLACK);
+        for (Line l : lines) {
+            Point a = l.start(), b = l.end();
+            g.drawLine((int) a.getX(), (int) a.getY(), (int) b.getX(), (int) b.getY());
+        }
+        g.dispose();
+        this.background = this.pixels.clone();
+        this.lastX = null;
+    }
+
+    /**
+     * A method that draws the balls of a store in the image over the cached background, drawing again only the
+     * tiles that are covered by the old or the new bounds of a ball that moved, changed its size or its color.
+     * The first frame (and every frame after the number of balls changed) is drawn completely, and so is a frame
+     * in which more than a third of the tiles changed (then copying the whole background is cheaper).
+     *
+     * @param store the store.
+     * @param alpha the part of the last step to interpolate the balls by (1 for their current centers).
+     */
+    public void renderDirty(BallStore store, double alpha) {
+        if (this.background == null) {
+            throw new RuntimeException("input is invalid. the background wasn't cached.");
+        }
+        int n = store.size();
+        boolean isFull = this.lastX == null || this.lastX.length != n;
+        if (isFull) {
+            this.lastX = new int[n];
+            this.lastY = new int[n];
+            this.lastRadius = new int[n];
+            this.lastColor = new int[n];
+        }
+        // the tiles under the old and the new bounds of the balls that changed.
+        this.dirtyCount = 0;
+        for (int i = 0; i < n; i++) {
+            double px = store.getPreviousX(i), py = store.getPreviousY(i);
+            int cx = (int) (px + alpha * (store.getX(i) - px)) - this.left;
+            int cy = (int) (py + alpha * (store.getY(i) - py)) - this.top;
+            int r = store.getRadius(i), rgb = store.getColor(i);
+            if (!isFull && (cx != this.lastX[i] || cy != this.lastY[i] || r != this.lastRadius[i]
+                    || rgb != this.lastColor[i])) {
+                this.markDirty(this.lastX[i], this.lastY[i], this.lastRadius[i]);
+                this.markDirty(cx, cy, r);
+            }
+            this.lastX[i] = cx;
+            this.lastY[i] = cy;
+            this.lastRadius[i] = r;
+            this.lastColor[i] = rgb;
+        }
+        isFull = isFull || 3 * this.dirtyCount > this.isDirty.length;
+        if (isFull) {
+            System.arraycopy(this.background, 0, this.pixels, 0, this.pixels.length);
+        } else {
+            this.restoreDirty();
+        }
+        this.drawn = 0;
+        for (int i = 0; i < n; i++) {
+            if (this.drawDirty(i, isFull)) {
+                this.drawn++;
+            }
+        }
+        this.culled = n - this.drawn;
+        for (int k = 0; k < this.dirtyCount; k++) {
+            this.isDirty[this.dirtyTiles[k]] = false;
+        }
+        this.setClip(0, 0, this.width, this.height);
+    }
+
+    /**
+     * A method that copies the tiles that are drawn again from the background - every run of such tiles in a row of
+     * tiles is copied at once.
+     */
+    private void restoreDirty() {
+        int tilesY = this.isDirty.length / this.tilesX;
+        for (int ty = 0; ty < tilesY; ty++) {
+            int row = ty * this.tilesX;
+            for (int tx = 0; tx < this.tilesX; tx++) {
+                if (!this.isDirty[row + tx]) {
+                    continue;
+                }
+                int end = tx + 1;
+                while (end < this.tilesX && this.isDirty[row + end]) {
+                    end++;
+                }
+                int fromX = tx * TILE_SIZE, length = Math.min(end * TILE_SIZE, this.width) - fromX;
+                for (int y = ty * TILE_SIZE; y < Math.min((ty + 1) * TILE_SIZE, this.height); y++) {
+                    System.arraycopy(this.background, y * this.width + fromX, this.pixels, y * this.width + fromX,
+                            length);
+                }
+                tx = end;
+            }
+        }
+    }
+
+    /**
+     * A method that draws a ball (in its bounds of the current frame) in the tiles it touches which were drawn
+     * again - every run of such tiles in a row of tiles is drawn at once.
+     *
+     * @param i      the index of the ball.
+     * @param isFull true if the whole image was drawn again, false otherwise.
+     * @return true if any part of the ball was drawn, false otherwise.
+     */
+    private boolean drawDirty(int i, boolean isFull) {
+        int cx = this.lastX[i], cy = this.lastY[i], r = this.lastRadius[i];
+        if (r <= 0 || cx + r <= 0 || cx - r >= this.width || cy + r <= 0 || cy - r >= this.height) {
+            return false;
+        }
+        if (isFull) {
+            this.setClip(0, 0, this.width, this.height);
+            this.fillCircle(cx, cy, r, this.lastColor[i]);
+            return true;
+        }
+        boolean isDrawn = false;
+        int firstTileX = Math.max(cx - r, 0) / TILE_SIZE, lastTileX = Math.min(cx + r - 1, this.width - 1) / TILE_SIZE;
+        int lastTileY = Math.min(cy + r - 1, this.height - 1) / TILE_SIZE;
+        for (int ty = Math.max(cy - r, 0) / TILE_SIZE; ty <= lastTileY; ty++) {
+            int row = ty * this.tilesX;
+            for (int tx = firstTileX; tx <= lastTileX; tx++) {
+                if (!this.isDirty[row + tx]) {
+                    continue;
+                }
+                int end = tx + 1;
+                while (end <= lastTileX && this.isDirty[row + end]) {
+                    end++;
+                }
+                this.setClip(tx * TILE_SIZE, ty * TILE_SIZE, Math.min(end * TILE_SIZE, this.width),
+                        Math.min((ty + 1) * TILE_SIZE, this.height));
+                this.fillCircle(cx, cy, r, this.lastColor[i]);
+                isDrawn = true;
+                tx = end;
+            }
+        }
+        return isDrawn;
+    }
+
+    /**
+     * A method that marks the tiles under the bounds of a ball as tiles that have to be drawn again.
+     *
+     * @param cx the x value of the center (in the image).
+     * @param cy the y value of the center (in the image).
+     * @param r  the radius.
+     */
+    private void markDirty(int cx, int cy, int r) {
+        if (r <= 0 || cx + r <= 0 || cx - r >= this.width || cy + r <= 0 || cy - r >= this.height) {
+            return;
+        }
+        int lastTileX = Math.min(cx + r - 1, this.width - 1) / TILE_SIZE;
+        int lastTileY = Math.min(cy + r - 1, this.height - 1) / TILE_SIZE;
+        for (int ty = Math.max(cy - r, 0) / TILE_SIZE; ty <= lastTileY; ty++) {
+            for (int tx = Math.max(cx - r, 0) / TILE_SIZE; tx <= lastTileX; tx++) {
+                int tile = ty * this.tilesX + tx;
+                if (!this.isDirty[tile]) {
+                    this.isDirty[tile] = true;
+                    this.dirtyTiles[this.dirtyCount++] = tile;
+                }
+            }
+        }
+    }
+
+    /**
+     * A method that sets the part of the image that fillCircle draws in.
+     *
+     * @param fromX the left border (included).
+     * @param fromY the top border (included).
+     * @param toX   the right border (not included).
+     * @param toY   the bottom border (not included).
+     */
+    private void setClip(int fromX, int fromY, int toX, int toY) {
+        this.clipLeft = fromX;
+        this.clipTop = fromY;
+        this.clipRight = toX;
+        this.clipBottom = toY;
+    }
+
+    /**
+     * A method that draws the background frames and the balls of a store in the image.
+     *
+     * @param store       the store.
+     * @param backgrounds the frames to draw behind the balls.
+     * @param alpha       the part of the last step to interpolate the balls by (1 for their current centers).
+     */
+    public void render(BallStore store, Frame[] backgrounds, double alpha) {
+        // the image no longer has the balls of the last dirty frame, the next one is drawn completely.
+        this.lastX = null;
+        Arrays.fill(this.pixels, CLEAR_COLOR);
+        for (Frame f : backgrounds) {
+            this.fillRectangle((int) f.getLeftBorder(), (int) f.getTopBorder(), (int) f.getWidth(),
+                    (int) f.getHeight(), f.getColor().getRGB());
+        }
+        this.groupByColor(store);
+        this.setClip(0, 0, this.width, this.height);
+        this.drawn = 0;
+        for (int k = 0; k < this.colorStart[ColorPalette.SIZE + 1]; k++) {
+            int i = this.order[k];
+            double px = store.getPreviousX(i), py = store.getPreviousY(i);
+            int cx = (int) (px + alpha * (store.getX(i) - px)) - this.left;
+            int cy = (int) (py + alpha * (store.getY(i) - py)) - this.top;
+            int r = store.getRadius(i);
+            // culling the balls which are out of the visible frame.
+            if (cx + r < 0 || cx - r >= this.width || cy + r < 0 || cy - r >= this.height) {
+                continue;
+            }
+            this.fillCircle(cx, cy, r, store.getColor(i));
+            this.drawn++;
+        }
+        this.culled = store.size() - this.drawn;
+    }
+
+    /**
+     * A method that puts the indexes of the balls in the order of their colors (a counting sort by the index of the
+     * color in the palette - colors which are not in the palette come last).
+     *
+     * @param store the store.
+     */
+    private void groupByColor(BallStore store) {
+        int n = store.size();
+        if (this.order.length < n) {
+            this.order = new int[n];
+        }
+        int[] start = this.colorStart;
+        Arrays.fill(start, 0);
+        for (int i = 0; i < n; i++) {
+            start[colorKey(store.getColor(i)) + 1]++;
+        }
+        for (int c = 1; c < start.length; c++) {
+            start[c] += start[c - 1];
+        }
+        for (int i = 0; i < n; i++) {
+            this.order[start[colorKey(store.getColor(i))]++] = i;
+        }
+        // the last loop moved every start to the start of the next color.
+        for (int c = start.length - 1; c > 0; c--) {
+            start[c] = start[c - 1];
+        }
+        start[0] = 0;
+    }
+
+    /**
+     * A method that calculates the group of a color.
+     *
+     * @param rgb the RGB value of the color.
+     * @return the index of the color in the palette, or ColorPalette.SIZE if it is not in it.
+     */
+    private static int colorKey(int rgb) {
+        int index = ColorPalette.indexOf(rgb);
+        return (index < 0) ? ColorPalette.SIZE : index;
+    }
+
+    /**
+     * A method to get the half widths of the rows of a circle - row k is the row k - r below the center, and its
+     * pixels are from cx - rows[k] to cx + rows[k] (not included).
+     *
+     * @param r the radius.
+     * @return the half widths of the rows.
+     */
+    private int[] rowsOf(int r) {
+        if (r >= this.rows.length) {
+            this.rows = Arrays.copyOf(this.rows, Math.max(r + 1, 2 * this.rows.length));
+        }
+        if (this.rows[r] == null) {
+            int[] half = new int[2 * r];
+            for (int k = 0; k < 2 * r; k++) {
+                double dy = k - r + 0.5;
+                half[k] = (int) Math.round(Math.sqrt(Math.max((double) r * r - dy * dy, 0)));
+            }
+            this.rows[r] = half;
+        }
+        return this.rows[r];
+    }
+
+    /**
+     * A method that fills a circle in the image (the part of it which is in the clip of the image).
+     *
+     * @param cx  the x value of the center (in the image).
+     * @param cy  the y value of the center (in the image).
+     * @param r   the radius.
+     * @param rgb the color.
+     */
+    private void fillCircle(int cx, int cy, int r, int rgb) {
+        if (r <= 0) {
+            return;
+        }
+        int[] half = this.rowsOf(r);
+        int first = Math.max(0, this.clipTop - cy + r), last = Math.min(2 * r, this.clipBottom - cy + r);
+        for (int k = first; k < last; k++) {
+            int from = Math.max(cx - half[k], this.clipLeft), to = Math.min(cx + half[k], this.clipRight);
+            if (from < to) {
+                int row = (cy - r + k) * this.width;
+                Arrays.fill(this.pixels, row + from, row + to, rgb);
+            }
+        }
+    }
+
+    /**
+     * A method that fills a rectangle in the image (the part of it which is in the image).
+     *
+     * @param x   the x value of the top left corner (on the surface).
+     * @param y   the y value of the top left corner (on the surface).
+     * @param w   the width.
+     * @param h   the height.
+     * @param rgb the color.
+     */
+    private void fillRectangle(int x, int y, int w, int h, int rgb) {
+        int fromX = Math.max(x - this.left, 0), toX = Math.min(x - this.left + w, this.width);
+        int fromY = Math.max(y - this.top, 0), toY = Math.min(y - this.top + h, this.height);
+        for (int row = fromY; row < toY; row++) {
+            if (fromX < toX) {
+                Arrays.fill(this.pixels, row * this.width + fromX, row * this.width + toX, rgb);
+            }
+        }
+    }
+}
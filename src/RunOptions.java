@@ -0,0 +1,87 @@
+// ID - 212945760
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The RunOptions class - splits the command line arguments of an animation into options (of the form
+ * --name or --name=value) and the other (positional) arguments, like the balls' sizes.
+ *
+ * @author Ori Dabush
+ */
+public class RunOptions {
+
+    private static final String PREFIX = "--";
+
+    private Map<String, String> options;
+    private String[] positional;
+
+    /**
+     * A constructor that parses the command line arguments.
+     *
+     * @param args the command line arguments.
+     */
+    public RunOptions(String[] args) {
+        this.options = new HashMap<String, String>();
+        List<String> rest = new ArrayList<String>();
+        for (String arg : args) {
+            if (arg.startsWith(PREFIX) && arg.length() > PREFIX.length()) {
+                int equals = arg.indexOf('=');
+                if (equals < 0) {
+                    this.options.put(arg.substring(PREFIX.length()), "");
+                } else {
+                    this.options.put(arg.substring(PREFIX.length(), equals), arg.substring(equals + 1));
+                }
+            } else {
+                rest.add(arg);
+            }
+        }
+        this.positional = rest.toArray(new String[rest.size()]);
+    }
+
+    /**
+     * A method to get the arguments which are not options.
+     *
+     * @return the positional arguments.
+     */
+    public String[] getArgs() {
+        return this.positional;
+    }
+
+    /**
+     * A method to check if an option was given.
+     *
+     * @param name the name of the option.
+     * @return true if it was given, false otherwise.
+     */
+    public boolean has(String name) {
+        return this.options.containsKey(name);
+    }
+
+    /**
+     * A method to get the value of an option as a string.
+     *
+     * @param name         the name of the option.
+     * @param defaultValue the value to return if the option wasn't given.
+     * @return the value of the option.
+     */
+    public String getString(String name, String defaultValue) {
+        String value = this.options.get(name);
+        return (value == null || value.isEmpty()) ? defaultValue : value;
+    }
+
+    /**
+     * A method to get the value of an option as a number.
+     *
+     * @param name         the name of the option.
+     * @param defaultValue the value to return if the option wasn't given (or was given without a value).
+     * @return the value of the option.
+     * @throws NumberFormatException if the value is not a number.
+     */
+    public long getLong(String name, long defaultValue) throws NumberFormatException {
+        String value = this.options.get(name);
+        return (value == null || value.isEmpty()) ? defaultValue : Long.parseLong(value);
+    }
+}
@@ -0,0 +1,105 @@
+// ID - 212945760
+
+import java.awt.Color;
+import java.util.Random;
+
+/**
+ * The ScalingReport class - measures how the parallel step of a BallStore scales with the number of threads.
+ * It creates a store with many balls in one frame, and steps it (headless, without drawing) with 1 to N threads,
+ * printing the steps per second and the speedup over one thread for every number of threads.
+ *
+ * @author Ori Dabush
+ */
+public class ScalingReport {
+
+    /**
+     * constants for the size of the frame.
+     */
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+
+    /**
+     * The maximal size of a ball in the report.
+     */
+    private static final int MAX_SIZE = 50;
+
+    /**
+     * The default number of balls and steps.
+     */
+    private static final int DEFAULT_BALLS = 1000000;
+    private static final int DEFAULT_STEPS = 200;
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * A method that creates a store with the given number of balls of random sizes in one frame.
+     *
+     * @param balls the number of balls.
+     * @return the store.
+     */
+    private static BallStore createStore(int balls) {
+        BallStore store = new BallStore(balls);
+        Frame frame = new Frame(0, 0, WIDTH, HEIGHT, Color.WHITE);
+        int id = store.addFrame(frame);
+        Random rand = new Random(0);
+        for (int i = 0; i < balls; i++) {
+            int size = rand.nextInt(MAX_SIZE) + 1;
+            Ball ball = new Ball(rand.nextInt(WIDTH - 2 * size) + size, rand.nextInt(HEIGHT - 2 * size) + size, size,
+                    Color.BLACK);
+            ball.createVelocity(frame);
+            Velocity v = ball.getVelocity();
+            store.add(ball.getX(), ball.getY(), size, Color.BLACK.getRGB(), v.getDx(), v.getDy(), id);
+        }
+        return store;
+    }
+
+    /**
+     * A method that measures the steps per second of a store with a number of threads.
+     *
+     * @param store   the store.
+     * @param threads the number of threads.
+     * @param steps   the number of steps to measure.
+     * @return the steps per second.
+     */
+    private static double measure(BallStore store, int threads, int steps) {
+        store.setThreads(threads);
+        // warm up
+        for (int i = 0; i < steps / 2; i++) {
+            store.step();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < steps; i++) {
+            store.step();
+        }
+        return steps * NANOS_PER_SECOND / Math.max(System.nanoTime() - start, 1);
+    }
+
+    /**
+     * The main method, which prints the scaling report.
+     *
+     * @param args the number of balls, the number of steps and the maximal number of threads (all optional).
+     */
+    public static void main(String[] args) {
+        try {
+            int balls = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_BALLS;
+            int steps = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_STEPS;
+            int maxThreads = (args.length > 2) ? Integer.parseInt(args[2])
+                    : Runtime.getRuntime().availableProcessors();
+            BallStore store = createStore(balls);
+            System.out.printf("%d balls, %d steps, %d cores%n", balls, steps,
+                    Runtime.getRuntime().availableProcessors());
+            System.out.println("threads  steps/s       balls/s        speedup");
+            double single = 0;
+            for (int threads = 1; threads <= maxThreads; threads++) {
+                double rate = measure(store, threads, steps);
+                if (threads == 1) {
+                    single = rate;
+                }
+                System.out.printf("%-8d %-13.1f %-14.0f %.2fx%n", threads, rate, rate * balls, rate / single);
+            }
+            store.setThreads(1);
+        } catch (NumberFormatException e) {
+            System.out.println("invalid input!");
+        }
+    }
+}
@@ -0,0 +1,439 @@
+// ID - 212945760
+
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The ScenarioLoader class - loads the balls of a scenario file into a BallStore, instead of taking their sizes
+ * from the command line. The file is a text file with a line for every frame and every ball:
+ * <pre>
+ * # a comment (empty lines are ignored too)
+ * frame 50 50 500 500 0x808080
+ * 30
+ * 5 100 120
+ * 12.5 200 200 -3 4
+ * 8 300 300 2 2 0xFF0000
+ * </pre>
+ * A frame line has the top left and bottom right corners of the frame and its color (decimal or 0x hex RGB).
+ * A ball line has the size of the ball, and optionally its center, its velocity and its color - a ball without a
+ * center is put in a random place in its frame, a ball without a velocity gets the velocity Ball.createVelocity
+ * gives it, and a ball without a color gets a random color other than its frame's color. Every ball is in the
+ * last frame above it, or in the default frame if there is none. Sizes below 1 are made 1, like the sizes of the
+ * MultipleBouncingBallsAnimation.
+ * The file is read in large blocks through a FileChannel, and the numbers are parsed straight from the bytes,
+ * so the balls are added to the store as fast as the file is read.
+ *
+ * @author Ori Dabush
+ */
+public class ScenarioLoader {
+
+    /**
+     * The size of the blocks the file is read in (a line can't be longer).
+     */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * The numbers of values a ball line can have - a size, a center, a velocity and a color.
+     */
+    private static final int SIZE_ONLY = 1;
+    private static final int WITH_CENTER = 3;
+    private static final int WITH_VELOCITY = 5;
+    private static final int WITH_COLOR = 6;
+    private static final int FRAME_VALUES = 5;
+
+    private static final byte[] FRAME = "frame".getBytes();
+    private static final int OPAQUE = 0xFF000000;
+    private static final int HEX = 16;
+    private static final int DECIMAL = 10;
+
+    /**
+     * The powers of ten which are exact as doubles - a number with at most 15 digits, times or divided by one of
+     * them, is rounded exactly like Double.parseDouble rounds it.
+     */
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    private Frame defaultFrame;
+    private SplittableRandom random;
+    private List<Frame> frames;
+
+    /**
+     * The state of the reading - the current block, the bounds of the current line, and the position in it.
+     */
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private byte[] bytes;
+    private boolean endOfFile;
+    private int lineStart;
+    private int lineEnd;
+    private int position;
+    private long lineNumber;
+    private double[] values;
+
+    /**
+     * A constructor that creates a loader.
+     *
+     * @param defaultFrame the frame of the balls that come before any frame line.
+     * @param random       the random source of the missing centers and colors.
+     */
+    public ScenarioLoader(Frame defaultFrame, SplittableRandom random) {
+        this.defaultFrame = defaultFrame;
+        this.random = random;
+        this.frames = new ArrayList<Frame>();
+        this.values = new double[WITH_COLOR];
+    }
+
+    /**
+     * A method to get the frames of the last loaded scenario (without the default frame), to draw them behind the
+     * balls.
+     *
+     * @return the frames, in their order in the file.
+     */
+    public Frame[] getFrames() {
+        return this.frames.toArray(new Frame[0]);
+    }
+
+    /**
+     * A method that loads a scenario file into a new store.
+     *
+     * @param path the path of the file.
+     * @return the store.
+     * @throws IOException if the file can't be read.
+     * @throws RuntimeException if a line of the file is invalid.
+     */
+    public BallStore load(String path) throws IOException, RuntimeException {
+        this.frames.clear();
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.bytes = this.buffer.array();
+        this.endOfFile = false;
+        this.position = 0;
+        this.lineNumber = 0;
+        try (FileChannel file = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            this.channel = file;
+            // the store is created with room for every line, so its arrays are never copied while it fills.
+            BallStore store = new BallStore(Math.max(this.countLines(), 1));
+            file.position(0);
+            this.buffer.clear().limit(0);
+            Frame frame = this.defaultFrame;
+            int frameId = -1;
+            while (this.nextLine()) {
+                this.skipSpaces();
+                if (this.position == this.lineEnd || this.bytes[this.position] == '#') {
+                    continue;
+                }
+                if (this.startsWith(FRAME)) {
+                    this.position += FRAME.length;
+                    if (this.readValues() != FRAME_VALUES) {
+                        throw this.invalid("a frame needs 2 corners and a color");
+                    }
+                    double[] v = this.values;
+                    frame = new Frame(new Point(v[0], v[1]), new Point(v[2], v[3]), new Color((int) (long) v[4]));
+                    this.frames.add(frame);
+                    frameId = store.addFrame(frame);
+                    continue;
+                }
+                if (frameId < 0) {
+                    frameId = store.addFrame(frame);
+                }
+                this.addBall(store, frame, frameId, this.readValues());
+            }
+            return store;
+        } finally {
+            this.channel = null;
+            this.buffer = null;
+            this.bytes = null;
+        }
+    }
+
+    /**
+     * A method that counts the lines of the file (a line can be a little more than the number of balls).
+     *
+     * @return the number of lines.
+     * @throws IOException if the file can't be read.
+     */
+    private int countLines() throws IOException {
+        long lines = 1;
+        this.buffer.clear();
+        while (this.channel.read(this.buffer) >= 0) {
+            for (int i = 0; i < this.buffer.position(); i++) {
+                lines += (this.bytes[i] == '\n') ? 1 : 0;
+            }
+            this.buffer.clear();
+        }
+        return (int) Math.min(lines, Integer.MAX_VALUE - 1);
+    }
+
+    /**
+     * A method that adds the ball of the current line to the store (the values are already read).
+     *
+     * @param store   the store.
+     * @param frame   the frame of the ball.
+     * @param frameId the id of the frame in the store.
+     * @param count   the number of values in the line.
+     */
+    private void addBall(BallStore store, Frame frame, int frameId, int count) {
+        if (count != SIZE_ONLY && count != WITH_CENTER && count != WITH_VELOCITY && count != WITH_COLOR) {
+            throw this.invalid("a ball needs a size, and optionally a center, a velocity and a color");
+        }
+        double[] v = this.values;
+        // checking that sizes between 0 and 1 won't become 0 size.
+        int size = (v[0] < 1.0) ? 1 : (int) v[0];
+        double x, y;
+        if (count >= WITH_CENTER) {
+            x = v[1];
+            y = v[2];
+        } else {
+            if (size / 2 >= Math.max(frame.getWidth(), frame.getHeight())) {
+                throw this.invalid("a ball is bigger than the frame's size");
+            }
+            // the same range as Frame.createBallInFrame.
+            x = this.random.nextInt(Math.max((int) (frame.getRightBorder() - 2 * size - frame.getLeftBorder()), 1))
+                    + (int) frame.getLeftBorder() + size;
+            y = this.random.nextInt(Math.max((int) (frame.getBottomBorder() - 2 * size - frame.getTopBorder()), 1))
+                    + (int) frame.getTopBorder() + size;
+        }
+        double dx, dy;
+        if (count >= WITH_VELOCITY) {
+            dx = v[3];
+            dy = v[4];
+        } else {
+            dx = Ball.speedFor(frame.getWidth(), size);
+            dy = Ball.speedFor(frame.getHeight(), size);
+        }
+        int rgb = (count == WITH_COLOR) ? OPAQUE | (int) (long) v[5]
+                : ColorPalette.randomRgbOtherThan(frame.getColor().getRGB(), this.random);
+        store.add(x, y, size, rgb, dx, dy, frameId);
+    }
+
+    /**
+     * A method that creates the exception of an invalid line.
+     *
+     * @param message what is wrong with the line.
+     * @return the exception.
+     */
+    private RuntimeException invalid(String message) {
+        return new RuntimeException("input is invalid. " + message + " (line " + this.lineNumber + ").");
+    }
+
+    /**
+     * A method that moves to the next line of the file, reading the next block of the file when the line doesn't
+     * end in the current one.
+     *
+     * @return true if there is another line, false at the end of the file.
+     * @throws IOException if the file can't be read.
+     */
+    private boolean nextLine() throws IOException {
+        int start = (this.lineNumber == 0) ? 0 : this.lineEnd + 1;
+        if (start > this.buffer.limit()) {
+            start = this.buffer.limit();
+        }
+        int end = this.indexOfNewLine(start);
+        while (end < 0 && !this.endOfFile) {
+            // moving the start of the line to the start of the buffer, and reading after it.
+            int rest = this.buffer.limit() - start;
+            if (rest == this.bytes.length) {
+                this.lineNumber++;
+                throw this.invalid("the line is too long");
+            }
+            System.arraycopy(this.bytes, start, this.bytes, 0, rest);
+            this.buffer.limit(this.bytes.length);
+            this.buffer.position(rest);
+            while (this.buffer.hasRemaining()) {
+                if (this.channel.read(this.buffer) < 0) {
+                    this.endOfFile = true;
+                    break;
+                }
+            }
+            this.buffer.limit(this.buffer.position());
+            start = 0;
+            end = this.indexOfNewLine(rest);
+        }
+        if (end < 0) {
+            if (start == this.buffer.limit()) {
+                return false;
+            }
+            // the last line, without a new line at its end.
+            end = this.buffer.limit();
+        }
+        this.lineStart = start;
+        this.lineEnd = end;
+        this.position = start;
+        this.lineNumber++;
+        return true;
+    }
+
+    /**
+     * A method to find the next new line in the current block.
+     *
+     * @param from the index to start from.
+     * @return the index of the new line, -1 if there is none.
+     */
+    private int indexOfNewLine(int from) {
+        int limit = this.buffer.limit();
+        for (int i = from; i < limit; i++) {
+            if (this.bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A method that skips the spaces (and tabs and carriage returns) in the current line.
+     */
+    private void skipSpaces() {
+        byte[] b = this.bytes;
+        int i = this.position, end = this.lineEnd;
+        while (i < end && b[i] <= ' ') {
+            i++;
+        }
+        this.position = i;
+    }
+
+    /**
+     * A method that checks if the current line continues with a word (followed by a space).
+     *
+     * @param word the word.
+     * @return true if it does, false otherwise.
+     */
+    private boolean startsWith(byte[] word) {
+        if (this.position + word.length >= this.lineEnd) {
+            return false;
+        }
+        for (int i = 0; i < word.length; i++) {
+            if (this.bytes[this.position + i] != word[i]) {
+                return false;
+            }
+        }
+        return this.bytes[this.position + word.length] <= ' ';
+    }
+
+    /**
+     * A method that reads the numbers of the rest of the current line into values (up to a comment).
+     *
+     * @return the number of numbers in the line.
+     */
+    private int readValues() {
+        int count = 0;
+        this.skipSpaces();
+        while (this.position < this.lineEnd && this.bytes[this.position] != '#') {
+            if (count == this.values.length) {
+                throw this.invalid("there are too many numbers");
+            }
+            this.values[count++] = this.parseNumber();
+            this.skipSpaces();
+        }
+        return count;
+    }
+
+    /**
+     * A method that parses the number at the current position of the line - a decimal number (with an optional
+     * sign, fraction and exponent) or a 0x hex integer. Numbers with at most 15 digits and small exponents are
+     * calculated from their digits (exactly like Double.parseDouble), and other numbers are passed to
+     * Double.parseDouble.
+     *
+     * @return the number.
+     */
+    private double parseNumber() {
+        byte[] b = this.bytes;
+        int start = this.position, i = start, end = this.lineEnd;
+        boolean negative = false;
+        if (i < end && (b[i] == '-' || b[i] == '+')) {
+            negative = b[i] == '-';
+            i++;
+        }
+        if (i + 1 < end && b[i] == '0' && (b[i + 1] == 'x' || b[i + 1] == 'X')) {
+            return this.parseHex(i + 2, negative);
+        }
+        long mantissa = 0;
+        int digits = 0, scale = 0;
+        boolean any = false;
+        while (i < end && b[i] >= '0' && b[i] <= '9') {
+            if (mantissa != 0 || b[i] != '0') {
+                digits++;
+            }
+            mantissa = (digits <= MAX_EXACT_DIGITS) ? mantissa * DECIMAL + (b[i] - '0') : mantissa;
+            scale += (digits > MAX_EXACT_DIGITS) ? 1 : 0;
+            any = true;
+            i++;
+        }
+        if (i < end && b[i] == '.') {
+            i++;
+            while (i < end && b[i] >= '0' && b[i] <= '9') {
+                if (mantissa != 0 || b[i] != '0') {
+                    digits++;
+                }
+                if (digits <= MAX_EXACT_DIGITS) {
+                    mantissa = mantissa * DECIMAL + (b[i] - '0');
+                    scale--;
+                }
+                any = true;
+                i++;
+            }
+        }
+        if (!any) {
+            throw this.invalid("a number was expected");
+        }
+        if (i < end && (b[i] == 'e' || b[i] == 'E')) {
+            int exponent = 0, j = i + 1;
+            boolean negativeExponent = false;
+            if (j < end && (b[j] == '-' || b[j] == '+')) {
+                negativeExponent = b[j] == '-';
+                j++;
+            }
+            if (j == end || b[j] < '0' || b[j] > '9') {
+                throw this.invalid("a number was expected");
+            }
+            while (j < end && b[j] >= '0' && b[j] <= '9') {
+                exponent = Math.min(exponent * DECIMAL + (b[j] - '0'), Short.MAX_VALUE);
+                j++;
+            }
+            scale += negativeExponent ? -exponent : exponent;
+            i = j;
+        }
+        if (i < end && b[i] > ' ' && b[i] != '#') {
+            throw this.invalid("a number was expected");
+        }
+        this.position = i;
+        double value;
+        if (digits > MAX_EXACT_DIGITS || scale >= POWERS_OF_TEN.length || -scale >= POWERS_OF_TEN.length) {
+            // the digits are kept only up to 15 digits - the rare long numbers are parsed by the JDK.
+            value = Math.abs(Double.parseDouble(new String(b, start, i - start)));
+        } else if (scale < 0) {
+            value = mantissa / POWERS_OF_TEN[-scale];
+        } else {
+            value = mantissa * POWERS_OF_TEN[scale];
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * A method that parses the digits of a hex integer.
+     *
+     * @param from     the index of the first digit.
+     * @param negative true if the number has a minus sign.
+     * @return the number.
+     */
+    private double parseHex(int from, boolean negative) {
+        byte[] b = this.bytes;
+        long value = 0;
+        int i = from;
+        while (i < this.lineEnd && Character.digit(b[i], HEX) >= 0) {
+            value = value * HEX + Character.digit(b[i], HEX);
+            i++;
+        }
+        if (i == from || (i < this.lineEnd && b[i] > ' ' && b[i] != '#')) {
+            throw this.invalid("a hex number was expected");
+        }
+        this.position = i;
+        return negative ? -value : value;
+    }
+}
@@ -0,0 +1,99 @@
+// ID - 212945760
+
+/**
+ * The SegmentHit class - the first hit of a ball moving along a path with a line of a LineIndex: the part of the
+ * path at which the ball touches the line, the center of the ball at that moment, the normal of the line at the
+ * touching point (a unit vector pointing towards the ball) and the index of the line.
+ * A hit is reused for every cast, like the point of Line.intersectionWith.
+ *
+ * @author Ori Dabush
+ */
+public class SegmentHit {
+
+    private double t;
+    private double x;
+    private double y;
+    private double normalX;
+    private double normalY;
+    private int line;
+
+    /**
+     * A constructor that creates an empty hit.
+     */
+    public SegmentHit() {
+        this.line = -1;
+    }
+
+    /**
+     * A method that sets the hit.
+     *
+     * @param part the part of the path at which the ball touches the line (0 to 1).
+     * @param cx   the x value of the center of the ball at the hit.
+     * @param cy   the y value of the center of the ball at the hit.
+     * @param nx   the x value of the normal.
+     * @param ny   the y value of the normal.
+     * @param id   the index of the line.
+     */
+    public void set(double part, double cx, double cy, double nx, double ny, int id) {
+        this.t = part;
+        this.x = cx;
+        this.y = cy;
+        this.normalX = nx;
+        this.normalY = ny;
+        this.line = id;
+    }
+
+    /**
+     * A method to get the part of the path at which the ball touches the line.
+     *
+     * @return the part of the path (0 is its start, 1 is its end).
+     */
+    public double getT() {
+        return this.t;
+    }
+
+    /**
+     * A method to get the x value of the center of the ball at the hit.
+     *
+     * @return the x value.
+     */
+    public double getX() {
+        return this.x;
+    }
+
+    /**
+     * A method to get the y value of the center of the ball at the hit.
+     *
+     * @return the y value.
+     */
+    public double getY() {
+        return this.y;
+    }
+
+    /**
+     * A method to get the x value of the normal of the line at the hit.
+     *
+     * @return the x value of the normal.
+     */
+    public double getNormalX() {
+        return this.normalX;
+    }
+
+    /**
+     * A method to get the y value of the normal of the line at the hit.
+     *
+     * @return the y value of the normal.
+     */
+    public double getNormalY() {
+        return this.normalY;
+    }
+
+    /**
+     * A method to get the index of the line that was hit (in the array the index was created from).
+     *
+     * @return the index of the line.
+     */
+    public int getLine() {
+        return this.line;
+    }
+}
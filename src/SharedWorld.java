@@ -0,0 +1,470 @@
+// ID - 212945760
+
+import java.awt.Color;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The SharedWorld class - the state of the balls of a BallStore (centers, velocities, radii, colors and frame ids,
+ * and the frames) in a memory mapped file, so other processes on the same machine (a viewer, an exporter...) can
+ * read it while the simulation runs, and a world can be restarted from the file.
+ * The file starts with a fixed header, followed by a column for every field of the balls and of the frames (each
+ * column is mapped on its own, so huge worlds can be mapped). The simulation publishes the store into the file
+ * after every step, and the readers read the columns straight from the mapping.
+ * The header has a sequence number (a seqlock) - it is odd while the world is being published, and the writer
+ * makes it even again when it is done. A reader takes the sequence number before reading (waiting while it is
+ * odd) and checks that it didn't change after, and reads again if it did:
+ * <pre>
+ * long seq;
+ * do {
+ *     seq = world.beginRead();
+ *     ... read the balls ...
+ * } while (!world.validate(seq));
+ * </pre>
+ * If the simulation stops in the middle of a publish, the sequence number stays odd - restore doesn't wait for it
+ * forever, it reports the world as torn.
+ *
+ * @author Ori Dabush
+ */
+public final class SharedWorld {
+
+    /**
+     * The constants of the format of the file.
+     */
+    public static final int MAGIC = 0x42425357;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+
+    /**
+     * The offsets of the fields of the header.
+     */
+    private static final int CAPACITY = 8;
+    private static final int FRAME_CAPACITY = 12;
+    private static final int SEQUENCE = 16;
+    private static final int TICK = 24;
+    private static final int SIZE = 32;
+    private static final int FRAME_COUNT = 36;
+    private static final int STEPS_PER_SECOND = 40;
+    private static final int BOUNCES = 48;
+
+    /**
+     * A handle to access the sequence number with memory ordering (the mapping is shared between processes).
+     */
+    /**
+     * The time restore waits while the sequence number stays the same odd number, before it decides that the
+     * simulation stopped in the middle of a publish (publishing even a million balls takes a small part of it).
+     */
+    private static final long PUBLISH_TIMEOUT_NANOS = 2000000000L;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.nativeOrder());
+
+    private FileChannel channel;
+    private MappedByteBuffer header;
+    private int capacity;
+    private int frameCapacity;
+    private long position;
+
+    /**
+     * The columns of the balls and of the frames.
+     */
+    private DoubleBuffer x;
+    private DoubleBuffer y;
+    private DoubleBuffer dx;
+    private DoubleBuffer dy;
+    private IntBuffer radius;
+    private IntBuffer color;
+    private IntBuffer frameId;
+    private DoubleBuffer left;
+    private DoubleBuffer top;
+    private DoubleBuffer right;
+    private DoubleBuffer bottom;
+    private IntBuffer frameColor;
+
+    /**
+     * A constructor that maps the columns of a world file.
+     *
+     * @param channel       the file.
+     * @param mode          the mode of the mapping.
+     * @param capacity      the maximal number of balls.
+     * @param frameCapacity the maximal number of frames.
+     * @throws IOException if the file can't be mapped.
+     */
+    private SharedWorld(FileChannel channel, FileChannel.MapMode mode, int capacity, int frameCapacity)
+            throws IOException {
+        this.channel = channel;
+        this.capacity = capacity;
+        this.frameCapacity = frameCapacity;
+        this.header = this.channel.map(mode, 0, HEADER_SIZE);
+        this.header.order(ByteOrder.nativeOrder());
+        this.position = HEADER_SIZE;
+        this.x = this.column(mode, capacity, Double.BYTES).asDoubleBuffer();
+        this.y = this.column(mode, capacity, Double.BYTES).asDoubleBuffer();
+        this.dx = this.column(mode, capacity, Double.BYTES).asDoubleBuffer();
+        this.dy = this.column(mode, capacity, Double.BYTES).asDoubleBuffer();
+        this.radius = this.column(mode, capacity, Integer.BYTES).asIntBuffer();
+        this.color = this.column(mode, capacity, Integer.BYTES).asIntBuffer();
+        this.frameId = this.column(mode, capacity, Integer.BYTES).asIntBuffer();
+        this.left = this.column(mode, frameCapacity, Double.BYTES).asDoubleBuffer();
+        this.top = this.column(mode, frameCapacity, Double.BYTES).asDoubleBuffer();
+        this.right = this.column(mode, frameCapacity, Double.BYTES).asDoubleBuffer();
+        this.bottom = this.column(mode, frameCapacity, Double.BYTES).asDoubleBuffer();
+        this.frameColor = this.column(mode, frameCapacity, Integer.BYTES).asIntBuffer();
+    }
+
+    /**
+     * A method that maps the next column of the file.
+     *
+     * @param mode  the mode of the mapping.
+     * @param count the number of values in the column.
+     * @param bytes the size of a value.
+     * @return the mapping, in the native byte order.
+     * @throws IOException if the file can't be mapped.
+     */
+    private ByteBuffer column(FileChannel.MapMode mode, int count, int bytes) throws IOException {
+        long size = (long) count * bytes;
+        ByteBuffer b = this.channel.map(mode, this.position, size).order(ByteOrder.nativeOrder());
+        this.position += size;
+        return b;
+    }
+
+    /**
+     * A method that creates a new world file (or replaces an existing one).
+     *
+     * @param path          the path of the file.
+     * @param capacity      the maximal number of balls.
+     * @param frameCapacity the maximal number of frames.
+     * @return the world.
+     * @throws IOException if the file can't be created.
+     */
+    public static SharedWorld create(String path, int capacity, int frameCapacity) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        SharedWorld world = new SharedWorld(channel, FileChannel.MapMode.READ_WRITE, Math.max(capacity, 1),
+                Math.max(frameCapacity, 1));
+        world.header.putInt(4, VERSION);
+        world.header.putInt(CAPACITY, world.capacity);
+        world.header.putInt(FRAME_CAPACITY, world.frameCapacity);
+        world.header.putInt(0, MAGIC);
+        return world;
+    }
+
+    /**
+     * A method that opens an existing world file.
+     *
+     * @param path     the path of the file.
+     * @param writable true to publish to the world, false to only read it.
+     * @return the world.
+     * @throws IOException if the file can't be opened or it is not a world file.
+     */
+    public static SharedWorld open(String path, boolean writable) throws IOException {
+        FileChannel channel = writable
+                ? FileChannel.open(Paths.get(path), StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        ByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.nativeOrder());
+        if (head.getInt(0) != MAGIC || head.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("not a world file: " + path);
+        }
+        return new SharedWorld(channel, writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                head.getInt(CAPACITY), head.getInt(FRAME_CAPACITY));
+    }
+
+    /**
+     * A method that publishes the state of a store to the world - it is written between two changes of the
+     * sequence number, so readers never use a half written state.
+     *
+     * @param store the store (it must fit in the capacity of the world).
+     */
+    public void publish(BallStore store) {
+        int n = store.size(), frames = store.frameCount();
+        if (n > this.capacity || frames > this.frameCapacity) {
+            throw new RuntimeException("input is invalid. the store doesn't fit in the shared world.");
+        }
+        long seq = (long) LONGS.getOpaque(this.header, SEQUENCE);
+        // an odd sequence number - the readers wait until it is even again.
+        LONGS.setOpaque(this.header, SEQUENCE, seq + 1);
+        VarHandle.storeStoreFence();
+        for (int i = 0; i < n; i++) {
+            this.x.put(i, store.getX(i));
+            this.y.put(i, store.getY(i));
+            this.dx.put(i, store.getDx(i));
+            this.dy.put(i, store.getDy(i));
+            this.radius.put(i, store.getRadius(i));
+            this.color.put(i, store.getColor(i));
+            this.frameId.put(i, store.getFrameId(i));
+        }
+        for (int f = 0; f < frames; f++) {
+            Frame frame = store.getFrame(f);
+            this.left.put(f, frame.getLeftBorder());
+            this.top.put(f, frame.getTopBorder());
+            this.right.put(f, frame.getRightBorder());
+            this.bottom.put(f, frame.getBottomBorder());
+            this.frameColor.put(f, frame.getColor().getRGB());
+        }
+        this.header.putLong(TICK, (long) store.getTime());
+        this.header.putInt(SIZE, n);
+        this.header.putInt(FRAME_COUNT, frames);
+        this.header.putDouble(STEPS_PER_SECOND, store.getStepsPerSecond());
+        this.header.putLong(BOUNCES, store.getBounces());
+        LONGS.setRelease(this.header, SEQUENCE, seq + 2);
+    }
+
+    /**
+     * A method that starts a read of the world - it waits until the world is not being published.
+     *
+     * @return the sequence number to pass to validate after the read.
+     */
+    public long beginRead() {
+        return this.beginRead(Long.MAX_VALUE);
+    }
+
+    /**
+     * A method that starts a read of the world - it waits until the world is not being published, but only while
+     * the publish makes progress: if the sequence number stays the same odd number for the given time, the writer
+     * stopped in the middle of the publish.
+     *
+     * @param timeoutNanos the maximal time to wait for the same odd sequence number, in nanoseconds.
+     * @return the sequence number to pass to validate after the read, or -1 if the world was left half published.
+     */
+    public long beginRead(long timeoutNanos) {
+        long seq = (long) LONGS.getAcquire(this.header, SEQUENCE), odd = seq, since = System.nanoTime();
+        while ((seq & 1) != 0) {
+            if (seq != odd) {
+                odd = seq;
+                since = System.nanoTime();
+            } else if (System.nanoTime() - since > timeoutNanos) {
+                return -1;
+            }
+            Thread.onSpinWait();
+            seq = (long) LONGS.getAcquire(this.header, SEQUENCE);
+        }
+        return seq;
+    }
+
+    /**
+     * A method that checks if the values read since beginRead are consistent (the world wasn't published
+     * during the read).
+     *
+     * @param seq the sequence number that beginRead returned.
+     * @return true if the read is consistent, false if it has to be read again.
+     */
+    public boolean validate(long seq) {
+        VarHandle.loadLoadFence();
+        return (long) LONGS.getAcquire(this.header, SEQUENCE) == seq;
+    }
+
+    /**
+     * A method to get the number of times the world was published.
+     *
+     * @return the number of publishes.
+     */
+    public long getVersion() {
+        return ((long) LONGS.getAcquire(this.header, SEQUENCE)) >>> 1;
+    }
+
+    /**
+     * A method to get the maximal number of balls of the world.
+     *
+     * @return the capacity.
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * A method to get the number of steps the simulation made when the world was published.
+     *
+     * @return the number of steps.
+     */
+    public long getTick() {
+        return this.header.getLong(TICK);
+    }
+
+    /**
+     * A method to get the number of bounces in the simulation when the world was published.
+     *
+     * @return the number of bounces.
+     */
+    public long getBounces() {
+        return this.header.getLong(BOUNCES);
+    }
+
+    /**
+     * A method to get the number of steps the balls make in a second.
+     *
+     * @return the number of steps in a second.
+     */
+    public double getStepsPerSecond() {
+        return this.header.getDouble(STEPS_PER_SECOND);
+    }
+
+    /**
+     * A method to get the number of balls in the world.
+     *
+     * @return the number of balls.
+     */
+    public int size() {
+        return Math.max(0, Math.min(this.header.getInt(SIZE), this.capacity));
+    }
+
+    /**
+     * A method to get the number of frames in the world.
+     *
+     * @return the number of frames.
+     */
+    public int frameCount() {
+        return Math.max(0, Math.min(this.header.getInt(FRAME_COUNT), this.frameCapacity));
+    }
+
+    /**
+     * A method to get the x value of the center of a ball.
+     *
+     * @param i the index of the ball.
+     * @return the x value of the center.
+     */
+    public double getX(int i) {
+        return this.x.get(i);
+    }
+
+    /**
+     * A method to get the y value of the center of a ball.
+     *
+     * @param i the index of the ball.
+     * @return the y value of the center.
+     */
+    public double getY(int i) {
+        return this.y.get(i);
+    }
+
+    /**
+     * A method to get the dx value of the velocity of a ball.
+     *
+     * @param i the index of the ball.
+     * @return the dx value.
+     */
+    public double getDx(int i) {
+        return this.dx.get(i);
+    }
+
+    /**
+     * A method to get the dy value of the velocity of a ball.
+     *
+     * @param i the index of the ball.
+     * @return the dy value.
+     */
+    public double getDy(int i) {
+        return this.dy.get(i);
+    }
+
+    /**
+     * A method to get the radius of a ball.
+     *
+     * @param i the index of the ball.
+     * @return the radius.
+     */
+    public int getRadius(int i) {
+        return this.radius.get(i);
+    }
+
+    /**
+     * A method to get the color of a ball (as an RGB value).
+     *
+     * @param i the index of the ball.
+     * @return the color.
+     */
+    public int getColor(int i) {
+        return this.color.get(i);
+    }
+
+    /**
+     * A method to get the id of the frame of a ball.
+     *
+     * @param i the index of the ball.
+     * @return the id of the frame.
+     */
+    public int getFrameId(int i) {
+        return this.frameId.get(i);
+    }
+
+    /**
+     * A method that creates a copy of a frame of the world.
+     *
+     * @param f the id of the frame.
+     * @return the frame.
+     */
+    public Frame getFrame(int f) {
+        return new Frame(new Point(this.left.get(f), this.top.get(f)),
+                new Point(this.right.get(f), this.bottom.get(f)), new Color(this.frameColor.get(f)));
+    }
+
+    /**
+     * A method that creates a store from the world, to continue the simulation from where it was published.
+     * The counts of the header are checked against the capacities before they are used - a read during a publish
+     * is read again, and a consistent header that doesn't fit is reported.
+     *
+     * @return the store.
+     * @throws IOException if the world was left half published (the simulation stopped during a publish), or its
+     *                     header doesn't fit its capacities.
+     */
+    public BallStore restore() throws IOException {
+        while (true) {
+            long seq = this.beginRead(PUBLISH_TIMEOUT_NANOS);
+            if (seq < 0) {
+                throw new IOException("the shared world is torn (the simulation stopped while publishing it)");
+            }
+            int n = this.header.getInt(SIZE), frames = this.header.getInt(FRAME_COUNT);
+            if (n < 0 || n > this.capacity || frames < 0 || frames > this.frameCapacity) {
+                if (this.validate(seq)) {
+                    throw new IOException("the shared world is corrupt (" + n + " balls and " + frames
+                            + " frames don't fit in it)");
+                }
+                continue;
+            }
+            BallStore store = this.read(n, frames);
+            if (this.validate(seq)) {
+                return store;
+            }
+        }
+    }
+
+    /**
+     * A method that reads the balls and the frames of the world into a new store.
+     *
+     * @param n      the number of balls.
+     * @param frames the number of frames.
+     * @return the store.
+     */
+    private BallStore read(int n, int frames) {
+        BallStore store = new BallStore(Math.max(n, 1));
+        if (this.getStepsPerSecond() > 0) {
+            store.setStepsPerSecond(this.getStepsPerSecond());
+        }
+        for (int f = 0; f < frames; f++) {
+            store.addFrame(this.getFrame(f));
+        }
+        for (int i = 0; i < n; i++) {
+            store.add(this.getX(i), this.getY(i), this.getRadius(i), this.getColor(i), this.getDx(i),
+                    this.getDy(i), this.getFrameId(i));
+        }
+        return store;
+    }
+
+    /**
+     * A method that closes the file of the world (the mappings stay valid until they are collected).
+     *
+     * @throws IOException if the file can't be closed.
+     */
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,148 @@
+// ID - 212945760
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import biuoop.DrawSurface;
+
+/**
+ * The SharedWorldViewer class - shows the balls of a SharedWorld which another process publishes, as a simulation
+ * (so it can be run by the AnimationRunner). Every step takes a consistent snapshot of the world (its frames and
+ * the centers, radii and colors of its balls), and the snapshot is drawn the way the scenes draw their balls.
+ * The viewer doesn't move the balls - it only shows the last state the simulation published.
+ *
+ * @author Ori Dabush
+ */
+public class SharedWorldViewer implements Simulation {
+
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+
+    private SharedWorld world;
+
+    /**
+     * The snapshot - the frames and the balls.
+     */
+    private Frame[] frames;
+    private int size;
+    private double[] x;
+    private double[] y;
+    private int[] radius;
+    private int[] color;
+
+    /**
+     * A constructor that creates a viewer of a world, and takes its first snapshot.
+     *
+     * @param world the world.
+     */
+    public SharedWorldViewer(SharedWorld world) {
+        this.world = world;
+        this.frames = new Frame[0];
+        this.size = 0;
+        this.x = new double[0];
+        this.y = new double[0];
+        this.radius = new int[0];
+        this.color = new int[0];
+        this.step();
+    }
+
+    /**
+     * A method to get the number of balls in the snapshot.
+     *
+     * @return the number of balls.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * A method that takes a snapshot of the world (it is read again if the world was published during the read).
+     */
+    @Override
+    public void step() {
+        SharedWorld w = this.world;
+        long seq;
+        do {
+            seq = w.beginRead();
+            int n = w.size();
+            if (this.x.length < n) {
+                this.x = Arrays.copyOf(this.x, n);
+                this.y = Arrays.copyOf(this.y, n);
+                this.radius = Arrays.copyOf(this.radius, n);
+                this.color = Arrays.copyOf(this.color, n);
+            }
+            for (int i = 0; i < n; i++) {
+                this.x[i] = w.getX(i);
+                this.y[i] = w.getY(i);
+                this.radius[i] = w.getRadius(i);
+                this.color[i] = w.getColor(i);
+            }
+            if (this.frames.length != w.frameCount()) {
+                this.frames = new Frame[w.frameCount()];
+            }
+            for (int f = 0; f < this.frames.length; f++) {
+                this.frames[f] = w.getFrame(f);
+            }
+            this.size = n;
+        } while (!w.validate(seq));
+    }
+
+    @Override
+    public void drawOn(DrawSurface d) {
+        for (Frame f : this.frames) {
+            f.drawFrame(d);
+        }
+        int lastColor = 0;
+        for (int i = 0; i < this.size; i++) {
+            if (i == 0 || this.color[i] != lastColor) {
+                lastColor = this.color[i];
+                d.setColor(ColorPalette.colorOf(lastColor));
+            }
+            d.fillCircle((int) this.x[i], (int) this.y[i], this.radius[i]);
+        }
+    }
+
+    /**
+     * The viewer has no state between two snapshots, so the last snapshot is drawn.
+     *
+     * @param d     the DrawSurface.
+     * @param alpha the part of the step to interpolate.
+     */
+    @Override
+    public void drawOn(DrawSurface d, double alpha) {
+        this.drawOn(d);
+    }
+
+    /**
+     * The rate of the world is decided by the simulation that publishes it.
+     *
+     * @param stepsPerSecond the number of steps in a second.
+     */
+    @Override
+    public void setStepsPerSecond(double stepsPerSecond) {
+    }
+
+    @Override
+    public long getBounces() {
+        return this.world.getBounces();
+    }
+
+    /**
+     * The main method which shows a shared world - the first argument is the path of the world file, and the
+     * options of the AnimationRunner can follow it.
+     *
+     * @param args the arguments.
+     */
+    public static void main(String[] args) {
+        try {
+            RunOptions options = new RunOptions(args);
+            args = options.getArgs();
+            SharedWorldViewer viewer = new SharedWorldViewer(SharedWorld.open(args[0], false));
+            AnimationRunner.run(viewer, "SharedWorldViewer", WIDTH, HEIGHT, options);
+        } catch (IOException e) {
+            System.out.println("can't open the world: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.out.println("invalid input!");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+// ID - 212945760
+
+import biuoop.DrawSurface;
+
+/**
+ * The Simulation interface - something that advances in steps and can be drawn, like the bouncing balls
+ * animations. The AnimationRunner runs a simulation, either on the screen or headless, and the GameLoop runs it
+ * in a fixed number of steps per second, drawing it between the steps.
+ *
+ * @author Ori Dabush
+ */
+public interface Simulation {
+
+    /**
+     * A method that advances the simulation by one step.
+     */
+    void step();
+
+    /**
+     * A method that draws the current state of the simulation on the given DrawSurface.
+     *
+     * @param d the DrawSurface.
+     */
+    void drawOn(DrawSurface d);
+
+    /**
+     * A method that draws the state of the simulation between the last step and the next one.
+     *
+     * @param d     the DrawSurface.
+     * @param alpha the part of the step to interpolate (0 is the state before the last step, 1 is the current
+     *              state).
+     */
+    void drawOn(DrawSurface d, double alpha);
+
+    /**
+     * A method that sets the number of steps the simulation makes in a second, so it moves the same distance in a
+     * second no matter how often it is stepped (the velocities are changed to the new rate).
+     *
+     * @param stepsPerSecond the number of steps in a second.
+     */
+    void setStepsPerSecond(double stepsPerSecond);
+
+    /**
+     * A method to get the number of times things bounced in the simulation so far (off walls, frames or each
+     * other).
+     *
+     * @return the number of bounces.
+     */
+    long getBounces();
+}
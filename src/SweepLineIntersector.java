@@ -0,0 +1,714 @@
+// ID - 212945760
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The SweepLineIntersector class - finds all the intersections between the lines of an array of lines using the
+ * Bentley-Ottmann sweep line algorithm, in O((n + k) log n) time (n lines, k intersections), instead of checking
+ * every pair of lines.
+ * A vertical line sweeps the plane from left to right (and from bottom to top on the same x value). The events are
+ * the end points of the lines and the intersection points found so far, and the status is the lines that cross the
+ * sweep line, ordered from bottom to top. Only lines which are neighbours in the status are checked.
+ * The sweep is exact: an intersection event is the exact (rational) intersection point of its two lines, not its
+ * rounded point, so all the lines that meet in the same point meet in the same event, however close other
+ * intersections are. Events are compared by their coordinates exactly, the status is ordered by the side of every
+ * line relative to the event point (with Predicates.orient2d), and the lines through it by their order just after
+ * it. Every event keeps a box of doubles around its point (a single point for an end point), and the exact
+ * calculation with BigDecimal is only done when the boxes can't decide (see EventPoint).
+ * The reported intersections are exactly the ones Line.isIntersecting and Line.intersectionWith report (including
+ * the vertical, horizontal, collinear and zero length cases).
+ *
+ * @author Ori Dabush
+ */
+public class SweepLineIntersector {
+
+    /**
+     * The probes of the status - they are just below and just above all the lines through the event point.
+     */
+    private static final Segment BELOW = Segment.probe(-1);
+    private static final Segment ABOVE = Segment.probe(1);
+
+    private Line[] lines;
+
+    /**
+     * The sweep line state - the current event point, the events (with the lines that start or meet in them) and
+     * the status.
+     */
+    private EventPoint point;
+    private TreeMap<EventPoint, List<Segment>> events;
+    private TreeSet<Segment> status;
+
+    /**
+     * Where the intersections are reported during the sweep - a list of intersections, or a buffer of their points.
+     */
+    private List<Intersection> found;
+    private PointBuffer foundPoints;
+
+    /**
+     * A constructor that creates an intersector for an array of lines.
+     *
+     * @param lines the lines (null cells are ignored).
+     */
+    public SweepLineIntersector(Line[] lines) {
+        this.lines = lines;
+    }
+
+    /**
+     * A method that finds all the intersections between the lines.
+     *
+     * @return a list of the intersections, every intersecting pair of lines appears once.
+     */
+    public List<Intersection> findIntersections() {
+        List<Intersection> result = new ArrayList<Intersection>();
+        this.sweep(result, null);
+        return result;
+    }
+
+    /**
+     * A method that finds all the intersections between the lines, and adds only their points to a buffer (in the
+     * same order as findIntersections), without creating an object for every intersection.
+     *
+     * @param points the buffer to add the intersection points to.
+     * @return the number of intersections that were added.
+     */
+    public int findIntersections(PointBuffer points) {
+        int before = points.size();
+        this.sweep(null, points);
+        return points.size() - before;
+    }
+
+    /**
+     * A method that sweeps the lines and reports all the intersections to a list or to a buffer.
+     *
+     * @param result the list of the intersections (can be null).
+     * @param points the buffer of the intersection points (can be null).
+     */
+    private void sweep(List<Intersection> result, PointBuffer points) {
+        Set<Long> reported = new HashSet<Long>();
+        this.events = new TreeMap<EventPoint, List<Segment>>(new Comparator<EventPoint>() {
+            @Override
+            public int compare(EventPoint a, EventPoint b) {
+                return compareEvents(a, b);
+            }
+        });
+        this.status = new TreeSet<Segment>(new Comparator<Segment>() {
+            @Override
+            public int compare(Segment a, Segment b) {
+                return compareStatus(a, b);
+            }
+        });
+        for (int i = 0; i < this.lines.length; i++) {
+            Line l = this.lines[i];
+            if (l == null || l.start() == null || l.end() == null) {
+                continue;
+            }
+            Segment s = new Segment(i, l);
+            this.eventAt(s.left).add(s);
+            this.eventAt(s.right);
+        }
+        this.found = result;
+        this.foundPoints = points;
+        while (!this.events.isEmpty()) {
+            Map.Entry<EventPoint, List<Segment>> event = this.events.pollFirstEntry();
+            this.handleEvent(event.getKey(), event.getValue(), reported);
+        }
+        this.events = null;
+        this.status = null;
+        this.found = null;
+        this.foundPoints = null;
+        this.point = null;
+    }
+
+    /**
+     * A method to get the list of the lines that start or meet in an event point, and create the event if needed.
+     *
+     * @param p the event point.
+     * @return the list of the lines that start or meet in the event point.
+     */
+    private List<Segment> eventAt(EventPoint p) {
+        List<Segment> meeting = this.events.get(p);
+        if (meeting == null) {
+            meeting = new ArrayList<Segment>(2);
+            this.events.put(p, meeting);
+        }
+        return meeting;
+    }
+
+    /**
+     * A method that handles one event point - reports the intersections in it, and updates the status.
+     * The lines through the event point are neighbours in the status (between the probes), so they are removed
+     * together and inserted back together in their order after it.
+     *
+     * @param p        the event point.
+     * @param meeting  the lines that start in the event point, and the lines whose intersection is the event point.
+     * @param reported the pairs of lines that have already been checked.
+     */
+    private void handleEvent(EventPoint p, List<Segment> meeting, Set<Long> reported) {
+        this.point = p;
+        List<Segment> through = new ArrayList<Segment>(meeting.size());
+        for (Segment s : meeting) {
+            addThrough(s, through);
+        }
+        // removing all the lines that contain the event point from the status.
+        Iterator<Segment> it = this.status.tailSet(BELOW, true).iterator();
+        while (it.hasNext()) {
+            Segment s = it.next();
+            if (this.side(s) != 0) {
+                break;
+            }
+            addThrough(s, through);
+            it.remove();
+        }
+        // all the lines that contain the event point intersect in it.
+        for (int i = 0; i < through.size(); i++) {
+            for (int j = i + 1; j < through.size(); j++) {
+                this.report(through.get(i), through.get(j), reported);
+            }
+        }
+        // inserting back the lines that continue after the event point - in their new order.
+        Segment lowest = null, highest = null;
+        for (Segment s : through) {
+            if (compareEvents(s.right, p) <= 0) {
+                continue;
+            }
+            this.status.add(s);
+            if (lowest == null || this.compareStatus(s, lowest) < 0) {
+                lowest = s;
+            }
+            if (highest == null || this.compareStatus(s, highest) > 0) {
+                highest = s;
+            }
+        }
+        if (lowest == null) {
+            this.checkNeighbours(this.status.lower(BELOW), this.status.higher(ABOVE), p);
+        } else {
+            this.checkNeighbours(this.status.lower(lowest), lowest, p);
+            this.checkNeighbours(highest, this.status.higher(highest), p);
+        }
+        for (Segment s : through) {
+            s.isAtEvent = false;
+        }
+    }
+
+    /**
+     * A method that adds a line to the lines through the event point (once).
+     *
+     * @param s       the line.
+     * @param through the lines through the event point.
+     */
+    private static void addThrough(Segment s, List<Segment> through) {
+        if (!s.isAtEvent) {
+            s.isAtEvent = true;
+            through.add(s);
+        }
+    }
+
+    /**
+     * A method that checks if two lines which became neighbours in the status intersect after the current event
+     * point, and if they do, adds their intersection point as an event, with the two lines. Parallel lines meet only
+     * in an end point, which is already an event, and an intersection which isn't after the event point has already
+     * been handled.
+     *
+     * @param a the lower line.
+     * @param b the upper line.
+     * @param p the current event point.
+     */
+    private void checkNeighbours(Segment a, Segment b, EventPoint p) {
+        if (a == null || b == null || !a.line.isIntersecting(b.line)) {
+            return;
+        }
+        EventPoint q = EventPoint.crossing(a, b);
+        if (q != null && compareEvents(q, p) > 0) {
+            List<Segment> meeting = this.eventAt(q);
+            meeting.add(a);
+            meeting.add(b);
+        }
+    }
+
+    /**
+     * A method that reports the intersection of two lines which both contain the current event point, if the lines
+     * intersect (by Line.intersectionWith) and it hasn't been reported yet.
+     *
+     * @param a        the first line.
+     * @param b        the second line.
+     * @param reported the pairs of lines that have already been checked.
+     */
+    private void report(Segment a, Segment b, Set<Long> reported) {
+        int first = Math.min(a.id, b.id), second = Math.max(a.id, b.id);
+        if (reported.add(((long) first << Integer.SIZE) | second)) {
+            if (this.foundPoints != null) {
+                this.lines[first].intersectionWith(this.lines[second], this.foundPoints);
+                return;
+            }
+            Point q = new Point(0, 0);
+            if (this.lines[first].intersectionWith(this.lines[second], q)) {
+                this.found.add(new Intersection(first, second, q));
+            }
+        }
+    }
+
+    /**
+     * A method that finds the side of a line relative to the current event point - below it, through it or above
+     * it (exactly). The lines that start or meet in the event point are always through it, and a vertical line in
+     * the status goes through it if it is between its end points (in the order of the events). The side is kept
+     * in the line until the next event, since the status compares the same lines many times.
+     *
+     * @param s the line.
+     * @return -1 if the line is below the event point, 0 if it goes through it and 1 if it is above it.
+     */
+    private int side(Segment s) {
+        if (s.isAtEvent) {
+            return 0;
+        }
+        if (s.sideAt != this.point) {
+            s.sideAt = this.point;
+            if (s.x1 == s.x2) {
+                s.side = (compareEvents(this.point, s.right) > 0) ? -1
+                        : (compareEvents(this.point, s.left) < 0) ? 1 : 0;
+            } else {
+                // the event point is to the left of the line from its left end to its right end if it is above it.
+                s.side = -orient(s, this.point);
+            }
+        }
+        return s.side;
+    }
+
+    /**
+     * A method that finds the orientation of an event point relative to a line (like Predicates.orient2d), exactly.
+     * The point of an intersection event is only known to be in its box, and the orientation of the points of the
+     * box is the sign of a linear function - its lowest and highest values are on the two corners of the box in the
+     * direction across the line. If both of them are on the same side of the line, so is the point. Otherwise the
+     * line passes through the box, and the orientation is calculated with the exact point.
+     *
+     * @param s the line (from its left end to its right end).
+     * @param p the event point.
+     * @return 1 if the point is to the left of the line, -1 if it is to its right and 0 if it is on it.
+     */
+    private static int orient(Segment s, EventPoint p) {
+        if (!p.isCrossing) {
+            return Predicates.orient2d(s.x1, s.y1, s.x2, s.y2, p.x, p.y);
+        }
+        // the orientation grows with y (x2 > x1), and with x if the line goes down.
+        double xLow = (s.y2 < s.y1) ? p.xLow : p.xHigh, xHigh = (s.y2 < s.y1) ? p.xHigh : p.xLow;
+        int side = Predicates.orient2d(s.x1, s.y1, s.x2, s.y2, xLow, p.yLow);
+        if (side != 0 && side == Predicates.orient2d(s.x1, s.y1, s.x2, s.y2, xHigh, p.yHigh)) {
+            return side;
+        }
+        // (x2 - x1) * (y - y1) - (y2 - y1) * (x - x1), with x = exactX / den and y = exactY / den (den > 0).
+        p.exact();
+        BigDecimal dy = p.exactY.subtract(new BigDecimal(s.y1).multiply(p.den));
+        BigDecimal dx = p.exactX.subtract(new BigDecimal(s.x1).multiply(p.den));
+        return exact(s.x2, s.x1).multiply(dy).subtract(exact(s.y2, s.y1).multiply(dx)).signum();
+    }
+
+    /**
+     * A method that calculates the difference of two doubles exactly.
+     *
+     * @param x the first double.
+     * @param y the second double.
+     * @return x - y.
+     */
+    private static BigDecimal exact(double x, double y) {
+        return new BigDecimal(x).subtract(new BigDecimal(y));
+    }
+
+    /**
+     * The order of the status - by the side of the lines relative to the event point, and for lines that go through
+     * it, by their order just after it (where vertical lines are last). The probes are just below and just above
+     * the lines through the event point.
+     * The status is only compared with lines through the event point and with the probes, so two lines on the same
+     * side of the event point are only ordered by their indexes.
+     *
+     * @param a the first line.
+     * @param b the second line.
+     * @return a negative number if a is below b, a positive number if it is above it, and 0 if they are the same.
+     */
+    private int compareStatus(Segment a, Segment b) {
+        if (a == b) {
+            return 0;
+        }
+        int rankA = (a.line == null) ? a.id : 2 * this.side(a), rankB = (b.line == null) ? b.id : 2 * this.side(b);
+        if (rankA != rankB) {
+            return Integer.compare(rankA, rankB);
+        }
+        if (rankA == 0) {
+            int after = compareAfter(a, b);
+            if (after != 0) {
+                return after;
+            }
+        }
+        return Integer.compare(a.id, b.id);
+    }
+
+    /**
+     * A method that compares two lines through the same point by their order just after it - by the side of the
+     * right end of one of them relative to the other (with the orientation predicate, without dividing), so nearly
+     * parallel and nearly vertical lines are ordered right. Vertical lines are last.
+     *
+     * @param a the first line.
+     * @param b the second line.
+     * @return a negative number if a is below b after the point, a positive number if it is above it, and 0 if they
+     * are on the same line.
+     */
+    private static int compareAfter(Segment a, Segment b) {
+        boolean isVerticalA = a.x1 == a.x2, isVerticalB = b.x1 == b.x2;
+        if (isVerticalA || isVerticalB) {
+            return Boolean.compare(isVerticalA, isVerticalB);
+        }
+        // b is above a after the point if its right end is to the left of the direction of a.
+        return -Predicates.orient2d(a.x1, a.y1, a.x2, a.y2, b.x2, b.y2);
+    }
+
+    /**
+     * The order of the events - by x value, and then by y value, of their exact points.
+     *
+     * @param a the first event point.
+     * @param b the second event point.
+     * @return a negative number if a comes before b, a positive number if it comes after it, 0 if they are equal.
+     */
+    private static int compareEvents(EventPoint a, EventPoint b) {
+        if (a.isSameCrossing(b)) {
+            return 0;
+        }
+        int byX = compareCoordinates(a.xLow, a.xHigh, b.xLow, b.xHigh, a, b, true);
+        return (byX != 0) ? byX : compareCoordinates(a.yLow, a.yHigh, b.yLow, b.yHigh, a, b, false);
+    }
+
+    /**
+     * A method that compares a coordinate of two event points - by their boxes if they don't overlap (0 and -0 are
+     * equal), and exactly if they do.
+     *
+     * @param aLow  the low end of the box of the first point on the axis.
+     * @param aHigh the high end of the box of the first point on the axis.
+     * @param bLow  the low end of the box of the second point on the axis.
+     * @param bHigh the high end of the box of the second point on the axis.
+     * @param a     the first event point.
+     * @param b     the second event point.
+     * @param isX   true to compare the x values, false to compare the y values.
+     * @return a negative number if the coordinate of a is smaller, a positive number if it is bigger, and 0 if they
+     * are equal.
+     */
+    private static int compareCoordinates(double aLow, double aHigh, double bLow, double bHigh, EventPoint a,
+                                          EventPoint b, boolean isX) {
+        if (aHigh < bLow) {
+            return -1;
+        }
+        if (aLow > bHigh) {
+            return 1;
+        }
+        if (!a.isCrossing && !b.isCrossing) {
+            return 0;
+        }
+        // a / aDen against b / bDen, where the denominators are positive.
+        a.exact();
+        b.exact();
+        BigDecimal exactA = isX ? a.exactX : a.exactY, exactB = isX ? b.exactX : b.exactY;
+        return exactA.multiply(b.den).compareTo(exactB.multiply(a.den));
+    }
+
+    /**
+     * A point of an event - an end point of a line (its coordinates are exact), or the intersection point of the
+     * lines of two segments, which is exactly a rational point: a.start + t * (a.end - a.start), for t = num / den.
+     * Every event point has a box of doubles that contains it, so most comparisons don't need the exact point: the
+     * box of an end point is the point itself, and the box of an intersection point is calculated with interval
+     * arithmetic (see Interval). The exact point is kept as fractions with BigDecimal numerators and a common
+     * positive denominator, and it is created only when the boxes can't decide a comparison.
+     */
+    private static final class EventPoint {
+        private double x;
+        private double y;
+        private double xLow;
+        private double xHigh;
+        private double yLow;
+        private double yHigh;
+
+        /**
+         * The two segments whose lines meet in the point (null for an end point).
+         */
+        private Segment a;
+        private Segment b;
+        private boolean isCrossing;
+
+        /**
+         * The exact point - exactX / den and exactY / den (created only when needed).
+         */
+        private BigDecimal exactX;
+        private BigDecimal exactY;
+        private BigDecimal den;
+
+        /**
+         * A constructor that creates the event point of an end point.
+         *
+         * @param x the x value of the point.
+         * @param y the y value of the point.
+         */
+        private EventPoint(double x, double y) {
+            this.x = x;
+            this.y = y;
+            this.xLow = x;
+            this.xHigh = x;
+            this.yLow = y;
+            this.yHigh = y;
+        }
+
+        /**
+         * A method that creates the event point of the intersection point of the lines of two segments.
+         *
+         * @param a the first segment.
+         * @param b the second segment.
+         * @return the event point, or null if the lines are parallel (or their coordinates aren't finite).
+         */
+        private static EventPoint crossing(Segment a, Segment b) {
+            if (!Double.isFinite(a.x1 + a.y1 + a.x2 + a.y2 + b.x1 + b.y1 + b.x2 + b.y2)) {
+                return null;
+            }
+            EventPoint p = new EventPoint(0, 0);
+            p.a = a;
+            p.b = b;
+            p.isCrossing = true;
+            Interval ax = Interval.difference(a.x2, a.x1), ay = Interval.difference(a.y2, a.y1);
+            Interval bx = Interval.difference(b.x2, b.x1), by = Interval.difference(b.y2, b.y1);
+            Interval den = ax.times(by).minus(ay.times(bx));
+            if (den.low <= 0 && den.high >= 0) {
+                // the lines are parallel or almost parallel - the box is found from the exact point.
+                if (p.exact() == 0) {
+                    return null;
+                }
+                p.x = p.exactX.divide(p.den, MathContext.DECIMAL128).doubleValue();
+                p.y = p.exactY.divide(p.den, MathContext.DECIMAL128).doubleValue();
+                // the quotient is rounded twice (to 34 digits and to the nearest double), so it is less than the
+                // distance between two doubles from the exact value.
+                p.xLow = Math.nextDown(p.x);
+                p.xHigh = Math.nextUp(p.x);
+                p.yLow = Math.nextDown(p.y);
+                p.yHigh = Math.nextUp(p.y);
+                return p;
+            }
+            Interval num = Interval.difference(b.x1, a.x1).times(by).minus(Interval.difference(b.y1, a.y1).times(bx));
+            // the lines intersect, so t is between 0 and 1.
+            Interval t = num.dividedBy(den).within(0, 1);
+            Interval x = t.times(ax).plus(a.x1), y = t.times(ay).plus(a.y1);
+            p.xLow = x.low;
+            p.xHigh = x.high;
+            p.yLow = y.low;
+            p.yHigh = y.high;
+            p.x = (x.low + x.high) / 2;
+            p.y = (y.low + y.high) / 2;
+            return p;
+        }
+
+        /**
+         * A method that creates the exact point (if it wasn't created yet).
+         *
+         * @return the sign of the denominator of the point before it was made positive (0 if the lines of an
+         * intersection point are parallel).
+         */
+        private int exact() {
+            if (this.den != null) {
+                return 1;
+            }
+            if (!this.isCrossing) {
+                this.exactX = new BigDecimal(this.x);
+                this.exactY = new BigDecimal(this.y);
+                this.den = BigDecimal.ONE;
+                return 1;
+            }
+            Segment s = this.a, o = this.b;
+            BigDecimal ax = SweepLineIntersector.exact(s.x2, s.x1), ay = SweepLineIntersector.exact(s.y2, s.y1);
+            BigDecimal bx = SweepLineIntersector.exact(o.x2, o.x1), by = SweepLineIntersector.exact(o.y2, o.y1);
+            BigDecimal d = ax.multiply(by).subtract(ay.multiply(bx));
+            int sign = d.signum();
+            if (sign == 0) {
+                return 0;
+            }
+            BigDecimal num = SweepLineIntersector.exact(o.x1, s.x1).multiply(by)
+                    .subtract(SweepLineIntersector.exact(o.y1, s.y1).multiply(bx));
+            BigDecimal numX = new BigDecimal(s.x1).multiply(d).add(num.multiply(ax));
+            BigDecimal numY = new BigDecimal(s.y1).multiply(d).add(num.multiply(ay));
+            this.exactX = (sign < 0) ? numX.negate() : numX;
+            this.exactY = (sign < 0) ? numY.negate() : numY;
+            this.den = d.abs();
+            return sign;
+        }
+
+        /**
+         * A method that checks if two event points are the intersection point of the same two segments.
+         *
+         * @param other the other event point.
+         * @return true if they are, false otherwise.
+         */
+        private boolean isSameCrossing(EventPoint other) {
+            return this.isCrossing && other.isCrossing
+                    && ((this.a == other.a && this.b == other.b) || (this.a == other.b && this.b == other.a));
+        }
+    }
+
+    /**
+     * An interval of doubles, for bounding the intersection point of two lines. The result of every operation on
+     * doubles is the nearest double to the exact result, so the exact result is between the doubles before and after
+     * it - every operation on intervals moves its ends out by one double, so the exact values are always in the
+     * intervals.
+     */
+    private static final class Interval {
+        private double low;
+        private double high;
+
+        /**
+         * A constructor that creates an interval that contains two rounded values (and everything between them).
+         *
+         * @param a the first rounded value.
+         * @param b the second rounded value.
+         */
+        private Interval(double a, double b) {
+            this.low = Math.nextDown(Math.min(a, b));
+            this.high = Math.nextUp(Math.max(a, b));
+        }
+
+        /**
+         * A method that creates the interval of the difference of two doubles.
+         *
+         * @param x the first double.
+         * @param y the second double.
+         * @return an interval that contains x - y.
+         */
+        private static Interval difference(double x, double y) {
+            double d = x - y;
+            return new Interval(d, d);
+        }
+
+        /**
+         * A method that multiplies the interval by another interval.
+         *
+         * @param o the other interval.
+         * @return an interval that contains the products of all their values.
+         */
+        private Interval times(Interval o) {
+            double p1 = this.low * o.low, p2 = this.low * o.high, p3 = this.high * o.low, p4 = this.high * o.high;
+            return new Interval(Math.min(Math.min(p1, p2), Math.min(p3, p4)), Math.max(Math.max(p1, p2),
+                    Math.max(p3, p4)));
+        }
+
+        /**
+         * A method that subtracts another interval from the interval.
+         *
+         * @param o the other interval.
+         * @return an interval that contains the differences of all their values.
+         */
+        private Interval minus(Interval o) {
+            return new Interval(this.low - o.high, this.high - o.low);
+        }
+
+        /**
+         * A method that adds a double to the interval.
+         *
+         * @param d the double.
+         * @return an interval that contains the sums of its values and the double.
+         */
+        private Interval plus(double d) {
+            return new Interval(this.low + d, this.high + d);
+        }
+
+        /**
+         * A method that divides the interval by an interval which doesn't contain 0.
+         *
+         * @param o the other interval.
+         * @return an interval that contains the quotients of all their values.
+         */
+        private Interval dividedBy(Interval o) {
+            double q1 = this.low / o.low, q2 = this.low / o.high, q3 = this.high / o.low, q4 = this.high / o.high;
+            return new Interval(Math.min(Math.min(q1, q2), Math.min(q3, q4)), Math.max(Math.max(q1, q2),
+                    Math.max(q3, q4)));
+        }
+
+        /**
+         * A method that cuts the interval to a range that contains the exact value.
+         *
+         * @param min the minimal exact value.
+         * @param max the maximal exact value.
+         * @return this interval, cut to the range.
+         */
+        private Interval within(double min, double max) {
+            this.low = Math.max(this.low, min);
+            this.high = Math.min(this.high, max);
+            return this;
+        }
+    }
+
+    /**
+     * A line of the sweep, with its end points ordered from left to right (and from bottom to top for vertical
+     * lines). It is also used as a probe of the status (which has no line, and its side as its index).
+     */
+    private static final class Segment {
+        private int id;
+        private Line line;
+        private double x1;
+        private double y1;
+        private double x2;
+        private double y2;
+
+        /**
+         * The event points of the left end and the right end of the line.
+         */
+        private EventPoint left;
+        private EventPoint right;
+
+        /**
+         * If the line goes through the current event point, and its side relative to the event point it was last
+         * compared with.
+         */
+        private boolean isAtEvent;
+        private EventPoint sideAt;
+        private int side;
+
+        /**
+         * A constructor that creates a sweep line segment from a line.
+         *
+         * @param id   the index of the line.
+         * @param line the line.
+         */
+        private Segment(int id, Line line) {
+            this.id = id;
+            this.line = line;
+            Point a = line.start(), b = line.end();
+            if (a.getX() > b.getX() || (a.getX() == b.getX() && a.getY() > b.getY())) {
+                Point tmp = a;
+                a = b;
+                b = tmp;
+            }
+            this.x1 = a.getX();
+            this.y1 = a.getY();
+            this.x2 = b.getX();
+            this.y2 = b.getY();
+            this.left = new EventPoint(this.x1, this.y1);
+            this.right = new EventPoint(this.x2, this.y2);
+        }
+
+        /**
+         * A method that creates a probe of the status.
+         *
+         * @param side -1 for the probe below the lines through the event point, 1 for the probe above them.
+         * @return the probe.
+         */
+        private static Segment probe(int side) {
+            Segment s = new Segment();
+            s.id = side;
+            return s;
+        }
+
+        /**
+         * A constructor for probes.
+         */
+        private Segment() {
+        }
+    }
+}
@@ -0,0 +1,76 @@
+// ID - 212945760
+
+import java.nio.ByteBuffer;
+
+/**
+ * The Varint class - writes and reads numbers in a variable number of bytes (7 bits in every byte, and the high
+ * bit tells if more bytes follow), so small numbers take one byte. Signed numbers are zigzag encoded first
+ * (0, -1, 1, -2, 2... become 0, 1, 2, 3, 4...), so small negative numbers are small too.
+ *
+ * @author Ori Dabush
+ */
+public class Varint {
+
+    /**
+     * The maximal number of bytes of a number.
+     */
+    public static final int MAX_BYTES = 10;
+
+    private static final int BITS = 7;
+    private static final int LOW_BITS = 0x7F;
+    private static final int MORE = 0x80;
+
+    /**
+     * A method that writes a non-negative number (a negative number is written as an unsigned number, in 10
+     * bytes).
+     *
+     * @param buffer the buffer to write to.
+     * @param value  the number.
+     */
+    public static void putUnsigned(ByteBuffer buffer, long value) {
+        while ((value & ~LOW_BITS) != 0) {
+            buffer.put((byte) ((value & LOW_BITS) | MORE));
+            value >>>= BITS;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * A method that reads a number that was written with putUnsigned.
+     *
+     * @param buffer the buffer to read from.
+     * @return the number.
+     */
+    public static long getUnsigned(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & LOW_BITS) << shift;
+            shift += BITS;
+        } while ((b & MORE) != 0);
+        return value;
+    }
+
+    /**
+     * A method that writes a signed number (zigzag encoded).
+     *
+     * @param buffer the buffer to write to.
+     * @param value  the number.
+     */
+    public static void putSigned(ByteBuffer buffer, long value) {
+        putUnsigned(buffer, (value << 1) ^ (value >> (Long.SIZE - 1)));
+    }
+
+    /**
+     * A method that reads a number that was written with putSigned.
+     *
+     * @param buffer the buffer to read from.
+     * @return the number.
+     */
+    public static long getSigned(ByteBuffer buffer) {
+        long v = getUnsigned(buffer);
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
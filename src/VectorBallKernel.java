@@ -0,0 +1,78 @@
+// ID - 212945760
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The VectorBallKernel class - a BallKernel that moves and reflects the balls in SIMD lanes (as many as the
+ * preferred vector size of the CPU holds - 4 with AVX2, 8 with AVX-512), with the jdk.incubator.vector API.
+ * The borders are compared without branches, and the velocities of the balls that bounced are flipped with a
+ * masked blend. The integer comparisons of the scalar kernel are kept exactly - for an integer bound k,
+ * (int) p &lt;= k is p &lt; k + 1 for p &gt;= 0 and p &lt;= k for p &lt; 0 (the cast rounds towards zero), and
+ * the same for the high border. The balls at the end of the range which don't fill the lanes are moved by the
+ * scalar kernel. The lanes that bounced are read back through a small array (the mask is blended into a vector
+ * and stored) - turning the mask into a long (or reading its lanes) boxes it, which allocates on every step.
+ * This class needs the module at runtime - it is created by BallKernel.create, only when the module is present.
+ *
+ * @author Ori Dabush
+ */
+public class VectorBallKernel extends BallKernel {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class,
+            VectorShape.forBitSize(DOUBLES.length() * Integer.SIZE));
+
+    private double[] bouncedLanes;
+
+    /**
+     * A constructor that creates a vector kernel.
+     *
+     * @param flag the mark of a bounce on the axis of the kernel.
+     */
+    public VectorBallKernel(int flag) {
+        super(flag);
+        this.bouncedLanes = new double[DOUBLES.length()];
+    }
+
+    @Override
+    public int lanes() {
+        return DOUBLES.length();
+    }
+
+    @Override
+    public int moveAndReflect(double[] pos, double[] vel, int[] radius, int from, int to, double low, double high) {
+        // the integer bounds - (int) p <= low + r is (int) p <= floor(low) + r, and the same for high.
+        double lowBound = Math.floor(low), highBound = Math.ceil(high);
+        int lanes = DOUBLES.length(), bounced = 0, i = from;
+        for (; i <= to - lanes; i += lanes) {
+            DoubleVector p = DoubleVector.fromArray(DOUBLES, pos, i);
+            DoubleVector v = DoubleVector.fromArray(DOUBLES, vel, i);
+            DoubleVector r = (DoubleVector) IntVector.fromArray(INTS, radius, i)
+                    .convertShape(VectorOperators.I2D, DOUBLES, 0);
+            p = p.add(v);
+            DoubleVector k = r.add(lowBound), m = r.neg().add(highBound);
+            VectorMask<Double> negative = p.compare(VectorOperators.LT, 0);
+            VectorMask<Double> hitLow = p.compare(VectorOperators.LT, k.add(1)).andNot(negative)
+                    .or(p.compare(VectorOperators.LE, k).and(negative));
+            VectorMask<Double> hitHigh = p.compare(VectorOperators.GE, m).andNot(negative)
+                    .or(p.compare(VectorOperators.GT, m.sub(1)).and(negative));
+            VectorMask<Double> hit = hitLow.or(hitHigh);
+            p.intoArray(pos, i);
+            v.blend(v.neg(), hit).intoArray(vel, i);
+            if (hit.anyTrue()) {
+                DoubleVector.zero(DOUBLES).blend(1.0, hit).intoArray(this.bouncedLanes, 0);
+                for (int j = 0; j < lanes; j++) {
+                    if (this.bouncedLanes[j] != 0) {
+                        this.mark(i + j);
+                        bounced++;
+                    }
+                }
+            }
+        }
+        return bounced + super.moveAndReflect(pos, vel, radius, i, to, low, high);
+    }
+}
@@ -7,6 +7,13 @@
  */
 public class Velocity {
 
+    /**
+     * The number of steps in a second the velocities of the animations are given in (a step every 50 milliseconds).
+     * A velocity is always the change in position in one step, so the same velocity moves a different distance in
+     * a second at a different number of steps per second - the per second methods convert between the two units.
+     */
+    public static final double DEFAULT_STEPS_PER_SECOND = 20;
+
     /**
      * The velocity parameters - dx and dy.
      */
@@ -65,6 +72,38 @@ public class Velocity {
         return new Velocity(dx, dy);
     }
 
+    /**
+     * A method that creates a velocity (a change in position in one step) from a change in position in one second.
+     *
+     * @param dxPerSecond    the change in x axis in one second.
+     * @param dyPerSecond    the change in y axis in one second.
+     * @param stepsPerSecond the number of steps in a second.
+     * @return the velocity object.
+     */
+    public static Velocity fromUnitsPerSecond(double dxPerSecond, double dyPerSecond, double stepsPerSecond) {
+        return new Velocity(dxPerSecond / stepsPerSecond, dyPerSecond / stepsPerSecond);
+    }
+
+    /**
+     * A method that gets the change in x axis in one second.
+     *
+     * @param stepsPerSecond the number of steps in a second.
+     * @return the change in x axis in one second.
+     */
+    public double getDxPerSecond(double stepsPerSecond) {
+        return this.dx * stepsPerSecond;
+    }
+
+    /**
+     * A method that gets the change in y axis in one second.
+     *
+     * @param stepsPerSecond the number of steps in a second.
+     * @return the change in y axis in one second.
+     */
+    public double getDyPerSecond(double stepsPerSecond) {
+        return this.dy * stepsPerSecond;
+    }
+
     /**
      * An accessor for the dx value of the velocity.
      *
@@ -83,6 +122,42 @@ public class Velocity {
         return this.dy;
     }
 
+    /**
+     * A method that sets the dx and dy values of the velocity in place.
+     * Like the other in place methods, it is package-private - only a ball changes its own velocity.
+     *
+     * @param newDx the new dx value.
+     * @param newDy the new dy value.
+     */
+    void set(double newDx, double newDy) {
+        this.dx = newDx;
+        this.dy = newDy;
+    }
+
+    /**
+     * A method that flips the direction of the velocity on the x axis in place (dx becomes -dx).
+     */
+    void reverseDx() {
+        this.dx = -this.dx;
+    }
+
+    /**
+     * A method that flips the direction of the velocity on the y axis in place (dy becomes -dy).
+     */
+    void reverseDy() {
+        this.dy = -this.dy;
+    }
+
+    /**
+     * A method that takes a point with position (x,y) and moves it in place to position (x+dx, y+dy).
+     * Unlike applyToPoint, it doesn't create a new point.
+     *
+     * @param p the point we want to move.
+     */
+    void applyToPointInPlace(Point p) {
+        p.translate(this.dx, this.dy);
+    }
+
     /**
      * A method that takes a point with position (x,y) and return a new point with position (x+dx, y+dy).
      *
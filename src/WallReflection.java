@@ -0,0 +1,163 @@
+// ID - 212945760
+
+/**
+ * The WallReflection class - the motion of a ball between two parallel walls, on one axis. The center of a ball
+ * of radius r in a frame moves between low = border + r and high = border - r, and it reflects from them, so
+ * moving it by a distance d is like moving it on a straight line and folding the line at the walls (like a mirror,
+ * every 2 * (high - low) the motion repeats).
+ * This gives the exact place of the ball and the number of times it hit the walls, no matter how long the distance
+ * is - so a fast ball can't skip over a wall in one step, and it reflects at the moment it hits the wall and keeps
+ * the rest of its motion.
+ *
+ * @author Ori Dabush
+ */
+public class WallReflection {
+
+    /**
+     * A method that checks if a ball can move continuously between the walls - the walls are apart and the center
+     * is between them (including on them).
+     *
+     * @param start the place of the center.
+     * @param low   the low wall (the lowest place of the center).
+     * @param high  the high wall (the highest place of the center).
+     * @return true if the ball moves between the walls, false otherwise.
+     */
+    public static boolean isBetween(double start, double low, double high) {
+        return low < high && low <= start && start <= high;
+    }
+
+    /**
+     * A method that calculates the number of times a ball hits the walls when it moves a distance. The ball must be
+     * between the walls (see isBetween). A ball that ends exactly on a wall hits it, and so does a ball that starts
+     * on a wall and moves out of it (either wall, in either direction), and a ball that doesn't move doesn't hit
+     * anything.
+     * On the unfolded line the walls are at the whole multiples of high - low from the low wall - floor counts the
+     * ones the ball reaches when it moves to the high wall, and one less than ceil counts them when it moves to the
+     * low wall, so a wall at the end counts on both sides.
+     *
+     * @param start    the place of the center.
+     * @param distance the distance the ball moves (negative to move to the low wall).
+     * @param low      the low wall.
+     * @param high     the high wall.
+     * @return the number of times the ball hits the walls, with the sign of the distance. The direction of the ball
+     *         is flipped if it is odd.
+     */
+    public static long hits(double start, double distance, double low, double high) {
+        if (distance == 0) {
+            return 0;
+        }
+        double walls = (start - low + distance) / (high - low);
+        return (distance > 0) ? (long) Math.floor(walls) : (long) Math.ceil(walls) - 1;
+    }
+
+    /**
+     * A method that calculates the place of a ball after it moves a distance, reflecting from the walls. The ball
+     * must be between the walls (see isBetween).
+     *
+     * @param start    the place of the center.
+     * @param distance the distance the ball moves (negative to move to the low wall).
+     * @param low      the low wall.
+     * @param high     the high wall.
+     * @return the place of the center after moving.
+     */
+    public static double fold(double start, double distance, double low, double high) {
+        double length = high - low, period = 2 * length;
+        double offset = start - low + distance;
+        offset -= period * Math.floor(offset / period);
+        return (offset <= length) ? low + offset : low + period - offset;
+    }
+
+    /**
+     * A method that calculates the place of a ball after one step with continuous collision detection - a ball which
+     * is between the walls moves and reflects from them (see fold), and a ball which isn't (it is bigger than the
+     * space between them, or it is out of it) moves on a straight line.
+     *
+     * @param start    the place of the center.
+     * @param distance the distance the ball moves in the step.
+     * @param low      the low wall.
+     * @param high     the high wall.
+     * @return the place of the center after the step.
+     */
+    public static double step(double start, double distance, double low, double high) {
+        if (isBetween(start, low, high)) {
+            return fold(start, distance, low, high);
+        }
+        return start + distance;
+    }
+
+    /**
+     * A method that calculates the number of times a ball hits the walls in one step with continuous collision
+     * detection (like hits). A ball which isn't between the walls hits them once if its place after the step (as an
+     * integer) is on or over one of them, like in Frame.adjustBallToFrame.
+     *
+     * @param start    the place of the center.
+     * @param distance the distance the ball moves in the step.
+     * @param low      the low wall.
+     * @param high     the high wall.
+     * @return the number of times the ball hits the walls in the step (see hits). The direction of the ball is
+     *         flipped if it is odd.
+     */
+    public static long stepHits(double start, double distance, double low, double high) {
+        if (isBetween(start, low, high)) {
+            return hits(start, distance, low, high);
+        }
+        int end = (int) (start + distance);
+        return (end <= low || high <= end) ? 1 : 0;
+    }
+
+    /**
+     * A method that calculates the place of a ball at a time, in closed form - without stepping it. A ball which
+     * is not between the walls moves on a straight line.
+     *
+     * @param start    the place of the center at time 0.
+     * @param velocity the velocity at time 0 (the distance in a unit of time).
+     * @param t        the time (can be negative, to go back).
+     * @param low      the low wall.
+     * @param high     the high wall.
+     * @return the place of the center at time t.
+     */
+    public static double positionAt(double start, double velocity, double t, double low, double high) {
+        if (!isBetween(start, low, high)) {
+            return start + velocity * t;
+        }
+        return fold(start, velocity * t, low, high);
+    }
+
+    /**
+     * A method that calculates the velocity of a ball at a time, in closed form - the velocity at time 0, flipped
+     * if the ball hit the walls an odd number of times until then.
+     *
+     * @param start    the place of the center at time 0.
+     * @param velocity the velocity at time 0.
+     * @param t        the time (can be negative, to go back).
+     * @param low      the low wall.
+     * @param high     the high wall.
+     * @return the velocity at time t.
+     */
+    public static double velocityAt(double start, double velocity, double t, double low, double high) {
+        if (!isBetween(start, low, high) || (hits(start, velocity * t, low, high) & 1) == 0) {
+            return velocity;
+        }
+        return -velocity;
+    }
+
+    /**
+     * A method that calculates the time (the part of a step) until a ball hits a wall for the first time.
+     *
+     * @param start    the place of the center.
+     * @param distance the distance the ball moves in a step.
+     * @param low      the low wall.
+     * @param high     the high wall.
+     * @return the time of the first hit in the step, or a number bigger than 1 if the ball doesn't hit a wall in
+     *         the step.
+     */
+    public static double timeOfImpact(double start, double distance, double low, double high) {
+        if (distance > 0) {
+            return (high - start) / distance;
+        }
+        if (distance < 0) {
+            return (low - start) / distance;
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+}